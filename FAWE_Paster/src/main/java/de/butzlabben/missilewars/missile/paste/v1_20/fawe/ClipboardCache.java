@@ -0,0 +1,251 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.missile.paste.v1_20.fawe;
+
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.math.transform.AffineTransform;
+import com.sk89q.worldedit.world.block.BlockType;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class caches the parsed schematic clipboards, so that a schematic file
+ * is only read once instead of on every paste. For every used rotation, a
+ * pre-transformed clipboard is kept, together with the positions of the blocks
+ * that are looked up after a paste (like the temp block).
+ * <p>
+ * The cache is bounded by the total block volume of the cached clipboards. If the
+ * limit is reached, the least recently used clipboards are removed first. Removed
+ * clipboards are closed.
+ */
+public class ClipboardCache {
+
+    private final Map<Key, Entry> clipboards = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxVolume;
+    private long volume = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param maxVolume (long) the maximum total block volume of all cached clipboards
+     */
+    public ClipboardCache(long maxVolume) {
+        this.maxVolume = maxVolume;
+    }
+
+    /**
+     * This method returns the rotated clipboard of the schematic. If the
+     * schematic file has changed since it was cached, it is read again.
+     *
+     * @param schematic (File) the schematic file
+     * @param rotation (int) the target schematic rotation
+     *
+     * @return the rotated clipboard
+     */
+    public synchronized Clipboard get(File schematic, int rotation) throws IOException, WorldEditException {
+        return getEntry(schematic, rotation).clipboard;
+    }
+
+    /**
+     * This method returns the positions of all blocks of the given type in the rotated
+     * clipboard, relative to the paste position. The positions are stored as consecutive
+     * x, y and z values.
+     *
+     * @param schematic (File) the schematic file
+     * @param rotation (int) the target schematic rotation
+     * @param blockType (BlockType) the searched block type
+     *
+     * @return the relative block positions
+     */
+    public synchronized int[] getOffsets(File schematic, int rotation, BlockType blockType) throws IOException, WorldEditException {
+        Entry entry = getEntry(schematic, rotation);
+        return entry.offsets.computeIfAbsent(blockType, type -> findOffsets(entry.clipboard, type));
+    }
+
+    private Entry getEntry(File schematic, int rotation) throws IOException, WorldEditException {
+        Key key = new Key(schematic.getAbsolutePath(), schematic.lastModified(), normalize(rotation));
+
+        Entry entry = clipboards.get(key);
+        if (entry != null) {
+            hits++;
+            return entry;
+        }
+
+        misses++;
+        Clipboard clipboard;
+        if (key.rotation == 0) {
+            clipboard = read(schematic);
+        } else {
+            // The rotated clipboards are derived from the cached clipboard without rotation.
+            clipboard = get(schematic, 0).transform(new AffineTransform().rotateY(key.rotation));
+        }
+
+        entry = new Entry(clipboard);
+        removeOutdated(key);
+        put(key, entry);
+        return entry;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return clipboards.size();
+    }
+
+    public synchronized void clear() {
+        clipboards.values().forEach(ClipboardCache::close);
+        clipboards.clear();
+        volume = 0;
+    }
+
+    private static Clipboard read(File schematic) throws IOException {
+        ClipboardFormat clipboardFormat = ClipboardFormats.findByFile(schematic);
+        if (clipboardFormat == null) throw new IOException("Unknown schematic format of '" + schematic.getName() + "'");
+
+        try (ClipboardReader clipboardReader = clipboardFormat.getReader(new FileInputStream(schematic))) {
+            return clipboardReader.read();
+        }
+    }
+
+    private static int[] findOffsets(Clipboard clipboard, BlockType blockType) {
+        BlockVector3 origin = clipboard.getOrigin();
+        int[] offsets = new int[0];
+        int size = 0;
+
+        for (BlockVector3 position : clipboard.getRegion()) {
+            if (clipboard.getBlock(position).getBlockType() != blockType) continue;
+
+            if (size + 3 > offsets.length) offsets = Arrays.copyOf(offsets, Math.max(6, offsets.length * 2));
+            offsets[size++] = position.getX() - origin.getX();
+            offsets[size++] = position.getY() - origin.getY();
+            offsets[size++] = position.getZ() - origin.getZ();
+        }
+
+        return Arrays.copyOf(offsets, size);
+    }
+
+    private void put(Key key, Entry entry) {
+        long clipboardVolume = entry.clipboard.getRegion().getVolume();
+
+        // A clipboard larger than the whole cache is not cached.
+        if (clipboardVolume > maxVolume) return;
+
+        clipboards.put(key, entry);
+        volume += clipboardVolume;
+
+        Iterator<Map.Entry<Key, Entry>> iterator = clipboards.entrySet().iterator();
+        while ((volume > maxVolume) && iterator.hasNext()) {
+            Map.Entry<Key, Entry> eldest = iterator.next();
+            if (eldest.getKey().equals(key)) continue;
+
+            volume -= eldest.getValue().clipboard.getRegion().getVolume();
+            iterator.remove();
+            close(eldest.getValue());
+        }
+    }
+
+    /**
+     * This method removes the clipboards of older versions of the schematic file.
+     */
+    private void removeOutdated(Key key) {
+        Iterator<Map.Entry<Key, Entry>> iterator = clipboards.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> entry = iterator.next();
+            if (!entry.getKey().path.equals(key.path)) continue;
+            if (entry.getKey().lastModified == key.lastModified) continue;
+
+            volume -= entry.getValue().clipboard.getRegion().getVolume();
+            iterator.remove();
+            close(entry.getValue());
+        }
+    }
+
+    /**
+     * This method closes the clipboard of a removed entry. FAWE clipboards can be 
+     * stored on the disk, so their files would be kept open otherwise.
+     */
+    private static void close(Entry entry) {
+        try {
+            entry.clipboard.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    private static int normalize(int rotation) {
+        return ((rotation % 360) + 360) % 360;
+    }
+
+    private static final class Entry {
+
+        private final Clipboard clipboard;
+        private final Map<BlockType, int[]> offsets = new HashMap<>();
+
+        private Entry(Clipboard clipboard) {
+            this.clipboard = clipboard;
+        }
+    }
+
+    private static final class Key {
+
+        private final String path;
+        private final long lastModified;
+        private final int rotation;
+
+        private Key(String path, long lastModified, int rotation) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.rotation = rotation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key key = (Key) o;
+            return (lastModified == key.lastModified) && (rotation == key.rotation) && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = path.hashCode();
+            result = 31 * result + Long.hashCode(lastModified);
+            result = 31 * result + rotation;
+            return result;
+        }
+    }
+}
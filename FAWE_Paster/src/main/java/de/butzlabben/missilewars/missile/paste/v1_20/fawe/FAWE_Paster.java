@@ -19,44 +19,48 @@
 package de.butzlabben.missilewars.missile.paste.v1_20.fawe;
 
 import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
 import com.sk89q.worldedit.bukkit.BukkitWorld;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
 import com.sk89q.worldedit.function.operation.Operation;
 import com.sk89q.worldedit.function.operation.Operations;
 import com.sk89q.worldedit.math.BlockVector3;
-import com.sk89q.worldedit.math.transform.AffineTransform;
 import com.sk89q.worldedit.session.ClipboardHolder;
 import com.sk89q.worldedit.world.World;
+import org.bukkit.Chunk;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 
 /**
  * @author Daniel Nägele
  */
 public class FAWE_Paster {
-
-    public void pasteMissile(File schematic, Vector locationVec, int rotation, org.bukkit.World world, boolean blockUpdate, 
-                             Material replaceMaterial, int replaceTicks, int replaceRadius, JavaPlugin plugin) {
-        
-        pasteSchematic(schematic, locationVec, rotation, world, plugin);
-        
-        if (!blockUpdate) return;
-        
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                removeTempBlock(locationVec, world, replaceMaterial, replaceRadius);
-            }
-        }.runTaskLater(plugin, replaceTicks);
+    
+    /**
+     * The default block volume of the cached clipboards, the same as the default of 'schematic_cache.max_volume'.
+     */
+    public static final long DEFAULT_MAX_CACHE_VOLUME = 1000000;
+    
+    private final ClipboardCache clipboardCache;
+    
+    public FAWE_Paster() {
+        this(DEFAULT_MAX_CACHE_VOLUME);
+    }
+    
+    /**
+     * @param maxCacheVolume (long) the maximum total block volume of the cached schematic clipboards
+     */
+    public FAWE_Paster(long maxCacheVolume) {
+        this.clipboardCache = new ClipboardCache(maxCacheVolume);
     }
 
     /**
@@ -71,13 +75,11 @@ public class FAWE_Paster {
     public void pasteSchematic(File schematic, Vector locationVec, int rotation, org.bukkit.World world, JavaPlugin plugin) {
         World weWorld = new BukkitWorld(world);
         BlockVector3 blockVec = getBlockVector(locationVec);
-        ClipboardFormat clipboardFormat = ClipboardFormats.findByFile(schematic);
         
-        try (ClipboardReader clipboardReader = clipboardFormat.getReader(new FileInputStream(schematic));
-             var session = WorldEdit.getInstance().newEditSession(weWorld)) {
+        try (var session = WorldEdit.getInstance().newEditSession(weWorld)) {
             
-            ClipboardHolder clipboardHolder = new ClipboardHolder(clipboardReader.read());
-            clipboardHolder.setTransform(new AffineTransform().rotateY(rotation));
+            // The cached clipboard is already rotated.
+            ClipboardHolder clipboardHolder = new ClipboardHolder(clipboardCache.get(schematic, rotation));
             
             Operation pasteBuilder = clipboardHolder
                     .createPaste(session)
@@ -92,6 +94,137 @@ public class FAWE_Paster {
         }
     }
     
+    /**
+     * This method reads the schematic into the clipboard cache, so that 
+     * the first paste of the schematic doesn't have to read the file.
+     * 
+     * @param schematic (File) the target WorldEdit schematic file
+     * @param rotations (int...) the schematic rotations to be prepared
+     * @param plugin (JavaPlugin) the basis plugin
+     */
+    public void preloadSchematic(File schematic, int[] rotations, JavaPlugin plugin) {
+        try {
+            for (int rotation : rotations) {
+                clipboardCache.get(schematic, rotation);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not load schematic '" + schematic.getName() 
+                    + "' with FAWE (" + WorldEdit.getVersion() + ")", e);
+        }
+    }
+    
+    /**
+     * This method returns the block volume of the (rotated) schematic. It is the 
+     * maximum number of block changes of a paste.
+     * 
+     * @param schematic (File) the target WorldEdit schematic file
+     * @param rotation (int) the target schematic rotation
+     * @param plugin (JavaPlugin) the basis plugin
+     * 
+     * @return the block volume or '0', if the schematic could not be read
+     */
+    public long getVolume(File schematic, int rotation, JavaPlugin plugin) {
+        try {
+            return clipboardCache.get(schematic, rotation).getRegion().getVolume();
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not load schematic '" + schematic.getName() 
+                    + "' with FAWE (" + WorldEdit.getVersion() + ")", e);
+            return 0;
+        }
+    }
+    
+    /**
+     * This method returns the area of the (rotated) schematic relative to the paste 
+     * position, so that only this area has to be checked after a paste.
+     * 
+     * @param schematic (File) the target WorldEdit schematic file
+     * @param rotation (int) the target schematic rotation
+     * @param plugin (JavaPlugin) the basis plugin
+     * 
+     * @return the relative area (min x, y, z, max x, y, z) or 'null', if the schematic could not be read
+     */
+    public int[] getBounds(File schematic, int rotation, JavaPlugin plugin) {
+        try {
+            Clipboard clipboard = clipboardCache.get(schematic, rotation);
+            BlockVector3 min = clipboard.getRegion().getMinimumPoint().subtract(clipboard.getOrigin());
+            BlockVector3 max = clipboard.getRegion().getMaximumPoint().subtract(clipboard.getOrigin());
+            return new int[] {min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ()};
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not load schematic '" + schematic.getName() 
+                    + "' with FAWE (" + WorldEdit.getVersion() + ")", e);
+            return null;
+        }
+    }
+    
+    public ClipboardCache getClipboardCache() {
+        return clipboardCache;
+    }
+    
+    /**
+     * This method removes the temporary "Starter-Blocks" of a pasted schematic. The 
+     * positions of the temp block are known from the schematic. The cube search is 
+     * only used, if the schematic could not be read.
+     * 
+     * @param schematic (File) the pasted WorldEdit schematic file
+     * @param locationVec (Vector) the abstract block location
+     * @param rotation (int) the schematic rotation of the paste
+     * @param world (World) the target world
+     * @param replaceMaterial (Material) the target material for the replacement
+     * @param replaceRadius (int) the configured "Replace radius" for the fallback search
+     * @param plugin (JavaPlugin) the basis plugin
+     */
+    public void removeTempBlocks(File schematic, Vector locationVec, int rotation, org.bukkit.World world, 
+                                 Material replaceMaterial, int replaceRadius, JavaPlugin plugin) {
+        int[] offsets;
+        try {
+            offsets = clipboardCache.getOffsets(schematic, rotation, BukkitAdapter.asBlockType(replaceMaterial));
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Could not find the temp blocks of schematic '" + schematic.getName() 
+                    + "'. Searching them in the replace radius.", e);
+            removeTempBlock(locationVec, world, replaceMaterial, replaceRadius);
+            return;
+        }
+        
+        removeTempBlocks(locationVec, offsets, world, replaceMaterial);
+    }
+    
+    /**
+     * This method removes the temporary "Starter-Blocks" at the known positions of the 
+     * pasted schematic. The positions are grouped by chunk, so that every chunk is only 
+     * looked up once.
+     * 
+     * @param locationVec (Vector) the abstract block location
+     * @param offsets (int[]) the positions of the temp blocks relative to the paste position (x, y, z)
+     * @param world (World) the target world
+     * @param replaceMaterial (Material) the target material for the replacement
+     */
+    public void removeTempBlocks(Vector locationVec, int[] offsets, org.bukkit.World world, Material replaceMaterial) {
+        BlockVector3 blockVec = getBlockVector(locationVec);
+        Map<Long, List<int[]>> positionsByChunk = new LinkedHashMap<>();
+        
+        for (int i = 0; i + 2 < offsets.length; i += 3) {
+            int x = blockVec.getX() + offsets[i];
+            int y = blockVec.getY() + offsets[i + 1];
+            int z = blockVec.getZ() + offsets[i + 2];
+            if ((y < world.getMinHeight()) || (y >= world.getMaxHeight())) continue;
+            
+            long chunkKey = ((long) (x >> 4) << 32) | ((z >> 4) & 0xFFFFFFFFL);
+            positionsByChunk.computeIfAbsent(chunkKey, key -> new ArrayList<>()).add(new int[] {x, y, z});
+        }
+        
+        for (List<int[]> positions : positionsByChunk.values()) {
+            int[] first = positions.get(0);
+            Chunk chunk = world.getChunkAt(first[0] >> 4, first[2] >> 4);
+            
+            for (int[] position : positions) {
+                Block block = chunk.getBlock(position[0] & 15, position[1], position[2] & 15);
+                if (block.getType() == replaceMaterial) {
+                    block.setType(Material.AIR);
+                }
+            }
+        }
+    }
+    
     /**
      * This method removes the temporary "Starter-Block", so that the 
      * (asynchronously on FAWE) pasted schematic structure gets a 
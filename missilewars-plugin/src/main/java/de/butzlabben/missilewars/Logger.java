@@ -42,6 +42,12 @@ public enum Logger {
     }
 
     public void log(String msg) {
+        // Without a server, like in the tests, the messages are printed to the standard output.
+        if (Bukkit.getServer() == null) {
+            System.out.println(prefix + msg);
+            return;
+        }
+
         if (this == DEBUG && !Config.debug()) return;
 
         if (this == BOOTDONE) msg = msg + " [§aDONE§r]";
@@ -22,17 +22,23 @@ import co.aikar.commands.PaperCommandManager;
 import de.butzlabben.missilewars.commands.*;
 import de.butzlabben.missilewars.configuration.Config;
 import de.butzlabben.missilewars.game.GameManager;
+import de.butzlabben.missilewars.game.WorldPool;
 import de.butzlabben.missilewars.game.misc.MissileWarsPlaceholder;
 import de.butzlabben.missilewars.game.schematics.paste.FawePasteProvider;
+import de.butzlabben.missilewars.game.schematics.paste.NativePasteProvider;
 import de.butzlabben.missilewars.game.schematics.paste.Paster;
 import de.butzlabben.missilewars.game.signs.SignRepository;
+import de.butzlabben.missilewars.game.stats.FightStatsWriter;
 import de.butzlabben.missilewars.game.stats.StatsFetcher;
+import de.butzlabben.missilewars.game.stats.StatsStorage;
 import de.butzlabben.missilewars.initialization.FileManager;
 import de.butzlabben.missilewars.initialization.GamesInitialization;
 import de.butzlabben.missilewars.listener.PlayerListener;
 import de.butzlabben.missilewars.listener.SignListener;
 import de.butzlabben.missilewars.util.ConnectionHolder;
 import de.butzlabben.missilewars.util.MoneyUtil;
+import de.butzlabben.missilewars.util.PlayerDataProvider;
+import de.butzlabben.missilewars.util.stats.GameProfileBuilder;
 import de.butzlabben.missilewars.util.stats.PreFetcher;
 import de.butzlabben.missilewars.util.version.VersionUtil;
 import lombok.Getter;
@@ -40,6 +46,7 @@ import org.bstats.bukkit.Metrics;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
 import java.util.Date;
 
 /**
@@ -60,6 +67,7 @@ public class MissileWars extends JavaPlugin {
     @Getter private SignListener signListener;
     
     @Getter private Paster schematicPaster;
+    @Getter private StatsStorage statsStorage;
     
     public MissileWars() {
         instance = this;
@@ -88,11 +96,19 @@ public class MissileWars extends JavaPlugin {
         
         initialWeSupport();
         initialPapiSupport();
+        initialStatsStorage();
         MoneyUtil.giveMoney(null, -1);
         
+        // Load the inventories of the players, which could not be restored before the last shutdown:
+        PlayerDataProvider.getInstance().loadStash();
+        
         GamesInitialization.initialize();
         
+        // Write the fights of the last runs, which could not be saved:
+        if (Config.isFightStatsEnabled()) FightStatsWriter.getInstance().replayJournalAsync();
+        
         // Warm-up for Stats:
+        GameProfileBuilder.load(new File(getDataFolder(), "data/profiles.json"));
         if (Config.isPrefetchPlayers()) {
             PreFetcher.preFetchPlayers(new StatsFetcher(new Date(0L), ""));
         }
@@ -106,16 +122,44 @@ public class MissileWars extends JavaPlugin {
     public void onDisable() {
         
         GameManager.getInstance().disableAll();
+        PlayerDataProvider.getInstance().close();
+        WorldPool.getInstance().clear();
         FileManager.shotDownRoutine();
+        if (Config.isFightStatsEnabled()) FightStatsWriter.getInstance().flush();
+        if (statsStorage != null) statsStorage.close();
         ConnectionHolder.close();
+        GameProfileBuilder.close();
+    }
+    
+    /**
+     * This method creates the configured stats storage and prepares it, if the 
+     * Fight Stats are enabled.
+     */
+    private void initialStatsStorage() {
+        statsStorage = StatsStorage.create(Config.getStatsStorage());
+        if (!Config.isFightStatsEnabled()) return;
+        
+        statsStorage.prepare();
+        Logger.NORMAL.log("The Fight Stats are saved in the " + statsStorage.getType() + " stats storage.");
     }
     
     /**
      * This method checks which kind of WorldEdit Solution is installed. The paste 
-     * supplier is prepared on the basis of this.
+     * supplier is prepared on the basis of this. Without WorldEdit, or if it is 
+     * configured, the native paster of MissileWars is used.
      */
     private void initialWeSupport() {
-        if (Bukkit.getPluginManager().getPlugin("FastAsyncWorldEdit") != null) {
+        String pasterType = Config.getSchematicPaster().toUpperCase();
+        boolean hasWorldEdit = (Bukkit.getPluginManager().getPlugin("WorldEdit") != null) 
+                || (Bukkit.getPluginManager().getPlugin("FastAsyncWorldEdit") != null);
+        
+        if (pasterType.equals("NATIVE") || !hasWorldEdit) {
+            if (pasterType.equals("FAWE")) {
+                Logger.WARN.log("The Schematic Paster is set to \"FAWE\", but WorldEdit is not installed. Using the native paster.");
+            }
+            schematicPaster = new NativePasteProvider();
+            Logger.NORMAL.log("The Schematic Paster is prepared for the native paste behavior (without WorldEdit).");
+        } else if (Bukkit.getPluginManager().getPlugin("FastAsyncWorldEdit") != null) {
             schematicPaster = new FawePasteProvider();
             Logger.NORMAL.log("FastAsyncWorldEdit is installed. The Schematic Paster is prepared for the behavior of FAWE.");
         } else {
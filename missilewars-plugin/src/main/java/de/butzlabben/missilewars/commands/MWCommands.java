@@ -30,9 +30,11 @@ import de.butzlabben.missilewars.game.enums.GameState;
 import de.butzlabben.missilewars.game.enums.TeamType;
 import de.butzlabben.missilewars.game.enums.VoteState;
 import de.butzlabben.missilewars.game.schematics.objects.Missile;
+import de.butzlabben.missilewars.game.stats.StatsCache;
 import de.butzlabben.missilewars.game.timer.LobbyTimer;
 import de.butzlabben.missilewars.initialization.ConfigLoader;
 import de.butzlabben.missilewars.player.MWPlayer;
+import de.butzlabben.missilewars.util.ConnectionHolder;
 import de.butzlabben.missilewars.util.MaterialUtil;
 import org.bukkit.Material;
 import org.bukkit.command.CommandSender;
@@ -141,15 +143,15 @@ public class MWCommands extends BaseCommand {
         
         Player targetPlayer = MissileWars.getInstance().getServer().getPlayer(args[0]);
         if (targetPlayer == null) {
-            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_PLAYER_NOT_ONLINE)
-                    .replace("%input%", args[0]));
+            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_PLAYER_NOT_ONLINE,
+                    "input", args[0]));
             return;
         }
         
         MWPlayer targetMwPlayer = game.getPlayer(targetPlayer);
         if (targetMwPlayer == null) {
-            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_PLAYER_NOT_IN_GAME)
-                    .replace("%input%", args[0]));
+            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_PLAYER_NOT_IN_GAME,
+                    "input", args[0]));
             return;
         }
         
@@ -179,16 +181,16 @@ public class MWCommands extends BaseCommand {
         
         // Is the same team?
         if (from == to) {
-            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_MOVE_ALREADY_IN_TEAM)
-                    .replace("%player%", targetPlayer.getName()));
+            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_MOVE_ALREADY_IN_TEAM,
+                    "player", targetPlayer.getName()));
             return;
         }
         
         if (game.getState() != GameState.END) {
             // Is the player the last one from his team?
             if ((from.getTeamType() == TeamType.PLAYER) && (from.getMembers().size() == 1)) {
-                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_MOVE_IS_LAST_PLAYER)
-                    .replace("%from%", from.getFullname()));
+                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_MOVE_IS_LAST_PLAYER,
+                    "from", from.getFullname()));
                 return;
             }
             
@@ -200,15 +202,15 @@ public class MWCommands extends BaseCommand {
         
         // The "isValidFairSwitch()" validation and max-user check is skipped here.
         
-        sender.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_MOVE_MOVED_SENDER)
-                .replace("%player%", targetPlayer.getName())
-                .replace("%from%", from.getFullname())
-                .replace("%to%", to.getFullname()));
+        sender.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_MOVE_MOVED_SENDER,
+                "player", targetPlayer.getName(),
+                "from", from.getFullname(),
+                "to", to.getFullname()));
         
-        targetPlayer.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_MOVE_MOVED_TARGET)
-                .replace("%sender%", player.getName())
-                .replace("%from%", from.getFullname())
-                .replace("%to%", to.getFullname()));
+        targetPlayer.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_MOVE_MOVED_TARGET,
+                "sender", player.getName(),
+                "from", from.getFullname(),
+                "to", to.getFullname()));
         
         game.getGameJoinManager().runPlayerTeamSwitch(targetMwPlayer, to);
     }
@@ -239,8 +241,8 @@ public class MWCommands extends BaseCommand {
 
         Missile missile = (Missile) game.getArenaConfig().getMissileConfig().getSchematicFromFileName(args[0]);
         if (missile == null) {
-            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_MISSILE)
-                    .replace("%input%", args[0]));
+            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_MISSILE,
+                    "input", args[0]));
             return;
         }
         
@@ -297,8 +299,8 @@ public class MWCommands extends BaseCommand {
         if (args.length == 1) {
             game = GameManager.getInstance().getGame(args[0]);
             if (game == null) {
-                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_GAME)
-                        .replace("%input%", args[0]));
+                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_GAME,
+                        "input", args[0]));
                 return;
             }
         } else {
@@ -345,8 +347,8 @@ public class MWCommands extends BaseCommand {
         if (args.length == 1) {
             game = GameManager.getInstance().getGame(args[0]);
             if (game == null) {
-                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_GAME)
-                        .replace("%input%", args[0]));
+                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_GAME,
+                        "input", args[0]));
                 return;
             }
         } else {
@@ -380,8 +382,8 @@ public class MWCommands extends BaseCommand {
         if (args.length == 1) {
             game = GameManager.getInstance().getGame(args[0]);
             if (game == null) {
-                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_GAME)
-                        .replace("%input%", args[0]));
+                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_GAME,
+                        "input", args[0]));
                 return;
             }
         } else {
@@ -418,6 +420,8 @@ public class MWCommands extends BaseCommand {
 
         ConfigLoader.loadConfigs();
         Arenas.load();
+        TemplateWorldCache.getInstance().clear();
+        WorldPool.getInstance().clear();
 
         player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.DEBUG_RELOAD_CONFIG));
     }
@@ -440,6 +444,13 @@ public class MWCommands extends BaseCommand {
         for (Game game : GameManager.getInstance().getGames().values()) {
             Logger.NORMAL.log("Printing state for arena " + game.getArenaConfig().getName() + ". Number: " + i);
             Logger.NORMAL.log(game.toString());
+            Logger.NORMAL.log(game.getPasteScheduler().getStatistics());
+        }
+        Logger.NORMAL.log("World pool: " + WorldPool.getInstance().getHits() + " hits, " + WorldPool.getInstance().getMisses() + " misses");
+        Logger.NORMAL.log(MissileWars.getInstance().getSchematicPaster().getStatistics());
+        if (Config.isFightStatsEnabled()) {
+            Logger.NORMAL.log(ConnectionHolder.getStatistics());
+            Logger.NORMAL.log(StatsCache.getInstance().getStatistics());
         }
 
         player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.DEBUG_PRINTED_DEBUG_MSG));
@@ -28,6 +28,7 @@ import de.butzlabben.missilewars.configuration.Config;
 import de.butzlabben.missilewars.configuration.PluginMessages;
 import de.butzlabben.missilewars.game.Game;
 import de.butzlabben.missilewars.game.GameManager;
+import de.butzlabben.missilewars.game.portal.PortalIndex;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
@@ -184,6 +185,7 @@ public class SetupCommands extends BaseCommand {
                     game.getArenaConfig().getArea().setPosition1(player.getLocation());
                     game.getArenaConfig().setAreaConfig(game.getArenaConfig().getArea().getAreaConfiguration());
                     game.getArenaConfig().updateConfig();
+                    PortalIndex.invalidate(game.getArenaConfig());
                     player.sendMessage(PluginMessages.getPrefix() + "§fSet new 'arena area' (position 1) to " + player.getLocation() + ".");
                 }
 
@@ -211,6 +213,7 @@ public class SetupCommands extends BaseCommand {
                     game.getArenaConfig().getArea().setPosition2(player.getLocation());
                     game.getArenaConfig().setAreaConfig(game.getArenaConfig().getArea().getAreaConfiguration());
                     game.getArenaConfig().updateConfig();
+                    PortalIndex.invalidate(game.getArenaConfig());
                     player.sendMessage(PluginMessages.getPrefix() + "§fSet new 'arena area' (position 2) to " + player.getLocation() + ".");
                 }
 
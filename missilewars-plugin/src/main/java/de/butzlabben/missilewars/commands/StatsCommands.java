@@ -24,14 +24,18 @@ import co.aikar.commands.annotation.CommandCompletion;
 import co.aikar.commands.annotation.CommandPermission;
 import co.aikar.commands.annotation.Default;
 import co.aikar.commands.annotation.Subcommand;
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.MissileWars;
 import de.butzlabben.missilewars.configuration.Config;
 import de.butzlabben.missilewars.configuration.PluginMessages;
-import de.butzlabben.missilewars.game.stats.PlayerStats;
 import de.butzlabben.missilewars.game.stats.SavedStats;
+import de.butzlabben.missilewars.game.stats.StatsCache;
 import de.butzlabben.missilewars.game.stats.StatsFetcher;
+import de.butzlabben.missilewars.game.stats.StatsStorage;
+import de.butzlabben.missilewars.game.stats.StatsTransfer;
 import de.butzlabben.missilewars.inventory.CustomInv;
 import de.butzlabben.missilewars.inventory.OrcItem;
-import de.butzlabben.missilewars.inventory.pages.PageGUICreator;
+import de.butzlabben.missilewars.inventory.pages.LazyPageGUICreator;
 import de.butzlabben.missilewars.util.stats.PlayerGuiFactory;
 import de.butzlabben.missilewars.util.stats.PreFetcher;
 import de.butzlabben.missilewars.util.stats.StatsUtil;
@@ -42,8 +46,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -55,6 +61,8 @@ public class StatsCommands extends BaseCommand {
     private final static int MAX_FIGHT_DRAW_PERCENTAGE = 15;
     private final static int MIN_FIGHT_DURATION = 5;
     private final static double MAX_AVIATION_WIN = 0.1;
+    private final static Executor MAIN_THREAD = task -> Bukkit.getScheduler().runTask(MissileWars.getInstance(), task);
+    private final static Executor ASYNC = task -> Bukkit.getScheduler().runTaskAsynchronously(MissileWars.getInstance(), task);
     private final SimpleDateFormat format = new SimpleDateFormat("dd.MM.yyyy");
     private final SimpleDateFormat preciseFormat = new SimpleDateFormat("hh:mm dd.MM.yyyy");
 
@@ -65,9 +73,26 @@ public class StatsCommands extends BaseCommand {
         if (!MWCommands.senderIsPlayer(sender)) return;
         Player player = (Player) sender;
 
-        StatsFetcher fetcher = getFetcher(player, args);
-        if (fetcher == null) return;
-        String arena = fetcher.getArena().replace("%", "");
+        withFetcher(player, args, (fetcher, gameCount) -> {
+            CompletableFuture<SavedStats> avgStatsWithDrawsFuture = fetcher.getAverageSavedStats(false);
+            CompletableFuture<SavedStats> avgStatsWithoutDrawsFuture = fetcher.getAverageSavedStats(true);
+            CompletableFuture<Integer> drawsFuture = fetcher.getDrawFights();
+            CompletableFuture<Integer> uniquePlayersFuture = fetcher.getUniquePlayers();
+
+            CompletableFuture.allOf(avgStatsWithDrawsFuture, avgStatsWithoutDrawsFuture, drawsFuture, uniquePlayersFuture)
+                    .thenRunAsync(() -> openStatsMenu(player, fetcher, gameCount, avgStatsWithDrawsFuture.join(),
+                            avgStatsWithoutDrawsFuture.join(), drawsFuture.join(), uniquePlayersFuture.join()), MAIN_THREAD);
+        });
+    }
+
+    private void openStatsMenu(Player player, StatsFetcher fetcher, int gameCount, SavedStats avgStatsWithDraws,
+                               SavedStats avgStatsWithoutDraws, int draws, int uniquePlayers) {
+        if (!player.isOnline()) return;
+        if ((avgStatsWithDraws == null) || (avgStatsWithoutDraws == null)) {
+            sendLoadingError(player);
+            return;
+        }
+        String arena = fetcher.getArena();
 
         PreFetcher.PrePlayerFetchRunnable preFetchRunnable = PreFetcher.preFetchPlayers(fetcher);
 
@@ -75,11 +100,6 @@ public class StatsCommands extends BaseCommand {
         List<String> criteriaLore = Arrays.asList("§7Statistics since: §e" + format.format(fetcher.getFrom()), "§7Specified arena: §e" + (arena.isEmpty() ? "any" : arena));
         inv.addItem(4, new OrcItem(Material.FEATHER, "§aStatistics search criteria", criteriaLore));
 
-        int gameCount = fetcher.getGameCount();
-
-        SavedStats avgStatsWithDraws = fetcher.getAverageSavedStats(false);
-        SavedStats avgStatsWithoutDraws = fetcher.getAverageSavedStats(true);
-        int draws = fetcher.getDrawFights();
         String duration = StatsUtil.formatDuration(Duration.ofMillis(avgStatsWithDraws.getTimeElapsed()));
 
         List<String> generalLore = Arrays.asList("§7Fights: §e" + gameCount, "§7Average game length: §e" + duration,
@@ -88,7 +108,7 @@ public class StatsCommands extends BaseCommand {
                 "§7Average player count: §e" + StatsUtil.formatDouble(avgStatsWithDraws.getPlayerCount()));
         inv.addItem(9, new OrcItem(Material.SLIME_BLOCK, "§aGeneral statistics", generalLore));
 
-        List<String> playerLore = Arrays.asList("§7Unique players: §e" + fetcher.getUniquePlayers(), "", "§7Click to list players");
+        List<String> playerLore = Arrays.asList("§7Unique players: §e" + uniquePlayers, "", "§7Click to list players");
         OrcItem players = new OrcItem(Material.PLAYER_HEAD, "§aPlayers", playerLore);
         players.setOnClick((p, inventory, item) -> {
             p.closeInventory();
@@ -117,19 +137,28 @@ public class StatsCommands extends BaseCommand {
         if (!MWCommands.senderIsPlayer(sender)) return;
         Player player = (Player) sender;
 
-        StatsFetcher fetcher = getFetcher(player, args);
-        if (fetcher == null) return;
-        SavedStats avgStatsWithDraws = fetcher.getAverageSavedStats(false);
-        SavedStats avgStatsWithoutDraws = fetcher.getAverageSavedStats(true);
+        withFetcher(player, args, (fetcher, gameCount) -> {
+            CompletableFuture<SavedStats> avgStatsWithoutDrawsFuture = fetcher.getAverageSavedStats(true);
+            CompletableFuture<Integer> drawsFuture = fetcher.getDrawFights();
+
+            CompletableFuture.allOf(avgStatsWithoutDrawsFuture, drawsFuture)
+                    .thenRunAsync(() -> sendRecommendations(player, gameCount, avgStatsWithoutDrawsFuture.join(), drawsFuture.join()), MAIN_THREAD);
+        });
+    }
+
+    private void sendRecommendations(Player player, int gameCount, SavedStats avgStatsWithoutDraws, int draws) {
+        if (!player.isOnline()) return;
+        if (avgStatsWithoutDraws == null) {
+            sendLoadingError(player);
+            return;
+        }
         List<String> recommendations = new ArrayList<>();
-        int gameCount = fetcher.getGameCount();
 
         double avgWins = avgStatsWithoutDraws.getTeamWon();
         if (Math.abs(avgWins - 1) > MAX_AVIATION_WIN) {
             recommendations.add("It could be, that your map is biased to one team, as wins are not equally distributed");
         }
 
-        int draws = fetcher.getDrawFights();
         if ((((double) draws / (double) gameCount) * 100) > MAX_FIGHT_DRAW_PERCENTAGE) {
             recommendations.add("Increase the game_length option. More than 15% of your games are draws");
         }
@@ -156,13 +185,7 @@ public class StatsCommands extends BaseCommand {
         if (!MWCommands.senderIsPlayer(sender)) return;
         Player player = (Player) sender;
 
-        StatsFetcher fetcher = getFetcher(player, args);
-        if (fetcher == null) return;
-        List<UUID> players = fetcher.getPlayers();
-        List<PlayerStats> playerStats = players.stream().map(fetcher::getStatsFrom).collect(Collectors.toList());
-
-        PlayerGuiFactory playerGuiFactory = new PlayerGuiFactory(playerStats);
-        playerGuiFactory.openWhenReady(player);
+        withFetcher(player, args, (fetcher, gameCount) -> new PlayerGuiFactory(fetcher).open(player));
     }
 
     @Subcommand("list")
@@ -173,13 +196,13 @@ public class StatsCommands extends BaseCommand {
         if (!MWCommands.senderIsPlayer(sender)) return;
         Player player = (Player) sender;
 
-        StatsFetcher fetcher = getFetcher(player, args);
-        if (fetcher == null) return;
-        List<SavedStats> players = fetcher.getAllStats();
+        withFetcher(player, args, (fetcher, gameCount) -> showGameList(player, fetcher));
+    }
 
-        PageGUICreator<SavedStats> creator = new PageGUICreator<>("§eGame list", players, (item) -> {
+    private void showGameList(Player player, StatsFetcher fetcher) {
+        LazyPageGUICreator<SavedStats> creator = new LazyPageGUICreator<>("§eGame list", fetcher::getStatsPage, (item) -> {
             Duration duration = Duration.ofMillis(item.getTimeElapsed());
-            return new OrcItem(Material.TNT, "§7" + players.indexOf(item),
+            return new OrcItem(Material.TNT, "§7" + item.getId(),
                     "§7Started: §e" + preciseFormat.format(item.getTimeStart()),
                     "§7Duration: §e" + StatsUtil.formatDuration(duration), "§7Arena: §e" + item.getArena(),
                     "§7Players: §e" + (int) item.getPlayerCount(), "§7Team won: §e" + (int) item.getTeamWon());
@@ -187,10 +210,95 @@ public class StatsCommands extends BaseCommand {
         creator.show(player);
     }
 
-    private StatsFetcher getFetcher(Player player, String[] args) {
+    @Subcommand("transfer")
+    @CommandCompletion("MYSQL|EMBEDDED MYSQL|EMBEDDED")
+    @CommandPermission("mw.stats.transfer")
+    public void onTransfer(CommandSender sender, String[] args) {
+
+        if (!Config.isFightStatsEnabled()) {
+            sender.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.STATS_NOT_ENABLED));
+            return;
+        }
+
+        if (args.length != 2) {
+            sender.sendMessage(PluginMessages.getPrefix() + "§cUsage: /mw stats transfer <from> <to>");
+            return;
+        }
+
+        String from = args[0].toUpperCase();
+        String to = args[1].toUpperCase();
+        if (!isStorageType(from) || !isStorageType(to) || from.equals(to)) {
+            sender.sendMessage(PluginMessages.getPrefix() + "§cPlease specify two different stats storages: MYSQL or EMBEDDED");
+            return;
+        }
+
+        StatsStorage activeStorage = MissileWars.getInstance().getStatsStorage();
+        StatsStorage source = activeStorage.getType().equals(from) ? activeStorage : StatsStorage.create(from);
+        StatsStorage target = activeStorage.getType().equals(to) ? activeStorage : StatsStorage.create(to);
+
+        sender.sendMessage(PluginMessages.getPrefix() + "§7Copying the fights from §e" + from + " §7to §e" + to + "§7. Fights, which already exist in §e" + to + "§7, are skipped.");
+        StatsTransfer.transfer(source, target, ASYNC).whenCompleteAsync((copiedFights, throwable) -> {
+            if (source != activeStorage) source.close();
+            if (target != activeStorage) target.close();
+            else StatsCache.getInstance().invalidate();
+
+            if (throwable != null) {
+                Logger.ERROR.log("Could not transfer the Fight Stats from " + from + " to " + to + ": " + throwable.getMessage());
+                throwable.printStackTrace();
+                sender.sendMessage(PluginMessages.getPrefix() + "§cThe transfer failed. See the console for details.");
+                return;
+            }
+            sender.sendMessage(PluginMessages.getPrefix() + "§aCopied §e" + copiedFights + " §afights from §e" + from + " §ato §e" + to + "§a.");
+        }, MAIN_THREAD);
+    }
+
+    @Subcommand("rebuild")
+    @CommandCompletion("@nothing")
+    @CommandPermission("mw.stats.rebuild")
+    public void onRebuild(CommandSender sender, String[] args) {
+
+        if (!Config.isFightStatsEnabled()) {
+            sender.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.STATS_NOT_ENABLED));
+            return;
+        }
+
+        sender.sendMessage(PluginMessages.getPrefix() + "§7Rebuilding the player stats from the saved fights.");
+        MissileWars.getInstance().getStatsStorage().rebuildPlayerStats().whenCompleteAsync((players, throwable) -> {
+            StatsCache.getInstance().invalidate();
+            if (throwable != null) {
+                Logger.ERROR.log("Could not rebuild the player stats: " + throwable.getMessage());
+                throwable.printStackTrace();
+                sender.sendMessage(PluginMessages.getPrefix() + "§cThe rebuild failed. See the console for details.");
+                return;
+            }
+            sender.sendMessage(PluginMessages.getPrefix() + "§aRebuilt the stats of §e" + players + " §aplayers.");
+        }, MAIN_THREAD);
+    }
+
+    /**
+     * This method informs the player, that the statistics could not be loaded. 
+     * The error itself is logged by the stats fetcher.
+     */
+    private void sendLoadingError(Player player) {
+        player.sendMessage(PluginMessages.getPrefix() + "§cThe statistics could not be loaded. See the console for details.");
+    }
+
+    private boolean isStorageType(String type) {
+        return type.equals(StatsStorage.MYSQL) || type.equals(StatsStorage.EMBEDDED);
+    }
+
+    /**
+     * This method creates the stats fetcher for the command arguments. The action is 
+     * executed on the main thread, if enough games are found for the fetcher.
+     * 
+     * @param player (Player) the command sender
+     * @param args (String[]) the command arguments
+     * @param action (BiConsumer) the action with the fetcher and the game count
+     */
+    private void withFetcher(Player player, String[] args, BiConsumer<StatsFetcher, Integer> action) {
         if (!Config.isFightStatsEnabled()) {
             player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.STATS_NOT_ENABLED));
-            return null;
+            return;
         }
         Date from = new Date(0);
         String arena = "";
@@ -199,7 +307,7 @@ public class StatsCommands extends BaseCommand {
                 from = format.parse(args[0]);
             } catch (ParseException e) {
                 player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.STATS_WRONG_DATE_FORMAT));
-                return null;
+                return;
             }
             if (args.length > 1) {
                 arena = args[1];
@@ -207,11 +315,15 @@ public class StatsCommands extends BaseCommand {
         }
 
         StatsFetcher fetcher = new StatsFetcher(from, arena);
-        if (fetcher.getGameCount() < 10) {
-            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.STATS_TOO_FEW_GAMES));
-            return null;
-        }
-        player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.STATS_LOADING_DATA));
-        return fetcher;
+        fetcher.getGameCount().thenAcceptAsync(gameCount -> {
+            if (!player.isOnline()) return;
+
+            if (gameCount < 10) {
+                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.STATS_TOO_FEW_GAMES));
+                return;
+            }
+            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.STATS_LOADING_DATA));
+            action.accept(fetcher, gameCount);
+        }, MAIN_THREAD);
     }
 }
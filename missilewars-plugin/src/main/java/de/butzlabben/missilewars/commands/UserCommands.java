@@ -151,8 +151,8 @@ public class UserCommands extends BaseCommand {
             
             // Anti-Spam Check:
             if (mwPlayer.getWaitTimeForTeamChange() > 0) {
-                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_ANTISPAM_TEAM_CHANGE)
-                        .replace("%seconds%", Long.toString(mwPlayer.getWaitTimeForTeamChange())));
+                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_ANTISPAM_TEAM_CHANGE,
+                        "seconds", mwPlayer.getWaitTimeForTeamChange()));
                 return;
             }
             mwPlayer.setLastTeamChangeTime();
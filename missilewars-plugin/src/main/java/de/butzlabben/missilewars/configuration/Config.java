@@ -74,10 +74,15 @@ public class Config {
 
         cfg.addDefault("contact_auth_server", true);
         cfg.addDefault("prefetch_players", true);
+        cfg.addDefault("profile_cache.size", 5000);
+        cfg.addDefault("profile_cache.ttl_hours", 72);
+        cfg.addDefault("profile_cache.requests_per_minute", 120);
 
         cfg.addDefault("restart_after_fights", -1);
 
         cfg.addDefault("arenas.folder", "plugins/MissileWars/arenas");
+        cfg.addDefault("arenas.template_cache.enable", true);
+        cfg.addDefault("arenas.template_cache.max_size_mb", 256);
 
         cfg.addDefault("games.multiple_games", false);
         cfg.addDefault("games.folder", "plugins/MissileWars/games");
@@ -86,6 +91,10 @@ public class Config {
         cfg.addDefault("missiles.folder", "plugins/MissileWars/schematics/missiles");
         cfg.addDefault("shields.folder", "plugins/MissileWars/schematics/shields");
 
+        cfg.addDefault("schematic_cache.max_volume", 1000000);
+        cfg.addDefault("schematic_paster", "AUTO");
+        cfg.addDefault("paste_scheduler.blocks_per_tick", 20000);
+
         cfg.addDefault("temp_block.enable", true);
         cfg.addDefault("temp_block.material", NOTE_BLOCK.name());
         cfg.addDefault("temp_block.remove_after_ticks", 0);
@@ -100,6 +109,10 @@ public class Config {
 
         cfg.addDefault("fightstats.enable", false);
         cfg.addDefault("fightstats.show_real_skins", true);
+        cfg.addDefault("fightstats.queue_size", 100);
+        cfg.addDefault("fightstats.storage", "MYSQL");
+        cfg.addDefault("fightstats.cache.size", 200);
+        cfg.addDefault("fightstats.cache.ttl", 600);
 
         Location worldSpawnLoc = Bukkit.getWorlds().get(0).getSpawnLocation();
         cfg.addDefault("fallback_spawn.world", worldSpawnLoc.getWorld().getName());
@@ -114,8 +127,10 @@ public class Config {
         cfg.addDefault("mysql.port", "3306");
         cfg.addDefault("mysql.user", "root");
         cfg.addDefault("mysql.password", "");
+        cfg.addDefault("mysql.pool_size", 4);
         cfg.addDefault("mysql.fights_table", "mw_fights");
         cfg.addDefault("mysql.fightmember_table", "mw_fightmember");
+        cfg.addDefault("mysql.player_stats_table", "mw_player_stats");
 
         cfg.addDefault("sidebar.title", "&eInfo ●&6•");
         cfg.addDefault("sidebar.member_list_style", "%team_color%%playername%");
@@ -278,6 +293,18 @@ public class Config {
         return cfg.getBoolean("prefetch_players");
     }
 
+    public static int getProfileCacheSize() {
+        return cfg.getInt("profile_cache.size");
+    }
+
+    public static int getProfileCacheTtlHours() {
+        return cfg.getInt("profile_cache.ttl_hours");
+    }
+
+    public static int getProfileRequestsPerMinute() {
+        return cfg.getInt("profile_cache.requests_per_minute");
+    }
+
     public static int getFightRestart() {
         return cfg.getInt("restart_after_fights");
     }
@@ -286,6 +313,14 @@ public class Config {
         return cfg.getString("arenas.folder");
     }
 
+    public static boolean isTemplateCacheEnabled() {
+        return cfg.getBoolean("arenas.template_cache.enable");
+    }
+
+    public static int getTemplateCacheMaxSize() {
+        return cfg.getInt("arenas.template_cache.max_size_mb");
+    }
+
     public static boolean useMultipleGames() {
         return cfg.getBoolean("games.multiple_games");
     }
@@ -306,6 +341,18 @@ public class Config {
         return cfg.getString("shields.folder");
     }
     
+    public static long getSchematicCacheMaxVolume() {
+        return cfg.getLong("schematic_cache.max_volume");
+    }
+    
+    public static String getSchematicPaster() {
+        return cfg.getString("schematic_paster");
+    }
+    
+    public static long getPasteBlocksPerTick() {
+        return cfg.getLong("paste_scheduler.blocks_per_tick");
+    }
+    
     public static boolean isTempBlockEnabled() {
         return cfg.getBoolean("temp_block.enable");
     }
@@ -346,6 +393,22 @@ public class Config {
         return cfg.getBoolean("fightstats.enable");
     }
 
+    public static int getFightStatsQueueSize() {
+        return cfg.getInt("fightstats.queue_size");
+    }
+
+    public static String getStatsStorage() {
+        return cfg.getString("fightstats.storage");
+    }
+
+    public static int getStatsCacheSize() {
+        return cfg.getInt("fightstats.cache.size");
+    }
+
+    public static int getStatsCacheTtl() {
+        return cfg.getInt("fightstats.cache.ttl");
+    }
+
     public static boolean isShowRealSkins() {
         return cfg.getBoolean("fightstats.show_real_skins");
     }
@@ -390,6 +453,10 @@ public class Config {
         return cfg.getString("mysql.password");
     }
 
+    public static int getPoolSize() {
+        return cfg.getInt("mysql.pool_size");
+    }
+
     public static String getFightsTable() {
         return cfg.getString("mysql.fights_table");
     }
@@ -398,6 +465,10 @@ public class Config {
         return cfg.getString("mysql.fightmember_table");
     }
 
+    public static String getPlayerStatsTable() {
+        return cfg.getString("mysql.player_stats_table");
+    }
+
     public static String getScoreboardTitle() {
         return PluginMessages.getConvertedMsg(cfg.getString("sidebar.title"));
     }
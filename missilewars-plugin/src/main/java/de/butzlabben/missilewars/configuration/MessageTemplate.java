@@ -0,0 +1,204 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message of the 'messages.yml', compiled into its color-converted 
+ * literal text segments and the named placeholder slots ('%name%') between them.
+ */
+public final class MessageTemplate {
+    
+    private final String[] literals;
+    private final String[] slots;
+    private final String text;
+    private final int literalLength;
+    
+    private MessageTemplate(String[] literals, String[] slots, String text) {
+        this.literals = literals;
+        this.slots = slots;
+        this.text = text;
+        
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+    
+    /**
+     * This method compiles the (already color-converted) message. A placeholder is 
+     * a name of letters, digits, '_' and '-' between two '%'. Every other '%' stays 
+     * part of the literal text. The placeholder names are interned, so that they can 
+     * be compared with the (constant) argument names by identity first.
+     * 
+     * @param message (String) the converted message
+     * @return (MessageTemplate) the compiled message
+     */
+    public static MessageTemplate compile(String message) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        
+        int literalStart = 0;
+        int index = message.indexOf('%');
+        while (index != -1) {
+            int end = message.indexOf('%', index + 1);
+            if (end == -1) break;
+            
+            if (isPlaceholderName(message, index + 1, end)) {
+                literals.add(message.substring(literalStart, index));
+                slots.add(message.substring(index + 1, end).intern());
+                literalStart = end + 1;
+                index = message.indexOf('%', literalStart);
+            } else {
+                // The closing '%' can still be the start of a placeholder.
+                index = end;
+            }
+        }
+        literals.add(message.substring(literalStart));
+        
+        return new MessageTemplate(literals.toArray(new String[0]), slots.toArray(new String[0]), message);
+    }
+    
+    private static boolean isPlaceholderName(String message, int start, int end) {
+        if (start == end) return false;
+        
+        for (int i = start; i < end; i++) {
+            char c = message.charAt(i);
+            if (!Character.isLetterOrDigit(c) && (c != '_') && (c != '-')) return false;
+        }
+        return true;
+    }
+    
+    /**
+     * This method returns the message with the placeholders 
+     * filled in by the named arguments.
+     * 
+     * @param args (Object...) the arguments as pairs of the placeholder name (without '%') and its value
+     * @return (String) the rendered message
+     */
+    public String render(Object... args) {
+        if ((slots.length == 0) || (args.length == 0)) return text;
+        
+        StringBuilder builder = new StringBuilder(literalLength + 16 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            appendSlot(builder, slots[i], args);
+        }
+        builder.append(literals[slots.length]);
+        
+        return builder.toString();
+    }
+    
+    /**
+     * This method returns the message with one placeholder filled in. In contrast 
+     * to {@link #render(Object...)}, no argument array has to be created.
+     * 
+     * @param name (String) the placeholder name (without '%')
+     * @param value (Object) the value of the placeholder
+     * @return (String) the rendered message
+     */
+    public String render(String name, Object value) {
+        if (slots.length == 0) return text;
+        
+        StringBuilder builder = new StringBuilder(literalLength + 16 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            
+            String slot = slots[i];
+            if (isSlot(slot, name)) {
+                builder.append(value);
+            } else {
+                appendUnknownSlot(builder, slot);
+            }
+        }
+        builder.append(literals[slots.length]);
+        
+        return builder.toString();
+    }
+    
+    /**
+     * This method returns the message with two placeholders filled in. In contrast 
+     * to {@link #render(Object...)}, no argument array has to be created.
+     * 
+     * @param name1 (String) the first placeholder name (without '%')
+     * @param value1 (Object) the value of the first placeholder
+     * @param name2 (String) the second placeholder name (without '%')
+     * @param value2 (Object) the value of the second placeholder
+     * @return (String) the rendered message
+     */
+    public String render(String name1, Object value1, String name2, Object value2) {
+        if (slots.length == 0) return text;
+        
+        StringBuilder builder = new StringBuilder(literalLength + 16 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            
+            String slot = slots[i];
+            if (isSlot(slot, name1)) {
+                builder.append(value1);
+            } else if (isSlot(slot, name2)) {
+                builder.append(value2);
+            } else {
+                appendUnknownSlot(builder, slot);
+            }
+        }
+        builder.append(literals[slots.length]);
+        
+        return builder.toString();
+    }
+    
+    private static void appendSlot(StringBuilder builder, String slot, Object[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if ((slot == args[i]) || slot.equals(args[i])) {
+                builder.append(args[i + 1]);
+                return;
+            }
+        }
+        
+        appendUnknownSlot(builder, slot);
+    }
+    
+    private static boolean isSlot(String slot, String name) {
+        return (slot == name) || slot.equals(name);
+    }
+    
+    private static void appendUnknownSlot(StringBuilder builder, String slot) {
+        // Unknown placeholders stay unchanged, so that a caller can still replace them.
+        builder.append('%').append(slot).append('%');
+    }
+    
+    /**
+     * @return (String) the message without filled in placeholders
+     */
+    public String getText() {
+        return text;
+    }
+    
+    /**
+     * @return (boolean) 'true', if the message contains at least one placeholder
+     */
+    public boolean hasPlaceholders() {
+        return slots.length > 0;
+    }
+    
+}
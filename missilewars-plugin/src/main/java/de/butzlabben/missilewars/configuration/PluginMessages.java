@@ -30,7 +30,9 @@ import org.bukkit.entity.Player;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -43,6 +45,9 @@ public class PluginMessages {
     @Setter private static YamlConfiguration cfg;
     
     private final static boolean isNewConfig = !FILE.exists();
+    
+    // The compiled messages are replaced as a whole on reload, so that no reader sees a half-compiled set.
+    private static volatile CompiledMessages compiledMessages;
 
     public static void load() {
 
@@ -52,6 +57,8 @@ public class PluginMessages {
         addDefaults();
         
         save();
+        
+        compiledMessages = compile();
     }
     
     public static void save() {
@@ -67,12 +74,83 @@ public class PluginMessages {
     }
 
     public static String getMessage(boolean prefix, MessageEnum msg) {
-        if (prefix) return getPrefix() + getConfigMessage(msg);
-        return getConfigMessage(msg);
+        return getTemplate(prefix, msg).getText();
+    }
+    
+    /**
+     * This method returns the desired message with the placeholders 
+     * filled in by the named arguments.
+     * 
+     * @param prefix (boolean) 'true', if the message prefix should be added
+     * @param msg the target message registered in the 'MessageEnum'
+     * @param args (Object...) the arguments as pairs of the placeholder name (without '%') and its value
+     * @return (String) the rendered message
+     */
+    public static String getMessage(boolean prefix, MessageEnum msg, Object... args) {
+        return getTemplate(prefix, msg).render(args);
+    }
+    
+    /**
+     * This method returns the desired message with one placeholder filled in.
+     * 
+     * @param prefix (boolean) 'true', if the message prefix should be added
+     * @param msg the target message registered in the 'MessageEnum'
+     * @param name (String) the placeholder name (without '%')
+     * @param value (Object) the value of the placeholder
+     * @return (String) the rendered message
+     */
+    public static String getMessage(boolean prefix, MessageEnum msg, String name, Object value) {
+        return getTemplate(prefix, msg).render(name, value);
+    }
+    
+    /**
+     * This method returns the desired message with two placeholders filled in.
+     * 
+     * @param prefix (boolean) 'true', if the message prefix should be added
+     * @param msg the target message registered in the 'MessageEnum'
+     * @param name1 (String) the first placeholder name (without '%')
+     * @param value1 (Object) the value of the first placeholder
+     * @param name2 (String) the second placeholder name (without '%')
+     * @param value2 (Object) the value of the second placeholder
+     * @return (String) the rendered message
+     */
+    public static String getMessage(boolean prefix, MessageEnum msg, String name1, Object value1, String name2, Object value2) {
+        return getTemplate(prefix, msg).render(name1, value1, name2, value2);
+    }
+    
+    /**
+     * This method returns the compiled message template.
+     * 
+     * @param prefix (boolean) 'true', if the message prefix should be included
+     * @param msg the target message registered in the 'MessageEnum'
+     * @return (MessageTemplate) the compiled message
+     */
+    public static MessageTemplate getTemplate(boolean prefix, MessageEnum msg) {
+        CompiledMessages compiled = compiledMessages;
+        if (compiled == null) {
+            compiled = compile();
+            compiledMessages = compiled;
+        }
+        
+        return prefix ? compiled.prefixed.get(msg) : compiled.plain.get(msg);
     }
 
     public static String getPrefix() {
-        return getConfigMessage(MessageEnum.PREFIX);
+        return getMessage(false, MessageEnum.PREFIX);
+    }
+    
+    private static CompiledMessages compile() {
+        Map<MessageEnum, MessageTemplate> plain = new EnumMap<>(MessageEnum.class);
+        Map<MessageEnum, MessageTemplate> prefixed = new EnumMap<>(MessageEnum.class);
+        
+        String prefix = getConfigMessage(MessageEnum.PREFIX);
+        for (MessageEnum msg : MessageEnum.values()) {
+            String message = getConfigMessage(msg);
+            plain.put(msg, MessageTemplate.compile(message));
+            prefixed.put(msg, MessageTemplate.compile(prefix + message));
+        }
+        
+        return new CompiledMessages(plain, prefixed);
     }
 
     /**
@@ -222,6 +300,17 @@ public class PluginMessages {
 
     }
     
+    private static final class CompiledMessages {
+        
+        private final Map<MessageEnum, MessageTemplate> plain;
+        private final Map<MessageEnum, MessageTemplate> prefixed;
+        
+        private CompiledMessages(Map<MessageEnum, MessageTemplate> plain, Map<MessageEnum, MessageTemplate> prefixed) {
+            this.plain = plain;
+            this.prefixed = prefixed;
+        }
+    }
+    
     /**
      * This method returns the desired message. Legacy 
      * color-codes with '&' will be converted to the 
@@ -19,6 +19,7 @@
 package de.butzlabben.missilewars.configuration.arena.modules;
 
 import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.MissileWars;
 import de.butzlabben.missilewars.game.schematics.SchematicConfiguration;
 import de.butzlabben.missilewars.game.schematics.SchematicFacing;
 import de.butzlabben.missilewars.game.schematics.objects.Missile;
@@ -45,6 +46,9 @@ public class MissileConfig extends SchematicConfiguration {
     private boolean southFacing = true;
     private boolean westFacing = true;
 
+    // The schematics are only preloaded once per loaded arena config.
+    private transient boolean preloaded = false;
+
     private List<Missile> schematics = new ArrayList<>() {{
         add(new Missile("Tomahawk.schem", "&a%schematic_name_compact%", 3, EntityType.CREEPER, 0, 2));
         add(new Missile("Cruiser.schem", "&e%schematic_name_compact%", 2, EntityType.BLAZE, 0, 2));
@@ -111,6 +115,14 @@ public class MissileConfig extends SchematicConfiguration {
             toRemove.add(missile);
         }
         getSchematics().removeAll(toRemove);
+        
+        if (preloaded) return;
+        preloaded = true;
+
+        // Warm-up of the schematic cache:
+        for (Missile missile : getSchematics()) {
+            MissileWars.getInstance().getSchematicPaster().preloadSchematic(missile.getSchematic(), 0, 90, 180, 270);
+        }
     }
     
     public List<SchematicFacing> getEnabledFacings() {
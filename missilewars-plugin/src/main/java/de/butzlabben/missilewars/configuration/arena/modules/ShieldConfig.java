@@ -20,6 +20,7 @@ package de.butzlabben.missilewars.configuration.arena.modules;
 
 import com.google.gson.annotations.SerializedName;
 import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.MissileWars;
 import de.butzlabben.missilewars.game.schematics.SchematicConfiguration;
 import de.butzlabben.missilewars.game.schematics.objects.SchematicObject;
 import de.butzlabben.missilewars.game.schematics.objects.Shield;
@@ -40,6 +41,9 @@ public class ShieldConfig extends SchematicConfiguration {
 
     @SerializedName("fly_time") private int flyTime = 20;
 
+    // Set after the first warm-up of the schematic cache.
+    private transient boolean preloaded = false;
+
     private List<Shield> schematics = new ArrayList<>() {{
         add(new Shield("shield.schem", "&c%schematic_name_compact%", 1));
     }};
@@ -101,6 +105,14 @@ public class ShieldConfig extends SchematicConfiguration {
             toRemove.add(shield);
         }
         getSchematics().removeAll(toRemove);
+        
+        if (preloaded) return;
+        preloaded = true;
+
+        // Warm-up of the schematic cache:
+        for (Shield shield : getSchematics()) {
+            MissileWars.getInstance().getSchematicPaster().preloadSchematic(shield.getSchematic(), 0);
+        }
     }
     
 }
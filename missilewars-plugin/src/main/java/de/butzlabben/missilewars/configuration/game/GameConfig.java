@@ -58,6 +58,7 @@ public class GameConfig {
     @SerializedName("join_ongoing_game") private JoinIngameBehavior joinIngameBehavior = JoinIngameBehavior.SPECTATOR;
     @SerializedName("rejoin_ongoing_game") private RejoinIngameBehavior rejoinIngameBehavior = RejoinIngameBehavior.LAST_TEAM;
     @SerializedName("lobby") private LobbyConfig lobbyConfig = new LobbyConfig();
+    @SerializedName("world_pool_size") private int worldPoolSize = 1;
     @SerializedName("possible_arenas") private List<String> possibleArenas = new ArrayList<>() {{
         add("arena0");
     }};
@@ -30,12 +30,18 @@ import de.butzlabben.missilewars.game.enums.GameResult;
 import de.butzlabben.missilewars.game.enums.GameState;
 import de.butzlabben.missilewars.game.enums.MapChooseProcedure;
 import de.butzlabben.missilewars.game.equipment.EquipmentManager;
+import de.butzlabben.missilewars.game.equipment.EquipmentScheduler;
 import de.butzlabben.missilewars.game.misc.MotdManager;
+import de.butzlabben.missilewars.game.misc.PlaceholderSnapshot;
 import de.butzlabben.missilewars.game.misc.ScoreboardManager;
 import de.butzlabben.missilewars.game.misc.TeamSpawnProtection;
+import de.butzlabben.missilewars.game.portal.PortalIndex;
+import de.butzlabben.missilewars.game.portal.PortalScanner;
+import de.butzlabben.missilewars.game.portal.PortalTracker;
 import de.butzlabben.missilewars.game.schematics.objects.Missile;
 import de.butzlabben.missilewars.game.schematics.objects.Shield;
-import de.butzlabben.missilewars.game.signs.MWSign;
+import de.butzlabben.missilewars.game.schematics.paste.PasteScheduler;
+import de.butzlabben.missilewars.game.signs.SignRenderer;
 import de.butzlabben.missilewars.game.stats.FightStats;
 import de.butzlabben.missilewars.game.timer.EndTimer;
 import de.butzlabben.missilewars.game.timer.GameTimer;
@@ -46,6 +52,8 @@ import de.butzlabben.missilewars.listener.game.GameBoundListener;
 import de.butzlabben.missilewars.listener.game.GameListener;
 import de.butzlabben.missilewars.listener.game.LobbyListener;
 import de.butzlabben.missilewars.player.MWPlayer;
+import de.butzlabben.missilewars.player.PlayerRegistry;
+import de.butzlabben.missilewars.util.geometry.BlockPositions;
 import de.butzlabben.missilewars.util.geometry.GameArea;
 import de.butzlabben.missilewars.util.geometry.Geometry;
 import de.butzlabben.missilewars.util.serialization.Serializer;
@@ -54,13 +62,13 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 import org.bukkit.*;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Fireball;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Snowball;
 import org.bukkit.event.HandlerList;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.Vector;
 
 import java.util.*;
@@ -81,8 +89,12 @@ public class Game {
     private static int fights = 0;
     private final Map<UUID, MWPlayer> players = new HashMap<>();
     private final MapVoting mapVoting = new MapVoting(this);
-    private final Map<UUID, BukkitTask> playerTasks = new HashMap<>();
-    private final List<Location> portalBlocks = new ArrayList<>();
+    private final PasteScheduler pasteScheduler = new PasteScheduler(this);
+    private final EquipmentScheduler equipmentScheduler = new EquipmentScheduler();
+    private static final Set<String> comparedPortalScans = new HashSet<>();
+    private final Set<Long> pendingPortalChunks = new HashSet<>();
+    private PortalTracker portalTracker;
+    private int portalScanGeneration = 0;
     private TeamManager teamManager;
     private boolean ready = false;
     private boolean restart = false;
@@ -140,6 +152,7 @@ public class Game {
         taskManager.setTimer(new LobbyTimer(this, gameConfig.getLobbyConfig().getLobbyTime()));
         taskManager.runTimer(0, 20);
         state = GameState.LOBBY;
+        PlaceholderSnapshot.update(this);
 
         Bukkit.getScheduler().runTaskLater(MissileWars.getInstance(), () -> applyForAllPlayers(player -> gameJoinManager.runTeleportEventForPlayer(player)), 2);
 
@@ -204,6 +217,29 @@ public class Game {
         ready = true;
     }
 
+    /**
+     * This method determines the arena that the next game of this game configuration
+     * will use, without changing the map cycle.
+     *
+     * @param gameConfig (GameConfig) the game configuration
+     *
+     * @return the next arena or 'null', if it is not yet known (map voting)
+     */
+    static ArenaConfig getNextArena(GameConfig gameConfig) {
+        List<ArenaConfig> arenas = gameConfig.getArenas();
+        if (arenas.isEmpty()) return null;
+
+        if (gameConfig.getMapChooseProcedure() == MapChooseProcedure.MAPCYCLE) {
+            final int lastMapIndex = cycles.getOrDefault(gameConfig.getName(), -1);
+            int index = lastMapIndex >= arenas.size() - 1 ? 0 : lastMapIndex + 1;
+            return arenas.get(index);
+        }
+        
+        if ((gameConfig.getMapChooseProcedure() == MapChooseProcedure.MAPVOTING) && (arenas.size() > 1)) return null;
+        
+        return arenas.get(0);
+    }
+
     private void checkFightRestart() {
         if (Config.getFightRestart() <= 0) return;
 
@@ -241,6 +277,8 @@ public class Game {
         taskManager.setTimer(new GameTimer(this));
         taskManager.runTimer(5, 20);
         state = GameState.INGAME;
+        SignRenderer.getInstance().updateSigns(this);
+        PlaceholderSnapshot.update(this);
 
         timestart = System.currentTimeMillis();
 
@@ -248,6 +286,8 @@ public class Game {
 
         updateMOTD();
 
+        WorldPool.getInstance().prepareNext(this);
+
         Bukkit.getPluginManager().callEvent(new GameStartEvent(this));
     }
 
@@ -256,9 +296,9 @@ public class Game {
 
         Logger.DEBUG.log("Stopping");
 
-        for (BukkitTask bt : playerTasks.values()) {
-            bt.cancel();
-        }
+        equipmentScheduler.clear();
+        pasteScheduler.stop();
+        portalScanGeneration++;
 
         Logger.DEBUG.log("Stopping for players");
         for (Player player : gameWorld.getWorld().getPlayers()) {
@@ -277,9 +317,13 @@ public class Game {
         taskManager.setTimer(new EndTimer(this));
         taskManager.runTimer(5, 20);
         state = GameState.END;
+        SignRenderer.getInstance().updateSigns(this);
+        PlaceholderSnapshot.update(this);
 
         updateMOTD();
 
+        WorldPool.getInstance().prepareNext(this);
+
         if (arenaConfig.isSaveStatistics()) {
             FightStats stats = new FightStats(this);
             stats.insert();
@@ -306,6 +350,10 @@ public class Game {
 
     public void disableGameOnServerStop() {
 
+        pasteScheduler.stop();
+        portalScanGeneration++;
+        PlayerRegistry.getInstance().unregisterAll(this);
+
         for (MWPlayer mwPlayer : players.values()) {
             teleportToFallbackSpawn(mwPlayer.getPlayer());
         }
@@ -317,9 +365,9 @@ public class Game {
         
         Logger.DEBUG.log("Stopping");
 
-        for (BukkitTask bt : playerTasks.values()) {
-            bt.cancel();
-        }
+        equipmentScheduler.clear();
+        pasteScheduler.stop();
+        portalScanGeneration++;
 
         Logger.DEBUG.log("Stopping for players");
         for (Player player : gameWorld.getWorld().getPlayers()) {
@@ -329,6 +377,8 @@ public class Game {
 
         }
         
+        PlayerRegistry.getInstance().unregisterAll(this);
+
         // Deactivation of all event handlers
         HandlerList.unregisterAll(listener);
         taskManager.stopTimer();
@@ -470,8 +520,8 @@ public class Game {
         
         Missile missile = (Missile) this.arenaConfig.getMissileConfig().getSchematicFromDisplayName(itemMeta.getDisplayName());
         if (missile == null) {
-            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_MISSILE)
-                    .replace("%input%", itemMeta.getDisplayName()));
+            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_MISSILE,
+                    "input", itemMeta.getDisplayName()));
             return;
         }
         
@@ -493,12 +543,12 @@ public class Game {
 
         Shield shield = (Shield) this.arenaConfig.getShieldConfig().getSchematicFromDisplayName(itemMeta.getDisplayName());
         if (shield == null) {
-            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_SHIELD)
-                    .replace("%input%", itemMeta.getDisplayName()));
+            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_SHIELD,
+                    "input", itemMeta.getDisplayName()));
             return;
         }
         
-        shield.paste(ball);
+        shield.paste(this, ball);
         player.playSound(player.getLocation(), Sound.ENTITY_ENDER_DRAGON_FLAP, 1, 1);
     }
 
@@ -532,6 +582,8 @@ public class Game {
         gameWorld = new GameWorld(this, arenaConfig.getTemplateWorld());
         gameWorld.load();
         gameArea = new GameArea(gameWorld.getWorld(), arenaConfig.getAreaConfig());
+        GameManager.getInstance().updateGameWorld(this);
+        PlaceholderSnapshot.update(this);
 
         try {
             Serializer.setWorldAtAllLocations(this.arenaConfig, gameWorld.getWorld());
@@ -550,11 +602,60 @@ public class Game {
     }
 
     /**
-     * This method goes through all blocks within the arena and saves the portal 
+     * This method searches all portal blocks within the arena and saves the portal 
      * block positions so that they can be checked regularly during the game.
+     * <p>
+     * If the portal index of the arena is up-to-date, the positions are loaded from it. 
+     * Otherwise, the chunks are scanned on an async thread, so the positions are only 
+     * available after a short delay. The result of a scan is dropped, if the game 
+     * has been reset or a new scan has been started in the meantime.
      */
     private void savePortalPositions() {
         
+        long startTime = System.currentTimeMillis();
+        int generation = ++portalScanGeneration;
+        
+        long fingerprint = PortalIndex.getFingerprint(arenaConfig, gameArea);
+        BlockPositions indexedPositions = PortalIndex.load(arenaConfig, gameArea, fingerprint);
+        if (indexedPositions != null) {
+            portalTracker = new PortalTracker(gameWorld.getWorld(), indexedPositions);
+            
+            long endTime = System.currentTimeMillis();
+            
+            Logger.DEBUG.log("[Portal Position-Cache] Time reached for Portal-Loading (portal index): " + (endTime - startTime) + " ms.");
+            Logger.DEBUG.log("[Portal Position-Cache] Founded " + portalTracker.size() + " Portal blocks.");
+            return;
+        }
+        
+        new PortalScanner(gameArea).scan(positions -> {
+            if (generation != portalScanGeneration) {
+                Logger.DEBUG.log("[Portal Position-Cache] Dropped the result of an outdated chunk scan.");
+                return;
+            }
+            
+            portalTracker = new PortalTracker(gameWorld.getWorld(), positions);
+            PortalIndex.save(arenaConfig, gameArea, fingerprint, positions);
+            
+            long endTime = System.currentTimeMillis();
+            
+            Logger.DEBUG.log("[Portal Position-Cache] Time reached for Portal-Counting (chunk scan): " + (endTime - startTime) + " ms.");
+            Logger.DEBUG.log("[Portal Position-Cache] Founded " + portalTracker.size() + " Portal blocks.");
+            
+            // The block scan as comparison is only done once per arena, as it blocks the main thread.
+            if (Config.debug() && (gameWorld.getWorld() != null) && comparedPortalScans.add(arenaConfig.getName())) {
+                countPortalBlocks();
+            }
+        });
+    
+    }
+    
+    /**
+     * This method goes through all blocks within the arena and counts the portal 
+     * blocks. It is only used in debug mode as a comparison for the chunk scan,
+     * once for each arena.
+     */
+    private void countPortalBlocks() {
+        
         long startTime = System.currentTimeMillis();
         
         int minX = gameArea.getMinX();
@@ -565,20 +666,21 @@ public class Game {
         int maxY = gameArea.getMaxY();
         int maxZ = gameArea.getMaxZ();
         
+        int portalCount = 0;
+        
         for (int x = minX; x <= maxX; x++) {
             for (int y = minY; y <= maxY; y++) {
                 for (int z = minZ; z <= maxZ; z++) {
                     
-                    if (gameWorld.getWorld().getBlockAt(x, y, z).getType() == Material.NETHER_PORTAL) 
-                        portalBlocks.add(new Location(gameWorld.getWorld(), x, y, z));
+                    if (gameWorld.getWorld().getBlockAt(x, y, z).getType() == Material.NETHER_PORTAL) portalCount++;
                 }
             }
         }
         
         long endTime = System.currentTimeMillis();
         
-        Logger.DEBUG.log("[Portal Position-Cache] Time reached for Portal-Counting: " + (endTime - startTime) + " ms.");
-        Logger.DEBUG.log("[Portal Position-Cache] Founded " + portalBlocks.size() + " Portal blocks.");
+        Logger.DEBUG.log("[Portal Position-Cache] Time reached for Portal-Counting (block scan): " + (endTime - startTime) + " ms.");
+        Logger.DEBUG.log("[Portal Position-Cache] Founded " + portalCount + " Portal blocks.");
     
     }
     
@@ -637,11 +739,12 @@ public class Game {
     }
     
     /**
-     * This method updates the MissileWars signs and the scoreboard.
+     * This method updates the MissileWars signs, the placeholders and the scoreboard.
      */
     public void updateGameInfo() {
-        MissileWars.getInstance().getSignRepository().getSigns(this).forEach(MWSign::update);
-        scoreboardManager.resetScoreboard();
+        SignRenderer.getInstance().updateSigns(this);
+        PlaceholderSnapshot.update(this);
+        scoreboardManager.refreshScoreboard();
         if (state == GameState.LOBBY) players.forEach((uuid, mwPlayer) -> mwPlayer.getGameJoinMenu().getMenu());
         
         Logger.DEBUG.log("Updated signs, scoreboard and menus.");
@@ -750,19 +853,72 @@ public class Game {
     /**
      * This method checks all previously saved portal positions to see whether the 
      * portals are still intact. If not, the game-end is initiated.
-     * 
-     * This could be a more performant version than using the high-frequency 
-     * "BlockPhysicsEvent" event-listener.
+     * <p>
+     * Destroyed portals are normally detected directly by the block events (see 
+     * {@link #checkExplodedPortals(List)} and {@link #checkPortalBlock(Block)}). 
+     * This full check is only a low-frequency safety net.
      */
     public void checkPortals() {
+        if (portalTracker == null) return;
         
-        for (Location location : portalBlocks) {
-            
-            if (location.getBlock().getType() == Material.NETHER_PORTAL) continue;
+        Location location = portalTracker.findBrokenPortal();
+        if (location != null) runWinnerCheck(location);
+    }
+
+    /**
+     * This method checks the saved portal positions within the block area, for example 
+     * after a schematic was pasted there without block events.
+     *
+     * @param area (int[]) the block area (min x, y, z, max x, y, z)
+     */
+    public void checkPortals(int[] area) {
+        if (portalTracker == null) return;
+
+        Location location = portalTracker.findBrokenPortal(area[0], area[1], area[2], area[3], area[4], area[5]);
+        if (location != null) runWinnerCheck(location);
+    }
+
+    /**
+     * This method checks whether one of the exploding blocks is a portal block. In 
+     * this case, the game-end is initiated in the same tick.
+     * 
+     * @param blocks (List) the blocks that are destroyed by the explosion
+     */
+    public void checkExplodedPortals(List<Block> blocks) {
+        if ((state != GameState.INGAME) || (portalTracker == null)) return;
+        
+        Location location = portalTracker.findExplodedPortal(blocks);
+        if (location != null) runWinnerCheck(location);
+    }
+
+    /**
+     * This method is called when a block receives a physics update. If it's a portal 
+     * block, the portal blocks of this chunk are verified at the next tick, after the 
+     * block change has taken place.
+     * 
+     * @param block (Block) the updated block
+     */
+    public void checkPortalBlock(Block block) {
+        if ((state != GameState.INGAME) || (portalTracker == null)) return;
+        if (!portalTracker.isPortalBlock(block)) return;
+        
+        boolean isScheduled = !pendingPortalChunks.isEmpty();
+        pendingPortalChunks.add(PortalTracker.getChunkKey(block.getX() >> 4, block.getZ() >> 4));
+        if (isScheduled) return;
+        
+        Bukkit.getScheduler().runTask(MissileWars.getInstance(), () -> {
+            List<Long> chunkKeys = new ArrayList<>(pendingPortalChunks);
+            pendingPortalChunks.clear();
+            if (state != GameState.INGAME) return;
             
-            runWinnerCheck(location);
-            return;
-        }
+            for (long chunkKey : chunkKeys) {
+                Location location = portalTracker.findBrokenPortal(chunkKey);
+                if (location == null) continue;
+                
+                runWinnerCheck(location);
+                return;
+            }
+        });
     }
 
     /**
@@ -26,6 +26,7 @@ import de.butzlabben.missilewars.game.enums.GameState;
 import de.butzlabben.missilewars.game.enums.TeamType;
 import de.butzlabben.missilewars.menus.hotbar.GameJoinMenu;
 import de.butzlabben.missilewars.player.MWPlayer;
+import de.butzlabben.missilewars.player.PlayerRegistry;
 import de.butzlabben.missilewars.util.PlayerDataProvider;
 import lombok.RequiredArgsConstructor;
 import org.bukkit.Bukkit;
@@ -80,8 +81,8 @@ public class GameJoinManager {
             Team lastTeam = game.getGameLeaveManager().getLastTeamOfKnownPlayer(player.getUniqueId());
             
             if (isKnownPlayer) {
-                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.GAME_REJOINED)
-                        .replace("%last-team%", lastTeam.getFullname()));
+                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.GAME_REJOINED,
+                        "last-team", lastTeam.getFullname()));
                 
                 if (lastTeam.getTeamType() == targetTeamType) team = lastTeam;
             }
@@ -123,7 +124,7 @@ public class GameJoinManager {
         // Sending the private info message is skipped here.
         
         // Manual update of the scoreboard because the event listener was not addressed.
-        game.getScoreboardManager().updateScoreboard();
+        game.getScoreboardManager().refreshScoreboard();
         
         if (game.getState() == GameState.LOBBY) {
             getGameJoinMenu(mwPlayer);
@@ -188,7 +189,7 @@ public class GameJoinManager {
             game.setPlayerAttributes(player);
             game.getEquipmentManager().sendGameItems(player, false);
             mwPlayer.iniPlayerEquipmentRandomizer();
-            game.getPlayerTasks().put(player.getUniqueId(), Bukkit.getScheduler().runTaskTimer(MissileWars.getInstance(), mwPlayer, 40, 20));
+            game.getEquipmentScheduler().add(mwPlayer);
             
         } else {
             // spectator join:
@@ -208,59 +209,62 @@ public class GameJoinManager {
     private void sendJoinBroadcastMsg(MWPlayer mwPlayer) {
         Player player = mwPlayer.getPlayer();
         
-        String broadcastMsg;
+        PluginMessages.MessageEnum broadcastMsg;
         if (game.getState() == GameState.LOBBY) {
-            broadcastMsg = PluginMessages.getMessage(true, PluginMessages.MessageEnum.LOBBY_PLAYER_JOINED);
+            broadcastMsg = PluginMessages.MessageEnum.LOBBY_PLAYER_JOINED;
         } else {
-            broadcastMsg = PluginMessages.getMessage(true, PluginMessages.MessageEnum.GAME_PLAYER_JOINED);
+            broadcastMsg = PluginMessages.MessageEnum.GAME_PLAYER_JOINED;
         }
         
-        game.broadcast(broadcastMsg.replace("%max_players%", Integer.toString(game.getGameConfig().getMaxPlayers()))
-                .replace("%players%", Integer.toString(game.getPlayerAmount()))
-                .replace("%player%", player.getName())
-                .replace("%team%", (mwPlayer.getTeam() != null) ? mwPlayer.getTeam().getFullname() : "?"));
+        game.broadcast(PluginMessages.getMessage(true, broadcastMsg,
+                "max_players", game.getGameConfig().getMaxPlayers(),
+                "players", game.getPlayerAmount(),
+                "player", player.getName(),
+                "team", (mwPlayer.getTeam() != null) ? mwPlayer.getTeam().getFullname() : "?"));
     }
     
     private void sendTeamSwitchBroadcastMsg(MWPlayer mwPlayer, Team oldTeam) {
         Player player = mwPlayer.getPlayer();
         
-        String broadcastMsg;
+        PluginMessages.MessageEnum broadcastMsg;
         if (game.getState() == GameState.LOBBY) {
-            broadcastMsg = PluginMessages.getMessage(true, PluginMessages.MessageEnum.LOBBY_PLAYER_SWITCHED);
+            broadcastMsg = PluginMessages.MessageEnum.LOBBY_PLAYER_SWITCHED;
         } else {
-            broadcastMsg = PluginMessages.getMessage(true, PluginMessages.MessageEnum.GAME_PLAYER_SWITCHED);
+            broadcastMsg = PluginMessages.MessageEnum.GAME_PLAYER_SWITCHED;
         }
         
-        game.broadcast(broadcastMsg.replace("%max_players%", Integer.toString(game.getGameConfig().getMaxPlayers()))
-                .replace("%players%", Integer.toString(game.getPlayerAmount()))
-                .replace("%player%", player.getName())
-                .replace("%from%", oldTeam.getFullname())
-                .replace("%to%", mwPlayer.getTeam().getFullname()));
+        game.broadcast(PluginMessages.getMessage(true, broadcastMsg,
+                "max_players", game.getGameConfig().getMaxPlayers(),
+                "players", game.getPlayerAmount(),
+                "player", player.getName(),
+                "from", oldTeam.getFullname(),
+                "to", mwPlayer.getTeam().getFullname()));
     }
     
     public void sendJoinPrivateMsg(MWPlayer mwPlayer, boolean isTeamSwitch) {
         Player player = mwPlayer.getPlayer();
         
-        String privateMsg;
+        PluginMessages.MessageEnum privateMsg;
         if (mwPlayer.getTeam() == teamManager.getTeamSpec()) {
             if (isTeamSwitch) {
-                privateMsg = PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_SPECTATOR_TEAM_SWITCH);
+                privateMsg = PluginMessages.MessageEnum.TEAM_SPECTATOR_TEAM_SWITCH;
             } else {
-                privateMsg = PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_SPECTATOR_TEAM_ASSIGNED);
+                privateMsg = PluginMessages.MessageEnum.TEAM_SPECTATOR_TEAM_ASSIGNED;
             }
             
         } else {
             if (isTeamSwitch) {
-                privateMsg = PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_PLAYER_TEAM_SWITCH);
+                privateMsg = PluginMessages.MessageEnum.TEAM_PLAYER_TEAM_SWITCH;
             } else {
-                privateMsg = PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_PLAYER_TEAM_ASSIGNED);
+                privateMsg = PluginMessages.MessageEnum.TEAM_PLAYER_TEAM_ASSIGNED;
             }
         }
         
-        player.sendMessage(privateMsg.replace("%max_players%", Integer.toString(game.getGameConfig().getMaxPlayers()))
-                .replace("%players%", Integer.toString(game.getPlayerAmount()))
-                .replace("%player%", player.getName())
-                .replace("%team%", (mwPlayer.getTeam() != null) ? mwPlayer.getTeam().getFullname() : "?"));
+        player.sendMessage(PluginMessages.getMessage(true, privateMsg,
+                "max_players", game.getGameConfig().getMaxPlayers(),
+                "players", game.getPlayerAmount(),
+                "player", player.getName(),
+                "team", (mwPlayer.getTeam() != null) ? mwPlayer.getTeam().getFullname() : "?"));
     }
 
     private void getGameJoinMenu(MWPlayer mwPlayer) {
@@ -275,6 +279,7 @@ public class GameJoinManager {
         if (game.getPlayers().containsKey(player.getUniqueId())) return game.getPlayers().get(player.getUniqueId());
         MWPlayer mwPlayer = new MWPlayer(player, game);
         game.getPlayers().put(player.getUniqueId(), mwPlayer);
+        PlayerRegistry.getInstance().register(mwPlayer);
         return mwPlayer;
     }
     
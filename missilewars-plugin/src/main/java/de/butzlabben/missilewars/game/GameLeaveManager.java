@@ -24,11 +24,11 @@ import de.butzlabben.missilewars.game.enums.GameResult;
 import de.butzlabben.missilewars.game.enums.GameState;
 import de.butzlabben.missilewars.game.enums.TeamType;
 import de.butzlabben.missilewars.player.MWPlayer;
+import de.butzlabben.missilewars.player.PlayerRegistry;
 import de.butzlabben.missilewars.util.PlayerDataProvider;
 import lombok.RequiredArgsConstructor;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitTask;
 
 import java.util.HashMap;
 import java.util.UUID;
@@ -57,31 +57,33 @@ public class GameLeaveManager {
         
         playerLeaveFromTeam(mwPlayer);
         game.removePlayer(mwPlayer);
+        PlayerRegistry.getInstance().unregister(mwPlayer);
         
         PlayerDataProvider.getInstance().loadInventory(player);
 
-        String message = null;
+        PluginMessages.MessageEnum message = null;
         if (game.getState() == GameState.LOBBY) {
-            message = PluginMessages.getMessage(true, PluginMessages.MessageEnum.LOBBY_PLAYER_LEFT);
+            message = PluginMessages.MessageEnum.LOBBY_PLAYER_LEFT;
         } else if (game.getState() == GameState.INGAME) {
-            message = PluginMessages.getMessage(true, PluginMessages.MessageEnum.GAME_PLAYER_LEFT);
+            message = PluginMessages.MessageEnum.GAME_PLAYER_LEFT;
         }
 
         if (message != null) {
-            game.broadcast(message.replace("%max_players%", Integer.toString(game.getGameConfig().getMaxPlayers()))
-                    .replace("%players%", Integer.toString(game.getPlayerAmount()))
-                    .replace("%player%", player.getName())
-                    .replace("%team%", team.getFullname()));
+            game.broadcast(PluginMessages.getMessage(true, message,
+                    "max_players", game.getGameConfig().getMaxPlayers(),
+                    "players", game.getPlayerAmount(),
+                    "player", player.getName(),
+                    "team", team.getFullname()));
         }
 
         player.setScoreboard(Bukkit.getScoreboardManager().getMainScoreboard());
         
         if (game.getState() == GameState.LOBBY) {
-            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.LOBBY_LEFT)
-                    .replace("%game_name%", game.getGameConfig().getDisplayName()));
+            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.LOBBY_LEFT,
+                    "game_name", game.getGameConfig().getDisplayName()));
         } else if (game.getState() == GameState.INGAME) {
-            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.GAME_LEFT)
-                    .replace("%arena_name%", game.getArenaConfig().getDisplayName()));
+            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.GAME_LEFT,
+                    "arena_name", game.getArenaConfig().getDisplayName()));
         }
 
     }
@@ -92,8 +94,7 @@ public class GameLeaveManager {
         leftPlayerCache.put(mwPlayer.getUuid(), oldTeam);
         
         if (game.getState() == GameState.INGAME) {
-            BukkitTask task = game.getPlayerTasks().get(mwPlayer.getUuid());
-            if (task != null) task.cancel();
+            game.getEquipmentScheduler().remove(mwPlayer.getUuid());
         }
         
         oldTeam.removeMember(mwPlayer);
@@ -111,8 +112,8 @@ public class GameLeaveManager {
                 game.sendGameResult();
                 game.stopGame();
             });
-            game.broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_ALL_TEAMMATES_OFFLINE)
-                    .replace("%team%", team.getFullname()));
+            game.broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.TEAM_ALL_TEAMMATES_OFFLINE,
+                    "team", team.getFullname()));
         }
     }
     
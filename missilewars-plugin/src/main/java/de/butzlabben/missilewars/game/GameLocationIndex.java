@@ -0,0 +1,190 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.game;
+
+import de.butzlabben.missilewars.util.geometry.GameArea;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * This class finds the game of a location without checking every game. The game worlds
+ * are mapped directly to their game. The lobby areas are stored per world in a grid of
+ * chunk columns, so that only the lobbies of the chunk column are checked.
+ *
+ * @param <G> the type of the indexed games
+ */
+class GameLocationIndex<G> {
+
+    // If the lobbies of a world are too far apart, the lobbies are checked one after another.
+    private static final int MAX_GRID_CELLS = 65536;
+
+    private final Function<G, GameArea> lobbyAreaGetter;
+    private final Function<G, GameArea> gameAreaGetter;
+    private final Map<UUID, G> gameWorlds = new HashMap<>();
+    private final Map<UUID, LobbyGrid<G>> lobbyGrids = new HashMap<>();
+
+    /**
+     * @param lobbyAreaGetter (Function) returns the lobby area of a game
+     * @param gameAreaGetter (Function) returns the game area of a game or 'null', if the arena is not loaded yet
+     */
+    GameLocationIndex(Function<G, GameArea> lobbyAreaGetter, Function<G, GameArea> gameAreaGetter) {
+        this.lobbyAreaGetter = lobbyAreaGetter;
+        this.gameAreaGetter = gameAreaGetter;
+    }
+
+    /**
+     * This method rebuilds the index for all games.
+     *
+     * @param games (Collection) the loaded games
+     */
+    void rebuild(Collection<G> games) {
+        gameWorlds.clear();
+        lobbyGrids.clear();
+
+        Map<UUID, List<G>> lobbiesByWorld = new HashMap<>();
+        for (G game : games) {
+            addGameWorld(game);
+
+            GameArea lobbyArea = lobbyAreaGetter.apply(game);
+            if ((lobbyArea == null) || (lobbyArea.getWorld() == null)) continue;
+            lobbiesByWorld.computeIfAbsent(lobbyArea.getWorld().getUID(), key -> new ArrayList<>()).add(game);
+        }
+
+        lobbiesByWorld.forEach((worldUid, lobbies) -> lobbyGrids.put(worldUid, new LobbyGrid<>(lobbies, lobbyAreaGetter)));
+    }
+
+    /**
+     * This method adds the game world of the game to the index, as soon as the arena is loaded.
+     *
+     * @param game (Game) the game
+     */
+    void addGameWorld(G game) {
+        GameArea gameArea = gameAreaGetter.apply(game);
+        if ((gameArea == null) || (gameArea.getWorld() == null)) return;
+
+        gameWorlds.put(gameArea.getWorld().getUID(), game);
+    }
+
+    /**
+     * This method returns the game of the location.
+     *
+     * @param location (Location) the location to be checked
+     *
+     * @return the game, whose lobby area or game world contains the location, or 'null'
+     */
+    G getGame(Location location) {
+        World world = location.getWorld();
+        if (world == null) return null;
+
+        UUID worldUid = world.getUID();
+        G game = gameWorlds.get(worldUid);
+        if (game != null) return game;
+
+        LobbyGrid<G> lobbyGrid = lobbyGrids.get(worldUid);
+        if (lobbyGrid == null) return null;
+
+        return lobbyGrid.getGame(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    private static class LobbyGrid<G> {
+
+        private final int minChunkX, minChunkZ;
+        private final int sizeX, sizeZ;
+        private final List<List<G>> cells;
+        private final List<G> lobbies;
+        private final Function<G, GameArea> lobbyAreaGetter;
+
+        private LobbyGrid(List<G> lobbies, Function<G, GameArea> lobbyAreaGetter) {
+            this.lobbies = lobbies;
+            this.lobbyAreaGetter = lobbyAreaGetter;
+
+            int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+            for (G game : lobbies) {
+                GameArea area = lobbyAreaGetter.apply(game);
+                minX = Math.min(minX, area.getMinX() >> 4);
+                minZ = Math.min(minZ, area.getMinZ() >> 4);
+                maxX = Math.max(maxX, area.getMaxX() >> 4);
+                maxZ = Math.max(maxZ, area.getMaxZ() >> 4);
+            }
+
+            minChunkX = minX;
+            minChunkZ = minZ;
+            sizeX = maxX - minX + 1;
+            sizeZ = maxZ - minZ + 1;
+
+            if ((long) sizeX * sizeZ > MAX_GRID_CELLS) {
+                cells = null;
+                return;
+            }
+
+            cells = new ArrayList<>();
+            for (int i = 0; i < sizeX * sizeZ; i++) {
+                cells.add(Collections.emptyList());
+            }
+            for (G game : lobbies) {
+                GameArea area = lobbyAreaGetter.apply(game);
+                for (int chunkX = area.getMinX() >> 4; chunkX <= area.getMaxX() >> 4; chunkX++) {
+                    for (int chunkZ = area.getMinZ() >> 4; chunkZ <= area.getMaxZ() >> 4; chunkZ++) {
+                        int index = (chunkX - minChunkX) * sizeZ + (chunkZ - minChunkZ);
+                        if (cells.get(index).isEmpty()) cells.set(index, new ArrayList<>());
+                        cells.get(index).add(game);
+                    }
+                }
+            }
+        }
+
+        private G getGame(int x, int y, int z) {
+            List<G> candidates = lobbies;
+
+            if (cells != null) {
+                int cellX = (x >> 4) - minChunkX;
+                int cellZ = (z >> 4) - minChunkZ;
+                if ((cellX < 0) || (cellX >= sizeX) || (cellZ < 0) || (cellZ >= sizeZ)) return null;
+
+                candidates = cells.get(cellX * sizeZ + cellZ);
+            }
+
+            for (int i = 0; i < candidates.size(); i++) {
+                G game = candidates.get(i);
+                if (isInside(lobbyAreaGetter.apply(game), x, y, z)) return game;
+            }
+            return null;
+        }
+
+        /**
+         * The border of the area (1 block wide) is still part of the area, like in
+         * {@link de.butzlabben.missilewars.util.geometry.Geometry#isInsideIn}.
+         */
+        private static boolean isInside(GameArea area, int x, int y, int z) {
+            return (x >= area.getMinX()) && (x <= area.getMaxX())
+                    && (y >= area.getMinY()) && (y <= area.getMaxY())
+                    && (z >= area.getMinZ()) && (z <= area.getMaxZ());
+        }
+    }
+}
@@ -23,8 +23,10 @@ import de.butzlabben.missilewars.MissileWars;
 import de.butzlabben.missilewars.configuration.Config;
 import de.butzlabben.missilewars.configuration.game.GameConfig;
 import de.butzlabben.missilewars.game.enums.GameState;
+import de.butzlabben.missilewars.game.misc.PlaceholderSnapshot;
 import de.butzlabben.missilewars.util.geometry.GameArea;
 import de.butzlabben.missilewars.util.serialization.Serializer;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -42,11 +44,17 @@ public class GameManager {
     @Getter
     private static final GameManager instance = new GameManager();
     private final Map<String, Game> games = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final GameLocationIndex<Game> locationIndex = new GameLocationIndex<>(game -> game.getGameConfig().getArea(), Game::getGameArea);
+    // This counter changes with every change of the location index, so that cached lookups can be invalidated.
+    private int locationIndexVersion = 0;
 
 
     public void disableAll() {
         games.values().forEach(Game::disableGameOnServerStop);
         games.clear();
+        PlaceholderSnapshot.clear();
+        rebuildLocationIndex();
     }
 
     public void restartAll() {
@@ -152,6 +160,7 @@ public class GameManager {
 
         // delete the old game from the list
         games.remove(targetGameName);
+        rebuildLocationIndex();
 
         Logger.DEBUG.log("Old game disabled.");
 
@@ -177,6 +186,23 @@ public class GameManager {
 
     public void addGame(String name, Game game) {
         games.put(name, game);
+        rebuildLocationIndex();
+    }
+
+    /**
+     * This method registers the game world of the game for the location lookup. It
+     * is called as soon as the arena world of the game is loaded.
+     *
+     * @param game (Game) the game with the loaded arena
+     */
+    void updateGameWorld(Game game) {
+        locationIndex.addGameWorld(game);
+        locationIndexVersion++;
+    }
+
+    private void rebuildLocationIndex() {
+        locationIndex.rebuild(games.values());
+        locationIndexVersion++;
     }
 
     public int getGameAmount() {
@@ -184,12 +210,7 @@ public class GameManager {
     }
 
     public Game getGame(Location location) {
-        for (Game game : GameManager.getInstance().getGames().values()) {
-            if (game.isIn(location)) {
-                return game;
-            }
-        }
-        return null;
+        return locationIndex.getGame(location);
     }
     
 }
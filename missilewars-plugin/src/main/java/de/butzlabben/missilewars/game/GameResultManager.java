@@ -137,13 +137,13 @@ public class GameResultManager {
         String subTitle;
 
         if (teamManager.getTeam1().getGameResult() == GameResult.WIN) {
-            title = PluginMessages.getMessage(false, PluginMessages.MessageEnum.GAME_RESULT_TITLE_WON)
-                    .replace("%team%", teamManager.getTeam1().getName());
+            title = PluginMessages.getMessage(false, PluginMessages.MessageEnum.GAME_RESULT_TITLE_WON,
+                    "team", teamManager.getTeam1().getName());
             subTitle = PluginMessages.getMessage(false, PluginMessages.MessageEnum.GAME_RESULT_SUBTITLE_WON);
 
         } else if (teamManager.getTeam2().getGameResult() == GameResult.WIN) {
-            title = PluginMessages.getMessage(false, PluginMessages.MessageEnum.GAME_RESULT_TITLE_WON)
-                    .replace("%team%", teamManager.getTeam2().getName());
+            title = PluginMessages.getMessage(false, PluginMessages.MessageEnum.GAME_RESULT_TITLE_WON,
+                    "team", teamManager.getTeam2().getName());
             subTitle = PluginMessages.getMessage(false, PluginMessages.MessageEnum.GAME_RESULT_SUBTITLE_WON);
 
         } else {
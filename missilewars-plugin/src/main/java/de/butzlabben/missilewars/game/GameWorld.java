@@ -19,7 +19,6 @@
 package de.butzlabben.missilewars.game;
 
 import de.butzlabben.missilewars.Logger;
-import de.butzlabben.missilewars.configuration.Config;
 import de.butzlabben.missilewars.configuration.PluginMessages;
 import java.io.File;
 import java.io.IOException;
@@ -102,33 +101,36 @@ public class GameWorld {
 
     public void load() {
         synchronized (lock) {
-            int i = 0;
-            File file;
-            do {
-                worldName = worldNameTemplate + "-" + i;
-                file = new File(Bukkit.getWorldContainer(), worldName);
-                i++;
-            } while (file.exists() || file.isDirectory());
-
-            File arenasFolder = new File(Config.getArenasFolder());
-            File newFile = new File(arenasFolder, templateName);
-
-            try {
-                FileUtils.copyDirectory(newFile, file);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-
-            File uid = new File(file, "uid.dat");
-            if (uid.isFile()) FileUtils.deleteQuietly(uid);
-
-            Logger.DEBUG.log("Loading new gameworld");
-            World world = Bukkit.createWorld(new WorldCreator(worldName));
-            Bukkit.getWorlds().add(world);
+            worldName = WorldPool.getInstance().take(templateName);
+            if (worldName == null) createWorld();
 
+            World world = Bukkit.getWorld(worldName);
             world.setGameRule(GameRule.DO_TILE_DROPS, game.getArenaConfig().isDoTileDrops());
             world.setGameRule(GameRule.KEEP_INVENTORY, game.getArenaConfig().isKeepInventory());
         }
     }
 
+    private void createWorld() {
+        int i = 0;
+        File file;
+        do {
+            worldName = worldNameTemplate + "-" + i;
+            file = new File(Bukkit.getWorldContainer(), worldName);
+            i++;
+        } while (file.exists() || file.isDirectory());
+
+        try {
+            TemplateWorldCache.getInstance().materialize(templateName, file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        File uid = new File(file, "uid.dat");
+        if (uid.isFile()) FileUtils.deleteQuietly(uid);
+
+        Logger.DEBUG.log("Loading new gameworld");
+        World world = Bukkit.createWorld(new WorldCreator(worldName));
+        Bukkit.getWorlds().add(world);
+    }
+
 }
@@ -61,8 +61,8 @@ public class MapVoting {
 
         ArenaConfig arenaConfig = Arenas.getFromName(arenaName);
         if (arenaConfig == null) {
-            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_MAP)
-                    .replace("%input%", arenaName));
+            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.COMMAND_INVALID_MAP,
+                    "input", arenaName));
             return;
         }
         
@@ -76,8 +76,8 @@ public class MapVoting {
         if (arenaVotes.containsKey(mwPlayer)) {
 
             if (arenaVotes.get(mwPlayer) == arenaConfig) {
-                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.VOTE_ARENA_ALREADY_SELECTED)
-                        .replace("%map%", arenaConfig.getDisplayName()));
+                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.VOTE_ARENA_ALREADY_SELECTED,
+                        "map", arenaConfig.getDisplayName()));
                 return;
             }
 
@@ -88,7 +88,7 @@ public class MapVoting {
         // add the new vote
         arenaVotes.put(mwPlayer, arenaConfig);
 
-        player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.VOTE_SUCCESS).replace("%map%", arenaConfig.getDisplayName()));
+        player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.VOTE_SUCCESS, "map", arenaConfig.getDisplayName()));
     }
 
     /**
@@ -166,8 +166,8 @@ public class MapVoting {
         if (arenaConfig == null) throw new IllegalStateException("Voted arena is not present");
         game.setArena(arenaConfig);
 
-        game.broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.VOTE_FINISHED)
-                .replace("%map%", game.getArenaConfig().getDisplayName()));
+        game.broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.VOTE_FINISHED,
+                "map", game.getArenaConfig().getDisplayName()));
 
         game.prepareGame();
     }
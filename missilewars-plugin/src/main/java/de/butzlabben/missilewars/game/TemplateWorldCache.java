@@ -0,0 +1,253 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.game;
+
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.configuration.Config;
+import lombok.Getter;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class holds an in-memory snapshot of the arena template worlds. Each template
+ * folder is only read once from the disk; new game worlds are then materialised from
+ * the cached bytes instead of copying the template directory on every round. The
+ * snapshots are kept until the cache is cleared (e.g. with a reload), so changes of
+ * a template folder are only applied after a reload.
+ */
+public class TemplateWorldCache {
+
+    @Getter
+    private static final TemplateWorldCache instance = new TemplateWorldCache();
+
+    private final Map<String, TemplateSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastCopyTimes = new ConcurrentHashMap<>();
+    private final Map<String, Long> fingerprints = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * This method creates the world folder of a new game world based on the
+     * template. If possible, the cached snapshot of the template is used. Otherwise,
+     * the template directory is copied directly.
+     *
+     * @param templateName (String) the name of the template folder in the arenas folder
+     * @param targetFolder (File) the folder of the new game world
+     */
+    public void materialize(String templateName, File targetFolder) throws IOException {
+        File templateFolder = new File(Config.getArenasFolder(), templateName);
+
+        if (!Config.isTemplateCacheEnabled()) {
+            copyDirectly(templateName, templateFolder, targetFolder);
+            return;
+        }
+
+        TemplateSnapshot snapshot = snapshots.get(templateName);
+        if (snapshot == null) {
+            // Only one thread reads the template at a time. The other threads don't wait
+            // for it and copy the template directly, so that the main thread is never
+            // blocked by a world, which is prepared for the world pool.
+            ReentrantLock lock = locks.computeIfAbsent(templateName, key -> new ReentrantLock());
+            if (!lock.tryLock()) {
+                copyDirectly(templateName, templateFolder, targetFolder);
+                return;
+            }
+
+            try {
+                snapshot = getSnapshot(templateName, templateFolder);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        if (snapshot == null) {
+            copyDirectly(templateName, templateFolder, targetFolder);
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        snapshot.writeTo(targetFolder);
+        long endTime = System.currentTimeMillis();
+
+        // The direct copy time is only known, if the template was copied directly before.
+        Long lastCopyTime = lastCopyTimes.get(templateName);
+        Logger.DEBUG.log("[World-Cache] Materialised world from the template \"" + templateName + "\" in "
+                + (endTime - startTime) + " ms" + ((lastCopyTime != null) ? " (direct copy: " + lastCopyTime + " ms)." : "."));
+    }
+
+    /**
+     * This method removes all cached template snapshots and fingerprints,
+     * so that the templates are read again from the disk.
+     */
+    public void clear() {
+        snapshots.clear();
+        fingerprints.clear();
+        lastCopyTimes.clear();
+    }
+
+    /**
+     * This method returns the fingerprint of the template. It is only computed
+     * once and is kept until the cache is cleared (e.g. with a reload).
+     *
+     * @param templateName (String) the name of the template folder in the arenas folder
+     *
+     * @return the fingerprint
+     */
+    public long getFingerprint(String templateName) {
+        Long fingerprint = fingerprints.get(templateName);
+        if (fingerprint != null) return fingerprint;
+
+        fingerprint = getFingerprint(new File(Config.getArenasFolder(), templateName));
+        Long previous = fingerprints.putIfAbsent(templateName, fingerprint);
+        return (previous != null) ? previous : fingerprint;
+    }
+
+    private void copyDirectly(String templateName, File templateFolder, File targetFolder) throws IOException {
+        long startTime = System.currentTimeMillis();
+        FileUtils.copyDirectory(templateFolder, targetFolder);
+        long endTime = System.currentTimeMillis();
+
+        lastCopyTimes.put(templateName, endTime - startTime);
+        Logger.DEBUG.log("[World-Cache] Copied the template \"" + templateName + "\" directly in " + (endTime - startTime) + " ms.");
+    }
+
+    /**
+     * This method returns the snapshot of the template. If there is no snapshot 
+     * yet, the template is read from the disk.
+     *
+     * @return the snapshot or 'null', if the template can not be cached
+     */
+    private TemplateSnapshot getSnapshot(String templateName, File templateFolder) throws IOException {
+        TemplateSnapshot snapshot = snapshots.get(templateName);
+        if (snapshot != null) return snapshot;
+
+        if (!templateFolder.isDirectory()) return null;
+
+        List<File> files = new ArrayList<>();
+        collectFiles(templateFolder, files);
+
+        long totalSize = 0;
+        for (File file : files) {
+            totalSize += file.length();
+        }
+
+        long maxSize = Config.getTemplateCacheMaxSize() * 1024L * 1024L;
+        long cachedSize = snapshots.values().stream().mapToLong(cachedSnapshot -> cachedSnapshot.size).sum();
+        if (cachedSize + totalSize > maxSize) {
+            Logger.DEBUG.log("[World-Cache] The template \"" + templateName + "\" does not fit into the cache ("
+                    + (totalSize / 1024) + " KB). Using the direct copy.");
+            return null;
+        }
+
+        long startTime = System.currentTimeMillis();
+        snapshot = new TemplateSnapshot(totalSize);
+        String basePath = templateFolder.getAbsolutePath();
+        for (File file : files) {
+            String relativePath = file.getAbsolutePath().substring(basePath.length() + 1);
+            if (isExcluded(relativePath)) continue;
+
+            snapshot.files.put(relativePath, Files.readAllBytes(file.toPath()));
+        }
+        long endTime = System.currentTimeMillis();
+
+        snapshots.put(templateName, snapshot);
+        Logger.DEBUG.log("[World-Cache] Cached the template \"" + templateName + "\" with " + snapshot.files.size()
+                + " files (" + (totalSize / 1024) + " KB) in " + (endTime - startTime) + " ms.");
+
+        return snapshot;
+    }
+
+    private static void collectFiles(File folder, List<File> files) {
+        File[] children = folder.listFiles();
+        if (children == null) return;
+
+        for (File child : children) {
+            if (child.isDirectory()) {
+                collectFiles(child, files);
+            } else {
+                files.add(child);
+            }
+        }
+    }
+
+    /**
+     * This method creates a fingerprint of the template folder. It changes as soon
+     * as a file of the template is added, removed or modified.
+     *
+     * @param templateFolder (File) the template folder
+     *
+     * @return the fingerprint
+     */
+    private static long getFingerprint(File templateFolder) {
+        List<File> files = new ArrayList<>();
+        collectFiles(templateFolder, files);
+        return getFingerprint(files);
+    }
+
+    /**
+     * This method creates a fingerprint based on the file names, sizes and
+     * modification times of the template.
+     */
+    private static long getFingerprint(List<File> files) {
+        long fingerprint = files.size();
+        for (File file : files) {
+            fingerprint = 31 * fingerprint + file.getAbsolutePath().hashCode();
+            fingerprint = 31 * fingerprint + file.length();
+            fingerprint = 31 * fingerprint + file.lastModified();
+        }
+        return fingerprint;
+    }
+
+    /**
+     * The world specific files are not part of the snapshot, so that
+     * Bukkit creates them new for every game world.
+     */
+    private static boolean isExcluded(String relativePath) {
+        return relativePath.equals("uid.dat") || relativePath.equals("session.lock");
+    }
+
+    private static class TemplateSnapshot {
+
+        private final long size;
+        private final Map<String, byte[]> files = new HashMap<>();
+
+        private TemplateSnapshot(long size) {
+            this.size = size;
+        }
+
+        private void writeTo(File targetFolder) throws IOException {
+            for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+                File file = new File(targetFolder, entry.getKey());
+                File parent = file.getParentFile();
+                if (!parent.isDirectory() && !parent.mkdirs()) {
+                    throw new IOException("Failed to create directory " + parent);
+                }
+                Files.write(file.toPath(), entry.getValue());
+            }
+        }
+    }
+}
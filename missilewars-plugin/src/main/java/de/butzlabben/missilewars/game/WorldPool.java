@@ -0,0 +1,188 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.game;
+
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.MissileWars;
+import de.butzlabben.missilewars.configuration.arena.ArenaConfig;
+import lombok.Getter;
+import org.apache.commons.io.FileUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class prepares the arena worlds of the next games in the background, while
+ * the current game is still running. The template is copied on an async thread; only
+ * the Bukkit world creation takes place in a separate task on the main thread.
+ * When the next game sets its arena, it takes the ready world from the pool.
+ */
+public class WorldPool {
+
+    @Getter
+    private static final WorldPool instance = new WorldPool();
+
+    private final Map<String, Deque<String>> readyWorlds = new HashMap<>();
+    private final Map<String, Integer> pendingWorlds = new HashMap<>();
+    // The worlds that are prepared while the pool is cleared are based on an outdated template.
+    private volatile int generation = 0;
+    @Getter private int hits = 0;
+    @Getter private int misses = 0;
+
+    /**
+     * This method fills the pool with worlds for the arena of the next game, up to
+     * the configured pool size of the game. If the next arena is not yet known (for
+     * example in the case of a map vote), nothing is prepared.
+     *
+     * @param game (Game) the currently running game
+     */
+    public void prepareNext(Game game) {
+        int poolSize = game.getGameConfig().getWorldPoolSize();
+        if (poolSize <= 0) return;
+
+        ArenaConfig nextArena = Game.getNextArena(game.getGameConfig());
+        if (nextArena == null) return;
+
+        String templateName = nextArena.getTemplateWorld();
+        int available = readyWorlds.getOrDefault(templateName, new ArrayDeque<>()).size()
+                + pendingWorlds.getOrDefault(templateName, 0);
+
+        for (int i = available; i < poolSize; i++) {
+            prepareWorld(templateName);
+        }
+    }
+
+    /**
+     * This method takes a ready world of the template from the pool.
+     *
+     * @param templateName (String) the template name of the arena
+     *
+     * @return the name of the loaded world or 'null', if no world is ready
+     */
+    public String take(String templateName) {
+        Deque<String> worlds = readyWorlds.get(templateName);
+
+        while ((worlds != null) && (!worlds.isEmpty())) {
+            String worldName = worlds.poll();
+            if (Bukkit.getWorld(worldName) == null) continue;
+
+            hits++;
+            Logger.DEBUG.log("[World-Pool] Took the prepared world \"" + worldName + "\" (hits: " + hits + ", misses: " + misses + ").");
+            return worldName;
+        }
+
+        misses++;
+        Logger.DEBUG.log("[World-Pool] No prepared world for the template \"" + templateName + "\" (hits: " + hits + ", misses: " + misses + ").");
+        return null;
+    }
+
+    /**
+     * This method unloads and deletes all prepared worlds of the pool. The worlds 
+     * that are still being prepared are deleted as soon as they are copied.
+     */
+    public void clear() {
+        generation++;
+        pendingWorlds.clear();
+
+        for (Deque<String> worlds : readyWorlds.values()) {
+            for (String worldName : worlds) {
+                World world = Bukkit.getWorld(worldName);
+                if (world != null) Bukkit.unloadWorld(world, false);
+                FileUtils.deleteQuietly(new File(Bukkit.getWorldContainer(), worldName));
+            }
+        }
+        readyWorlds.clear();
+    }
+
+    private void prepareWorld(String templateName) {
+        // The world folder is reserved on the main thread, so that no other game world gets the same name.
+        String worldName = reserveWorldName(templateName);
+        File folder = new File(Bukkit.getWorldContainer(), worldName);
+
+        int worldGeneration = generation;
+        pendingWorlds.merge(templateName, 1, Integer::sum);
+        Logger.DEBUG.log("[World-Pool] Preparing the world \"" + worldName + "\" in the background.");
+
+        Bukkit.getScheduler().runTaskAsynchronously(MissileWars.getInstance(), () -> {
+            boolean copied = false;
+            // The template is not copied anymore, if the pool was cleared in the meantime.
+            if (worldGeneration == generation) {
+                try {
+                    TemplateWorldCache.getInstance().materialize(templateName, folder);
+                    FileUtils.deleteQuietly(new File(folder, "uid.dat"));
+                    copied = true;
+                } catch (IOException e) {
+                    Logger.ERROR.log("Could not prepare the world \"" + worldName + "\" for the world pool.");
+                    e.printStackTrace();
+                }
+            }
+
+            final boolean success = copied;
+            Bukkit.getScheduler().runTask(MissileWars.getInstance(), () -> createWorld(templateName, worldName, success, worldGeneration));
+        });
+    }
+
+    private void createWorld(String templateName, String worldName, boolean copied, int worldGeneration) {
+        if (worldGeneration != generation) {
+            Logger.DEBUG.log("[World-Pool] Deleted the world \"" + worldName + "\", as the pool was cleared while it was prepared.");
+            FileUtils.deleteQuietly(new File(Bukkit.getWorldContainer(), worldName));
+            return;
+        }
+
+        pendingWorlds.merge(templateName, -1, Integer::sum);
+
+        if (!copied || !MissileWars.getInstance().isEnabled()) {
+            FileUtils.deleteQuietly(new File(Bukkit.getWorldContainer(), worldName));
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        World world = Bukkit.createWorld(new WorldCreator(worldName));
+        long endTime = System.currentTimeMillis();
+
+        if (world == null) {
+            Logger.WARN.log("Could not create the prepared world \"" + worldName + "\".");
+            return;
+        }
+
+        readyWorlds.computeIfAbsent(templateName, key -> new ArrayDeque<>()).add(worldName);
+        Logger.DEBUG.log("[World-Pool] The world \"" + worldName + "\" is ready (world creation: " + (endTime - startTime) + " ms).");
+    }
+
+    private static String reserveWorldName(String templateName) {
+        int i = 0;
+        String worldName;
+        File file;
+        do {
+            worldName = "mw-" + templateName + "-" + i;
+            file = new File(Bukkit.getWorldContainer(), worldName);
+            i++;
+        } while (file.exists() || file.isDirectory());
+
+        file.mkdirs();
+        return worldName;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.game.equipment;
+
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.player.MWPlayer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+/**
+ * This class drives the equipment randomizers of all team players of a game. Instead
+ * of a separate scheduler task for every player, the randomizers are ticked by the
+ * game timer once per second.
+ */
+public class EquipmentScheduler {
+
+    // The first tick of a new randomizer is delayed, so that the player is fully spawned.
+    private static final int START_DELAY = 2;
+
+    private final Map<UUID, ScheduledRandomizer> randomizers = new LinkedHashMap<>();
+
+    /**
+     * This method starts the equipment randomizer of the player. A running
+     * randomizer of the player is replaced.
+     *
+     * @param mwPlayer (MWPlayer) the team player
+     */
+    public void add(MWPlayer mwPlayer) {
+        add(mwPlayer.getUuid(), () -> mwPlayer.getPlayer() != null, () -> mwPlayer.getPlayerEquipmentRandomizer().tick());
+    }
+
+    /**
+     * This method starts a randomizer, which is only ticked while the player is online.
+     *
+     * @param uuid (UUID) the UUID of the player
+     * @param online (BooleanSupplier) checks whether the player is online
+     * @param randomizer (Runnable) ticks the randomizer of the player
+     */
+    void add(UUID uuid, BooleanSupplier online, Runnable randomizer) {
+        randomizers.put(uuid, new ScheduledRandomizer(uuid, online, randomizer));
+    }
+
+    /**
+     * This method stops the equipment randomizer of the player.
+     *
+     * @param uuid (UUID) the UUID of the player
+     */
+    public void remove(UUID uuid) {
+        randomizers.remove(uuid);
+    }
+
+    public void clear() {
+        randomizers.clear();
+    }
+
+    public int size() {
+        return randomizers.size();
+    }
+
+    /**
+     * This method ticks all randomizers. It is called every second by the game timer.
+     */
+    public void tick() {
+        for (ScheduledRandomizer scheduledRandomizer : randomizers.values()) {
+            if (scheduledRandomizer.delay > 0) {
+                scheduledRandomizer.delay--;
+                continue;
+            }
+
+            if (!scheduledRandomizer.online.getAsBoolean()) continue;
+
+            try {
+                scheduledRandomizer.randomizer.run();
+            } catch (Exception e) {
+                Logger.ERROR.log("Could not tick the equipment randomizer of " + scheduledRandomizer.uuid);
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static class ScheduledRandomizer {
+
+        private final UUID uuid;
+        private final BooleanSupplier online;
+        private final Runnable randomizer;
+        private int delay = START_DELAY;
+
+        private ScheduledRandomizer(UUID uuid, BooleanSupplier online, Runnable randomizer) {
+            this.uuid = uuid;
+            this.online = online;
+            this.randomizer = randomizer;
+        }
+    }
+}
@@ -19,21 +19,34 @@
 package de.butzlabben.missilewars.game.misc;
 
 import de.butzlabben.missilewars.MissileWars;
-import de.butzlabben.missilewars.configuration.game.GameConfig;
-import de.butzlabben.missilewars.configuration.arena.ArenaConfig;
 import de.butzlabben.missilewars.game.Game;
 import de.butzlabben.missilewars.game.GameManager;
 import de.butzlabben.missilewars.game.enums.GameState;
 import de.butzlabben.missilewars.player.MWPlayer;
+import de.butzlabben.missilewars.player.PlayerRegistry;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class MissileWarsPlaceholder extends PlaceholderExpansion {
 
+    // The keys of the placeholders with a game or arena name (or 'this') as target:
+    private static final String[] TARGET_KEYS = {"game_gamestate", "game_mapvote_state", "game_displayname",
+            "game_team1_name", "game_team1_color", "game_team2_name", "game_team2_color", "game_mapchooseprocedure",
+            "game_gameduration", "game_arenasize_x", "game_arenasize_y", "game_arenasize_z",
+            "arena_displayname", "arena_missileamount", "arena_gameduration"};
+    private static final String[] PLAYER_KEYS = {"player_game_displayname", "player_team_name", "player_team_color"};
+    private static final int MAX_CACHED_REQUESTS = 1024;
+
     private final MissileWars plugin;
     private final String noInformation = "&7?";
+    private final Map<String, Request> requests = new ConcurrentHashMap<>();
 
     public MissileWarsPlaceholder(MissileWars plugin) {
         this.plugin = plugin;
@@ -63,159 +76,131 @@ public class MissileWarsPlaceholder extends PlaceholderExpansion {
         return true;
     }
 
+    /**
+     * The params are parsed once into the placeholder key and the target (game name, arena 
+     * name or 'this'). The values are looked up in the placeholder snapshots of the games.
+     */
     @Override
     public String onRequest(OfflinePlayer offlinePlayer, String params) {
+        Request request = parse(params);
+        if (request == Request.UNKNOWN) return null;
 
-        if (params.endsWith("_this") || params.startsWith("player_")) {
+        String target = request.target;
+        Game playerGame = null;
+        if (request.isPlayerRequest()) {
             // if (!offlinePlayer.isOnline()) return "§c§oPlayer is not online!";
-            if (!offlinePlayer.isOnline()) return noInformation;
+            if ((offlinePlayer == null) || !offlinePlayer.isOnline()) return noInformation;
 
-            Player player = offlinePlayer.getPlayer();
-            Game playerGame = GameManager.getInstance().getGame(player.getLocation());
+            // The game membership is thread-safe, so requests of async threads are possible.
+            playerGame = PlayerRegistry.getInstance().getGame(offlinePlayer.getUniqueId());
+            if ((playerGame == null) && Bukkit.isPrimaryThread()) {
+                Player player = offlinePlayer.getPlayer();
+                if (player != null) playerGame = GameManager.getInstance().getGame(player.getLocation());
+            }
 
             if (playerGame == null) {
 
                 // %missilewars_game_gamestate_<game name or 'this'>%
-                if (params.startsWith("game_gamestate_")) {
+                if (request.key.equals("game_gamestate")) {
                     return GameState.ERROR.getGameStateMsg();
                 }
 
                 // if (params.startsWith("game_")) return "§c§oThis is not a game area!";
-                if (params.startsWith("game_")) return noInformation;
                 // if (params.startsWith("arena_")) return "§c§oThis is not a game arena!";
-                if (params.startsWith("arena_")) return noInformation;
                 // if (params.startsWith("player_")) return "§c§oPlayer is not in a game!";
-                if (params.startsWith("player_")) return noInformation;
+                return noInformation;
             }
-            
-            if (playerGame.getArenaConfig() == null) {
+
+            if (request.key.startsWith("arena_")) {
                 // if (params.startsWith("arena_")) return "§c§oThis is not a game arena!";
-                if (params.startsWith("arena_")) return noInformation;
+                if (playerGame.getArenaConfig() == null) return noInformation;
+                target = playerGame.getArenaConfig().getName();
+            } else if (request.key.startsWith("game_")) {
+                target = playerGame.getGameConfig().getName();
             }
+        }
 
-            if (params.startsWith("game_")) params = params.replace("this", playerGame.getGameConfig().getName());
-            if (params.startsWith("arena_")) params = params.replace("this", playerGame.getArenaConfig().getName());
-            
+        if (request.key.startsWith("game_")) {
+            PlaceholderSnapshot snapshot = PlaceholderSnapshot.getGame(target);
+            if (snapshot == null) return null;
+            return getValue(snapshot, request.key);
         }
-        
-        for (Game game : GameManager.getInstance().getGames().values()) {
-            GameConfig gameConfig = game.getGameConfig();
-            
-            // %missilewars_game_gamestate_<game name or 'this'>%
-            if (params.equalsIgnoreCase("game_gamestate_" + gameConfig.getName())) {
-                return game.getState().getGameStateMsg();
-            }
-            
-            // %missilewars_game_mapvote_state_<game name or 'this'>%
-            if (params.equalsIgnoreCase("game_mapvote_state_" + gameConfig.getName())) {
-                return game.getMapVoting().getState().toString();
-            }
 
-            // %missilewars_game_displayname_<game name or 'this'>%
-            if (params.equalsIgnoreCase("game_displayname_" + gameConfig.getName())) {
-                return gameConfig.getDisplayName();
-            }
-            
-            // %missilewars_game_team1_name_<game name or 'this'>%
-            if (params.equalsIgnoreCase("game_team1_name_" + gameConfig.getName())) {
-                return gameConfig.getTeam1Config().getName();
-            }
-            
-            // %missilewars_game_team1_color_<game name or 'this'>%
-            if (params.equalsIgnoreCase("game_team1_color_" + gameConfig.getName())) {
-                return gameConfig.getTeam1Config().getColor();
-            }
-            
-            // %missilewars_game_team2_name_<game name or 'this'>%
-            if (params.equalsIgnoreCase("game_team2_name_" + gameConfig.getName())) {
-                return gameConfig.getTeam2Config().getName();
-            }
-            
-            // %missilewars_game_team2_color_<game name or 'this'>%
-            if (params.equalsIgnoreCase("game_team2_color_" + gameConfig.getName())) {
-                return gameConfig.getTeam2Config().getColor();
-            }
-            
-            // %missilewars_game_mapchooseprocedure_<game name or 'this'>%
-            if (params.equalsIgnoreCase("game_mapchooseprocedure_" + gameConfig.getName())) {
-                return gameConfig.getMapChooseProcedure().toString();
-            }
-            
-            // %missilewars_game_gameduration_<game name or 'this'>%
-            if (params.equalsIgnoreCase("game_gameduration_" + gameConfig.getName())) {
-                return Integer.toString(game.getGameDuration());
-            }
-            
-            // %missilewars_game_arenasize_X_<game name or 'this'>%
-            if (params.equalsIgnoreCase("game_arenasize_X_" + gameConfig.getName())) {
-                if (game.getGameArea() != null) {
-                    return Integer.toString(game.getGameArea().getXSize());
-                } else {
-                    return noInformation;
-                }
-            }
-            
-            // %missilewars_game_arenasize_Y_<game name or 'this'>%
-            if (params.equalsIgnoreCase("game_arenasize_Y_" + gameConfig.getName())) {
-                if (game.getGameArea() != null) {
-                    return Integer.toString(game.getGameArea().getYSize());
-                } else {
-                    return noInformation;
-                }
-            }
-            
-            // %missilewars_game_arenasize_Z_<game name or 'this'>%
-            if (params.equalsIgnoreCase("game_arenasize_Z_" + gameConfig.getName())) {
-                if (game.getGameArea() != null) {
-                    return Integer.toString(game.getGameArea().getZSize());
-                } else {
-                    return noInformation;
-                }
-            }
-            
-            for (ArenaConfig arenaConfig : gameConfig.getArenas()) {
+        if (request.key.startsWith("arena_")) {
+            PlaceholderSnapshot snapshot = PlaceholderSnapshot.getArena(target);
+            if (snapshot == null) return null;
+            return getValue(snapshot, request.key);
+        }
 
-                // %missilewars_arena_displayname_<arena name or 'this'>%
-                if (params.equalsIgnoreCase("arena_displayname_" + arenaConfig.getName())) {
-                    return arenaConfig.getDisplayName();
-                }
+        MWPlayer mwPlayer = PlayerRegistry.getInstance().getPlayer(offlinePlayer.getUniqueId());
+        if ((mwPlayer == null) || (mwPlayer.getGame() == null)) return null;
 
-                // %missilewars_arena_missileamount_<arena name or 'this'>%
-                if (params.equalsIgnoreCase("arena_missileamount_" + arenaConfig.getName())) {
-                    return Integer.toString(arenaConfig.getMissileConfig().getSchematics().size());
-                }
-                
-                // %missilewars_arena_gameduration_<arena name or 'this'>%
-                if (params.equalsIgnoreCase("arena_gameduration_" + arenaConfig.getName())) {
-                    return Integer.toString(arenaConfig.getGameDuration());
-                }
-                
-            }
-            
-            if (game.getPlayers().get(offlinePlayer.getUniqueId()) != null) {
-                MWPlayer mwPlayer = game.getPlayers().get(offlinePlayer.getUniqueId());
-                
-                // %missilewars_player_game_displayname%
-                if (params.equalsIgnoreCase("player_game_displayname")) {
-                    return mwPlayer.getGame().getGameConfig().getDisplayName();
-                }
-                
-                // %missilewars_player_team_name%
-                if (params.equalsIgnoreCase("player_team_name")) {
-                    return mwPlayer.getTeam().getName();
-                }
-                
-                // %missilewars_player_team_color%
-                if (params.equalsIgnoreCase("player_team_color")) {
-                    return mwPlayer.getTeam().getColor();
-                }
-                
+        switch (request.key) {
+            // %missilewars_player_game_displayname%
+            case "player_game_displayname":
+                return mwPlayer.getGame().getGameConfig().getDisplayName();
+
+            // %missilewars_player_team_name%
+            case "player_team_name":
+                return (mwPlayer.getTeam() == null) ? noInformation : mwPlayer.getTeam().getName();
+
+            // %missilewars_player_team_color%
+            case "player_team_color":
+                return (mwPlayer.getTeam() == null) ? noInformation : mwPlayer.getTeam().getColor();
+
+            default:
+                // Placeholder is unknown by the expansion
+                return null;
+        }
+    }
+
+    private String getValue(PlaceholderSnapshot snapshot, String key) {
+        String value = snapshot.get(key);
+        return (value == null) ? noInformation : value;
+    }
+
+    /**
+     * This method splits the params into the placeholder key and the target. The parsed 
+     * requests are cached, as the same params are requested again and again.
+     *
+     * @param params (String) the placeholder params
+     * @return (Request) the parsed request or Request.UNKNOWN
+     */
+    private Request parse(String params) {
+        Request request = requests.get(params);
+        if (request != null) return request;
+
+        request = Request.UNKNOWN;
+        String lowerParams = params.toLowerCase(Locale.ROOT);
+        for (String key : PLAYER_KEYS) {
+            if (lowerParams.equals(key)) request = new Request(key, null);
+        }
+        for (String key : TARGET_KEYS) {
+            if (lowerParams.startsWith(key + "_") && (lowerParams.length() > key.length() + 1)) {
+                request = new Request(key, params.substring(key.length() + 1));
             }
-            
         }
-        
-        // Placeholder is unknown by the expansion
-        return null;
+
+        // Unknown params are not limited, so the cache is bounded.
+        if (requests.size() < MAX_CACHED_REQUESTS) requests.put(params, request);
+        return request;
+    }
+
+    private static class Request {
+
+        private static final Request UNKNOWN = new Request(null, null);
+
+        private final String key;
+        private final String target;
+
+        private Request(String key, String target) {
+            this.key = key;
+            this.target = target;
+        }
+
+        private boolean isPlayerRequest() {
+            return (target == null) || target.equalsIgnoreCase("this");
+        }
     }
 
 }
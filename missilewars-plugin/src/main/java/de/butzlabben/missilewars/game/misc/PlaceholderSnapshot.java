@@ -0,0 +1,117 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.misc;
+
+import de.butzlabben.missilewars.configuration.arena.ArenaConfig;
+import de.butzlabben.missilewars.configuration.game.GameConfig;
+import de.butzlabben.missilewars.game.Game;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class holds the placeholder values of a game. The values are computed on the main 
+ * thread when the game changes, so that the placeholder requests (also from async threads) 
+ * only have to look them up.
+ */
+public class PlaceholderSnapshot {
+
+    private static final Map<String, PlaceholderSnapshot> games = new ConcurrentHashMap<>();
+    private static final Map<String, PlaceholderSnapshot> arenas = new ConcurrentHashMap<>();
+
+    private final Map<String, String> values;
+
+    private PlaceholderSnapshot(Map<String, String> values) {
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * This method computes the placeholder values of the game and its arenas again. It 
+     * is called when the state, the arena or the remaining duration of the game changes.
+     *
+     * @param game (Game) the changed game
+     */
+    public static void update(Game game) {
+        GameConfig gameConfig = game.getGameConfig();
+        Map<String, String> values = new HashMap<>();
+
+        values.put("game_gamestate", game.getState().getGameStateMsg());
+        values.put("game_mapvote_state", game.getMapVoting().getState().toString());
+        values.put("game_displayname", gameConfig.getDisplayName());
+        values.put("game_team1_name", gameConfig.getTeam1Config().getName());
+        values.put("game_team1_color", gameConfig.getTeam1Config().getColor());
+        values.put("game_team2_name", gameConfig.getTeam2Config().getName());
+        values.put("game_team2_color", gameConfig.getTeam2Config().getColor());
+        values.put("game_mapchooseprocedure", gameConfig.getMapChooseProcedure().toString());
+        values.put("game_gameduration", Integer.toString(game.getGameDuration()));
+        if (game.getGameArea() != null) {
+            values.put("game_arenasize_x", Integer.toString(game.getGameArea().getXSize()));
+            values.put("game_arenasize_y", Integer.toString(game.getGameArea().getYSize()));
+            values.put("game_arenasize_z", Integer.toString(game.getGameArea().getZSize()));
+        }
+        games.put(getKey(gameConfig.getName()), new PlaceholderSnapshot(values));
+
+        for (ArenaConfig arenaConfig : gameConfig.getArenas()) {
+            Map<String, String> arenaValues = new HashMap<>();
+            arenaValues.put("arena_displayname", arenaConfig.getDisplayName());
+            arenaValues.put("arena_missileamount", Integer.toString(arenaConfig.getMissileConfig().getSchematics().size()));
+            arenaValues.put("arena_gameduration", Integer.toString(arenaConfig.getGameDuration()));
+            arenas.put(getKey(arenaConfig.getName()), new PlaceholderSnapshot(arenaValues));
+        }
+    }
+
+    /**
+     * This method removes the snapshots of all games, for example before the games are loaded again.
+     */
+    public static void clear() {
+        games.clear();
+        arenas.clear();
+    }
+
+    /**
+     * @param name (String) the game name (case-insensitive)
+     * @return (PlaceholderSnapshot) the snapshot of the game or null, if the game is unknown
+     */
+    public static PlaceholderSnapshot getGame(String name) {
+        return games.get(getKey(name));
+    }
+
+    /**
+     * @param name (String) the arena name (case-insensitive)
+     * @return (PlaceholderSnapshot) the snapshot of the arena or null, if the arena is unknown
+     */
+    public static PlaceholderSnapshot getArena(String name) {
+        return arenas.get(getKey(name));
+    }
+
+    /**
+     * @param key (String) the placeholder key without the target, e.g. 'game_gamestate'
+     * @return (String) the value or null, if there is no information
+     */
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    private static String getKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -135,7 +135,7 @@ public class RespawnGoldBlock implements Listener {
     private void sendFallProtectionMessage() {
         double seconds = (double) duration / 20;
         if ((seconds == Math.floor(seconds)) && !Double.isInfinite(seconds)) {
-            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.FALL_PROTECTION_START).replace("%seconds%", Integer.toString((int) seconds)));
+            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.FALL_PROTECTION_START, "seconds", (int) seconds));
         }
     }
 
@@ -22,21 +22,25 @@ import de.butzlabben.missilewars.configuration.Config;
 import de.butzlabben.missilewars.game.Game;
 import de.butzlabben.missilewars.game.Team;
 import de.butzlabben.missilewars.player.MWPlayer;
-import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
 import org.bukkit.scoreboard.DisplaySlot;
 import org.bukkit.scoreboard.Objective;
 import org.bukkit.scoreboard.Scoreboard;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 // Scoreboard Management: https://www.spigotmc.org/wiki/making-scoreboard-with-teams-no-flicker
 
-@RequiredArgsConstructor
+/**
+ * This class renders the sidebar scoreboard of a game. The objective and the line teams
+ * are only created once. On an update, only the lines whose placeholders could have
+ * changed are evaluated again, and only the changed lines are sent to the players.
+ */
 public class ScoreboardManager {
 
     private final Game game;
@@ -53,30 +57,53 @@ public class ScoreboardManager {
     private static final int MEMBER_LIST_MAX_SIZE = Config.getScoreboardMembersMax();
     private static final List<String> SCOREBOARD_ENTRIES = Config.getScoreboardEntries();
 
-    private boolean isTeam1ListUsed = false;
-    private boolean isTeam2ListUsed = false;
+    // the inputs, that can change the value of a scoreboard entry
+    private static final int DIRTY_TIME = 1;
+    private static final int DIRTY_INFO = 2;
+    private static final int DIRTY_ALL = DIRTY_TIME | DIRTY_INFO;
 
-    @Getter private Scoreboard board;
+    private Scoreboard board;
     private Objective obj;
-    private Map<Integer, org.bukkit.scoreboard.Team> teams = new HashMap<>();
+    private final Map<Integer, org.bukkit.scoreboard.Team> teams = new HashMap<>();
     private static final String[] COLOR_CODES = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "a", "b", "c", "d", "e", "f"};
 
+    private final int[] entryInputs = new int[SCOREBOARD_ENTRIES.size()];
+    private final String[] entryValues = new String[SCOREBOARD_ENTRIES.size()];
+    private final Map<Integer, List<String>> memberLines = new HashMap<>();
+    private final String[] renderedLines = new String[COLOR_CODES.length];
+    private int renderedLineCount = 0;
+    private int dirty = DIRTY_ALL;
+    private int lastTime = -1;
+
+    public ScoreboardManager(Game game) {
+        this.game = game;
+
+        for (int i = 0; i < SCOREBOARD_ENTRIES.size(); i++) {
+            String cleanLine = SCOREBOARD_ENTRIES.get(i);
+            if (isMemberList(cleanLine)) {
+                entryInputs[i] = DIRTY_INFO;
+            } else if (cleanLine.contains("%time%")) {
+                entryInputs[i] = DIRTY_ALL;
+            } else {
+                entryInputs[i] = DIRTY_INFO;
+            }
+        }
+    }
+
+    /**
+     * This method returns the scoreboard of the game. It is created on the first call.
+     *
+     * @return the scoreboard
+     */
+    public Scoreboard getBoard() {
+        if (board == null) createScoreboard();
+        return board;
+    }
+
     /**
      * This method registers the scoreboard.
      */
     private void createScoreboard() {
-
-        team1 = game.getTeamManager().getTeam1();
-        team2 = game.getTeamManager().getTeam2();
-
-        if (game.getArenaConfig() == null) {
-            // using of placeholders until the arena is not set
-            setArenaDisplayName("?");
-        } else {
-            setArenaDisplayName(game.getArenaConfig().getDisplayName());
-        }
-
-        // register Scoreboard
         if (board == null) {
             board = Bukkit.getScoreboardManager().getNewScoreboard();
         }
@@ -84,124 +111,162 @@ public class ScoreboardManager {
         obj.setDisplaySlot(DisplaySlot.SIDEBAR);
         obj.setDisplayName(SCOREBOARD_TITLE);
 
-        // check if the team lists are used
-        for (String cleanLine : SCOREBOARD_ENTRIES) {
-            if (cleanLine.contains("%team1_members%")) {
-                isTeam1ListUsed = true;
-            } else if (cleanLine.contains("%team2_members%")) {
-                isTeam2ListUsed = true;
-            }
-        }
-
-        updateScoreboard();
+        renderedLineCount = 0;
+        dirty = DIRTY_ALL;
     }
 
     /**
-     * This method creates a team for the scoreboard and adds it to the teams ArrayList.
+     * This method returns the team of a scoreboard line. The team and its
+     * entry are created on the first call.
      *
      * @param line the Scoreboard line number
      */
-    private void addScoreboardTeam(int line) {
-        org.bukkit.scoreboard.Team team;
+    private org.bukkit.scoreboard.Team getScoreboardTeam(int line) {
+        org.bukkit.scoreboard.Team team = teams.get(line);
 
-        if (teams.size() < line) {
-            team = board.registerNewTeam(arenaDisplayName + "-" + line);
+        if (team == null) {
+            team = board.registerNewTeam("line-" + line);
             team.addEntry("§" + COLOR_CODES[line - 1]);
-            obj.getScore("§" + COLOR_CODES[line - 1]).setScore(line);
             teams.put(line, team);
         }
+        return team;
     }
 
+    /**
+     * This method updates the scoreboard. Without other changes, only the lines
+     * with the game time are evaluated again, when the time has changed.
+     */
     public void updateScoreboard() {
+        if (obj == null) createScoreboard();
 
-        // the number of lines required for the complete Scoreboard
-        int scoreboardLine = SCOREBOARD_ENTRIES.size() + getLineOffset();
-
-        // add new teams
-        for (int i = 1; i <= scoreboardLine; i++) {
-            addScoreboardTeam(i);
+        int time = game.getGameDuration();
+        if (time != lastTime) {
+            lastTime = time;
+            dirty |= DIRTY_TIME;
         }
 
-        String replacedLine;
+        if (dirty == 0) return;
 
-        for (String cleanLine : SCOREBOARD_ENTRIES) {
-            if (scoreboardLine <= 0) {
-                break;
-            }
+        team1 = game.getTeamManager().getTeam1();
+        team2 = game.getTeamManager().getTeam2();
+
+        if (game.getArenaConfig() == null) {
+            // using of placeholders until the arena is not set
+            setArenaDisplayName("?");
+        } else {
+            setArenaDisplayName(game.getArenaConfig().getDisplayName());
+        }
 
-            if (cleanLine.contains("%team1_members%") || cleanLine.contains("%team2_members%")) {
+        List<String> lines = new ArrayList<>();
 
-                // team member list placeholder management:
+        for (int i = 0; i < SCOREBOARD_ENTRIES.size(); i++) {
+            String cleanLine = SCOREBOARD_ENTRIES.get(i);
 
-                Team placeholderTeam;
+            if (isMemberList(cleanLine)) {
 
-                // set the current placeholder team
-                if (cleanLine.contains("%team1_members%")) {
-                    placeholderTeam = team1;
-                } else {
-                    placeholderTeam = team2;
-                }
+                // team member list placeholder management:
 
-                // check if there is no one in the team at the moment
-                if (placeholderTeam.getMembers().isEmpty()) {
-                    continue;
+                if (!memberLines.containsKey(i) || ((entryInputs[i] & dirty) != 0)) {
+                    memberLines.put(i, getMemberLines(cleanLine));
                 }
+                lines.addAll(memberLines.get(i));
 
-                int playerCounter = 0;
+            } else {
 
-                // list all team members
-                for (MWPlayer mwPlayer : placeholderTeam.getMembers()) {
+                // normal placeholders management:
 
-                    // limit check
-                    if (playerCounter >= MEMBER_LIST_MAX_SIZE) {
-                        break;
-                    }
+                if ((entryValues[i] == null) || ((entryInputs[i] & dirty) != 0)) {
+                    entryValues[i] = replaceScoreboardPlaceholders(cleanLine);
+                }
+                lines.add(entryValues[i]);
+            }
+        }
 
-                    String playerName = mwPlayer.getPlayer().getName();
-                    String teamColor = placeholderTeam.getColor();
+        dirty = 0;
+        render(lines);
+    }
 
-                    replacedLine = MEMBER_LIST_STYLE.replace("%playername%", playerName)
-                            .replace("%team_color%", teamColor);
-                    teams.get(scoreboardLine).setPrefix(replacedLine);
+    /**
+     * This method marks all lines as changed and updates the scoreboard. It
+     * is used, when the players, the teams or the arena have changed.
+     */
+    public void refreshScoreboard() {
+        dirty = DIRTY_ALL;
+        updateScoreboard();
+    }
 
-                    playerCounter++;
-                    scoreboardLine--;
-                }
+    /**
+     * This method sends the lines to the scoreboard. Only the lines, that differ from
+     * the last rendered value, are updated.
+     *
+     * @param lines (List) the lines from top to bottom
+     */
+    private void render(List<String> lines) {
+        int lineCount = Math.min(lines.size(), COLOR_CODES.length);
 
-            } else {
+        for (int i = 0; i < lineCount; i++) {
+            int line = lineCount - i;
+            String value = lines.get(i);
 
-                // normal placeholders management:
-
-                replacedLine = replaceScoreboardPlaceholders(cleanLine);
-                teams.get(scoreboardLine).setPrefix(replacedLine);
+            org.bukkit.scoreboard.Team team = getScoreboardTeam(line);
+            if (!value.equals(renderedLines[line - 1])) {
+                team.setPrefix(value);
+                renderedLines[line - 1] = value;
+            }
 
-                scoreboardLine--;
+            if (line > renderedLineCount) {
+                obj.getScore("§" + COLOR_CODES[line - 1]).setScore(line);
             }
         }
+
+        // remove the lines, that are no longer needed
+        for (int line = lineCount + 1; line <= renderedLineCount; line++) {
+            board.resetScores("§" + COLOR_CODES[line - 1]);
+            renderedLines[line - 1] = null;
+        }
+
+        renderedLineCount = lineCount;
     }
 
     /**
-     * This method calculates the offset lines based of the amount of players
-     * and the using of the member-list placeholders for both teams.
+     * This method creates the lines of a team member list.
      *
-     * @return (int) the amount of offset lines
+     * @param cleanLine (String) the original config String
+     *
+     * @return the member lines
      */
-    private int getLineOffset() {
+    private List<String> getMemberLines(String cleanLine) {
+        List<String> lines = new ArrayList<>();
 
-        int team1ListSize = 0;
-        int team2ListSize = 0;
+        Team placeholderTeam;
 
-        if (isTeam1ListUsed) {
-            team1ListSize = Math.min(team1.getMembers().size(), MEMBER_LIST_MAX_SIZE);
-            team1ListSize--;
+        // set the current placeholder team
+        if (cleanLine.contains("%team1_members%")) {
+            placeholderTeam = team1;
+        } else {
+            placeholderTeam = team2;
         }
 
-        if (isTeam2ListUsed) {
-            team2ListSize = Math.min(team2.getMembers().size(), MEMBER_LIST_MAX_SIZE);
-            team2ListSize--;
+        // list all team members
+        for (MWPlayer mwPlayer : placeholderTeam.getMembers()) {
+
+            // limit check
+            if (lines.size() >= MEMBER_LIST_MAX_SIZE) {
+                break;
+            }
+
+            Player player = mwPlayer.getPlayer();
+            if (player == null) continue;
+
+            lines.add(MEMBER_LIST_STYLE.replace("%playername%", player.getName())
+                    .replace("%team_color%", placeholderTeam.getColor()));
         }
 
-        return team1ListSize + team2ListSize;
+        return lines;
+    }
+
+    private static boolean isMemberList(String cleanLine) {
+        return cleanLine.contains("%team1_members%") || cleanLine.contains("%team2_members%");
     }
 
     /**
@@ -219,14 +284,10 @@ public class ScoreboardManager {
             teams.clear();
         }
 
-    }
-
-    /**
-     * This method deletes the current scoreboard and creates a new one.
-     */
-    public void resetScoreboard() {
-        removeScoreboard();
-        createScoreboard();
+        for (int i = 0; i < renderedLines.length; i++) {
+            renderedLines[i] = null;
+        }
+        renderedLineCount = 0;
     }
 
     /**
@@ -250,7 +311,7 @@ public class ScoreboardManager {
         text = text.replace("%game_name%", game.getGameConfig().getDisplayName());
         text = text.replace("%arena_name%", arenaDisplayName);
 
-        text = text.replace("%time%", Integer.toString(game.getGameDuration()));
+        text = text.replace("%time%", Integer.toString(lastTime));
 
         return text;
     }
@@ -0,0 +1,177 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.game.portal;
+
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.configuration.Config;
+import de.butzlabben.missilewars.configuration.arena.ArenaConfig;
+import de.butzlabben.missilewars.game.TemplateWorldCache;
+import de.butzlabben.missilewars.util.geometry.BlockPositions;
+import de.butzlabben.missilewars.util.geometry.GameArea;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * This class stores the portal positions of an arena in a binary file next to the
+ * arena config, so that the arena only has to be scanned again if the template world
+ * or the arena area has changed. The file is keyed by the template world and the
+ * arena area, so arenas with the same template and area share one index.
+ * <p>
+ * File format: magic number, format version, fingerprint, amount of positions and
+ * the packed block positions (see {@link BlockPositions}).
+ */
+public class PortalIndex {
+
+    private static final int MAGIC = 0x4D57504F;
+    private static final int VERSION = 1;
+
+    /**
+     * This method returns the index file for the template world and the area of the arena.
+     *
+     * @param arenaConfig (ArenaConfig) the arena
+     * @param gameArea (GameArea) the game area of the arena
+     *
+     * @return the index file
+     */
+    public static File getFile(ArenaConfig arenaConfig, GameArea gameArea) {
+        String area = gameArea.getMinX() + "_" + gameArea.getMinY() + "_" + gameArea.getMinZ() + "_"
+                + gameArea.getMaxX() + "_" + gameArea.getMaxY() + "_" + gameArea.getMaxZ();
+        return new File(getFolder(arenaConfig), getFilePrefix(arenaConfig) + area + ".portals");
+    }
+
+    private static File getFolder(ArenaConfig arenaConfig) {
+        return (arenaConfig.getFile() != null) ? arenaConfig.getFile().getParentFile() : new File(Config.getArenasFolder());
+    }
+
+    private static String getFilePrefix(ArenaConfig arenaConfig) {
+        return arenaConfig.getTemplateWorld() + "@";
+    }
+
+    /**
+     * This method creates the fingerprint for the index of the arena. It depends
+     * on the portal relevant parts of the arena config (the name of the template
+     * world and the arena area) and on the files of the template world. The files
+     * are only checked again after a reload (see {@link TemplateWorldCache#clear()}).
+     *
+     * @param arenaConfig (ArenaConfig) the arena
+     * @param gameArea (GameArea) the game area of the arena
+     *
+     * @return the fingerprint
+     */
+    public static long getFingerprint(ArenaConfig arenaConfig, GameArea gameArea) {
+        long fingerprint = TemplateWorldCache.getInstance().getFingerprint(arenaConfig.getTemplateWorld());
+        fingerprint = 31 * fingerprint + arenaConfig.getTemplateWorld().hashCode();
+        fingerprint = 31 * fingerprint + gameArea.getMinX();
+        fingerprint = 31 * fingerprint + gameArea.getMinY();
+        fingerprint = 31 * fingerprint + gameArea.getMinZ();
+        fingerprint = 31 * fingerprint + gameArea.getMaxX();
+        fingerprint = 31 * fingerprint + gameArea.getMaxY();
+        fingerprint = 31 * fingerprint + gameArea.getMaxZ();
+        return fingerprint;
+    }
+
+    /**
+     * This method loads the portal positions from the index file.
+     *
+     * @param arenaConfig (ArenaConfig) the arena
+     * @param gameArea (GameArea) the game area of the arena
+     * @param fingerprint (long) the current fingerprint of the arena
+     *
+     * @return the portal positions or 'null', if there is no up-to-date index
+     */
+    public static BlockPositions load(ArenaConfig arenaConfig, GameArea gameArea, long fingerprint) {
+        File file = getFile(arenaConfig, gameArea);
+        if (!file.isFile()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) return null;
+            if (in.readInt() != VERSION) return null;
+            if (in.readLong() != fingerprint) return null;
+
+            int size = in.readInt();
+            BlockPositions positions = new BlockPositions(size);
+            for (int i = 0; i < size; i++) {
+                positions.addPacked(in.readLong());
+            }
+            return positions;
+
+        } catch (IOException e) {
+            Logger.WARN.log("Could not read the portal index of the arena \"" + arenaConfig.getName() + "\". The arena is scanned again.");
+            return null;
+        }
+    }
+
+    /**
+     * This method saves the portal positions in the index file. The positions are
+     * written to a temporary file first, which then replaces the index file, so that
+     * a crash during the write can't leave a broken index behind.
+     *
+     * @param arenaConfig (ArenaConfig) the arena
+     * @param gameArea (GameArea) the game area of the arena
+     * @param fingerprint (long) the current fingerprint of the arena
+     * @param positions (BlockPositions) the portal positions
+     */
+    public static void save(ArenaConfig arenaConfig, GameArea gameArea, long fingerprint, BlockPositions positions) {
+        File file = getFile(arenaConfig, gameArea);
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+
+        try {
+            try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(fingerprint);
+                out.writeInt(positions.size());
+                for (int i = 0; i < positions.size(); i++) {
+                    out.writeLong(positions.get(i));
+                }
+                out.flush();
+                fileOut.getFD().sync();
+            }
+
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException e) {
+            tempFile.delete();
+            Logger.ERROR.log("Could not save the portal index of the arena \"" + arenaConfig.getName() + "\".");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * This method deletes the index files of the template world of the arena, so 
+     * that the arena is scanned again the next time. The index files of the other 
+     * areas are deleted as well, as the old area is usually no longer used.
+     *
+     * @param arenaConfig (ArenaConfig) the arena
+     */
+    public static void invalidate(ArenaConfig arenaConfig) {
+        String prefix = getFilePrefix(arenaConfig);
+        File[] files = getFolder(arenaConfig).listFiles((folder, name) -> name.startsWith(prefix) && name.endsWith(".portals"));
+        if (files == null) return;
+
+        for (File file : files) {
+            if (!file.delete()) {
+                Logger.WARN.log("Could not delete the portal index " + file.getName() + " of the arena \"" + arenaConfig.getName() + "\".");
+            }
+        }
+    }
+}
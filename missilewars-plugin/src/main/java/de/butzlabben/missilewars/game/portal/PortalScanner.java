@@ -0,0 +1,124 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.game.portal;
+
+import de.butzlabben.missilewars.MissileWars;
+import de.butzlabben.missilewars.util.geometry.BlockPositions;
+import de.butzlabben.missilewars.util.geometry.GameArea;
+import org.bukkit.Axis;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Orientable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This class searches the portal blocks of a game area. Instead of requesting every
+ * single block of the area, it takes a snapshot of every chunk on the main thread and
+ * walks through the snapshots on an async thread. Chunks without portal blocks in their
+ * palettes and empty chunk sections are skipped completely.
+ */
+public class PortalScanner {
+
+    private static final BlockData[] PORTAL_STATES = createPortalStates();
+
+    private final GameArea area;
+
+    public PortalScanner(GameArea area) {
+        this.area = area;
+    }
+
+    /**
+     * This method starts the scan. The chunk snapshots are taken directly,
+     * the result is passed to the callback on the main thread.
+     *
+     * @param callback (Consumer) receives the found portal positions
+     */
+    public void scan(Consumer<BlockPositions> callback) {
+        World world = area.getWorld();
+        List<ChunkSnapshot> snapshots = new ArrayList<>();
+
+        for (int chunkX = area.getMinX() >> 4; chunkX <= area.getMaxX() >> 4; chunkX++) {
+            for (int chunkZ = area.getMinZ() >> 4; chunkZ <= area.getMaxZ() >> 4; chunkZ++) {
+                snapshots.add(world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false));
+            }
+        }
+
+        int minWorldHeight = world.getMinHeight();
+
+        Bukkit.getScheduler().runTaskAsynchronously(MissileWars.getInstance(), () -> {
+            BlockPositions positions = scanSnapshots(snapshots, minWorldHeight);
+            Bukkit.getScheduler().runTask(MissileWars.getInstance(), () -> callback.accept(positions));
+        });
+    }
+
+    private BlockPositions scanSnapshots(List<ChunkSnapshot> snapshots, int minWorldHeight) {
+        BlockPositions positions = new BlockPositions();
+
+        int minY = Math.max(area.getMinY(), minWorldHeight);
+        int maxY = area.getMaxY();
+
+        for (ChunkSnapshot snapshot : snapshots) {
+            if (!containsPortal(snapshot)) continue;
+
+            int chunkMinX = snapshot.getX() << 4;
+            int chunkMinZ = snapshot.getZ() << 4;
+
+            int minX = Math.max(area.getMinX(), chunkMinX) - chunkMinX;
+            int maxX = Math.min(area.getMaxX(), chunkMinX + 15) - chunkMinX;
+            int minZ = Math.max(area.getMinZ(), chunkMinZ) - chunkMinZ;
+            int maxZ = Math.min(area.getMaxZ(), chunkMinZ + 15) - chunkMinZ;
+
+            for (int sectionY = minY; sectionY <= maxY; sectionY = (sectionY & ~15) + 16) {
+                int sectionMaxY = Math.min(maxY, (sectionY & ~15) + 15);
+
+                if (snapshot.isSectionEmpty((sectionY - minWorldHeight) >> 4)) continue;
+
+                for (int y = sectionY; y <= sectionMaxY; y++) {
+                    for (int x = minX; x <= maxX; x++) {
+                        for (int z = minZ; z <= maxZ; z++) {
+                            if (snapshot.getBlockType(x, y, z) != Material.NETHER_PORTAL) continue;
+                            positions.add(chunkMinX + x, y, chunkMinZ + z);
+                        }
+                    }
+                }
+            }
+        }
+
+        return positions;
+    }
+
+    private static boolean containsPortal(ChunkSnapshot snapshot) {
+        for (BlockData portalState : PORTAL_STATES) {
+            if (snapshot.contains(portalState)) return true;
+        }
+        return false;
+    }
+
+    private static BlockData[] createPortalStates() {
+        BlockData portalX = Bukkit.createBlockData(Material.NETHER_PORTAL, data -> ((Orientable) data).setAxis(Axis.X));
+        BlockData portalZ = Bukkit.createBlockData(Material.NETHER_PORTAL, data -> ((Orientable) data).setAxis(Axis.Z));
+        return new BlockData[] {portalX, portalZ};
+    }
+}
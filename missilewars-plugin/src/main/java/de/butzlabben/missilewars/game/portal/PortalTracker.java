@@ -0,0 +1,166 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.game.portal;
+
+import de.butzlabben.missilewars.util.geometry.BlockPositions;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class keeps the portal positions of a game indexed by chunk, so that block
+ * changes (explosions, physics updates) only have to verify the portal blocks of
+ * the affected chunks instead of all portal blocks of the arena.
+ */
+public class PortalTracker {
+
+    private final World world;
+    private final BlockPositions positions;
+    private final Set<Long> positionSet = new HashSet<>();
+    private final Map<Long, BlockPositions> positionsByChunk = new HashMap<>();
+
+    public PortalTracker(World world, BlockPositions positions) {
+        this.world = world;
+        this.positions = positions;
+
+        for (int i = 0; i < positions.size(); i++) {
+            long position = positions.get(i);
+            positionSet.add(position);
+
+            long chunkKey = getChunkKey(BlockPositions.unpackX(position) >> 4, BlockPositions.unpackZ(position) >> 4);
+            positionsByChunk.computeIfAbsent(chunkKey, key -> new BlockPositions(16)).addPacked(position);
+        }
+    }
+
+    public static long getChunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * This method checks if the chunk contains portal blocks.
+     *
+     * @param chunkX (int) the chunk X coordinate
+     * @param chunkZ (int) the chunk Z coordinate
+     *
+     * @return true, if the statement is correct
+     */
+    public boolean isPortalChunk(int chunkX, int chunkZ) {
+        return positionsByChunk.containsKey(getChunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * This method checks if the block is one of the portal blocks.
+     *
+     * @param block (Block) the block to be checked
+     *
+     * @return true, if the statement is correct
+     */
+    public boolean isPortalBlock(Block block) {
+        if (!isPortalChunk(block.getX() >> 4, block.getZ() >> 4)) return false;
+        return positionSet.contains(BlockPositions.pack(block.getX(), block.getY(), block.getZ()));
+    }
+
+    /**
+     * This method searches the exploding blocks for a portal block.
+     *
+     * @param blocks (List) the blocks of the explosion
+     *
+     * @return the location of the first exploded portal block or 'null'
+     */
+    public Location findExplodedPortal(List<Block> blocks) {
+        for (Block block : blocks) {
+            if (isPortalBlock(block)) return block.getLocation();
+        }
+        return null;
+    }
+
+    /**
+     * This method verifies all portal blocks.
+     *
+     * @return the location of the first broken portal block or 'null'
+     */
+    public Location findBrokenPortal() {
+        return findBrokenPortal(positions);
+    }
+
+    /**
+     * This method verifies the portal blocks of a chunk.
+     *
+     * @param chunkKey (long) the chunk key (see {@link #getChunkKey(int, int)})
+     *
+     * @return the location of the first broken portal block or 'null'
+     */
+    public Location findBrokenPortal(long chunkKey) {
+        BlockPositions chunkPositions = positionsByChunk.get(chunkKey);
+        if (chunkPositions == null) return null;
+
+        return findBrokenPortal(chunkPositions);
+    }
+
+    /**
+     * This method verifies the portal blocks within the block area. Only the 
+     * chunks of the area are looked up.
+     *
+     * @return the location of the first broken portal block or 'null'
+     */
+    public Location findBrokenPortal(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                BlockPositions chunkPositions = positionsByChunk.get(getChunkKey(chunkX, chunkZ));
+                if (chunkPositions == null) continue;
+
+                for (int i = 0; i < chunkPositions.size(); i++) {
+                    int x = chunkPositions.getX(i);
+                    int y = chunkPositions.getY(i);
+                    int z = chunkPositions.getZ(i);
+                    if ((x < minX) || (x > maxX) || (y < minY) || (y > maxY) || (z < minZ) || (z > maxZ)) continue;
+
+                    if (isBroken(x, y, z)) return chunkPositions.toLocation(world, i);
+                }
+            }
+        }
+        return null;
+    }
+
+    private Location findBrokenPortal(BlockPositions positionsToCheck) {
+        for (int i = 0; i < positionsToCheck.size(); i++) {
+            if (isBroken(positionsToCheck.getX(i), positionsToCheck.getY(i), positionsToCheck.getZ(i))) {
+                return positionsToCheck.toLocation(world, i);
+            }
+        }
+        return null;
+    }
+
+    private boolean isBroken(int x, int y, int z) {
+        // Unloaded chunks can not be changed, so they don't need to be loaded for the check.
+        if (!world.isChunkLoaded(x >> 4, z >> 4)) return false;
+        return world.getBlockAt(x, y, z).getType() != Material.NETHER_PORTAL;
+    }
+}
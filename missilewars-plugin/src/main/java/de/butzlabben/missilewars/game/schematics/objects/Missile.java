@@ -19,7 +19,6 @@
 package de.butzlabben.missilewars.game.schematics.objects;
 
 import de.butzlabben.missilewars.Logger;
-import de.butzlabben.missilewars.MissileWars;
 import de.butzlabben.missilewars.configuration.Config;
 import de.butzlabben.missilewars.game.Game;
 import de.butzlabben.missilewars.game.schematics.SchematicFacing;
@@ -93,7 +92,7 @@ public class Missile extends SchematicObject {
                 rotation = 90;
             }
             
-            MissileWars.getInstance().getSchematicPaster().pasteMissile(getSchematic(), pastePos, rotation, loc.getWorld(), hasTempBlock, 
+            game.getPasteScheduler().pasteMissile(getSchematic(), pastePos, rotation, loc.getWorld(), hasTempBlock, 
                     tempBlockMaterial, tempBlockDelay, tempBlockRadius);
             
         } catch (Exception e) {
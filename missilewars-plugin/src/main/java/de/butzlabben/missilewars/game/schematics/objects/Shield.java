@@ -1,8 +1,8 @@
 package de.butzlabben.missilewars.game.schematics.objects;
 
 import de.butzlabben.missilewars.Logger;
-import de.butzlabben.missilewars.MissileWars;
 import de.butzlabben.missilewars.configuration.Config;
+import de.butzlabben.missilewars.game.Game;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Snowball;
@@ -24,12 +24,12 @@ public class Shield extends SchematicObject {
         return new File(Config.getShieldsFolder());
     }
 
-    public void paste(Snowball ball) {
+    public void paste(Game game, Snowball ball) {
         try {
             Location loc = ball.getLocation();
             Vector pastePos = new Vector(loc.getX(), loc.getY(), loc.getZ());
             
-            MissileWars.getInstance().getSchematicPaster().pasteSchematic(getSchematic(), pastePos, 0, loc.getWorld());
+            game.getPasteScheduler().pasteSchematic(getSchematic(), pastePos, 0, loc.getWorld());
         } catch (Exception e) {
             Logger.ERROR.log("Could not load " + getDisplayName());
             e.printStackTrace();
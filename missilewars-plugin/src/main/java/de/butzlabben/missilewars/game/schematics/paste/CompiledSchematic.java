@@ -0,0 +1,218 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.game.schematics.paste;
+
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.structure.StructureRotation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds a schematic as a flat list of block deltas: the position of each
+ * non-air block relative to the paste origin and its block data. The blocks are kept
+ * in the order of the schematic (bottom up).
+ */
+public class CompiledSchematic {
+
+    private final int[] x;
+    private final int[] y;
+    private final int[] z;
+    private final BlockData[] data;
+    private final int[] bounds = new int[6];
+
+    private CompiledSchematic(int[] x, int[] y, int[] z, BlockData[] data) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.data = data;
+
+        if (data.length == 0) return;
+        bounds[0] = bounds[3] = x[0];
+        bounds[1] = bounds[4] = y[0];
+        bounds[2] = bounds[5] = z[0];
+        for (int i = 1; i < data.length; i++) {
+            bounds[0] = Math.min(bounds[0], x[i]);
+            bounds[1] = Math.min(bounds[1], y[i]);
+            bounds[2] = Math.min(bounds[2], z[i]);
+            bounds[3] = Math.max(bounds[3], x[i]);
+            bounds[4] = Math.max(bounds[4], y[i]);
+            bounds[5] = Math.max(bounds[5], z[i]);
+        }
+    }
+
+    public int size() {
+        return data.length;
+    }
+
+    /**
+     * @return the area of the blocks relative to the paste origin (min x, y, z, max x, y, z)
+     */
+    public int[] getBounds() {
+        return bounds.clone();
+    }
+
+    int getX(int index) {
+        return x[index];
+    }
+
+    int getY(int index) {
+        return y[index];
+    }
+
+    int getZ(int index) {
+        return z[index];
+    }
+
+    BlockData getBlockData(int index) {
+        return data[index];
+    }
+
+    /**
+     * This method creates a rotated copy of the schematic. The rotation is applied around
+     * the paste origin, in the same way as the WorldEdit 'rotateY' transformation.
+     *
+     * @param rotation (int) the rotation in degrees: 0, 90, 180 or 270
+     *
+     * @return the rotated schematic
+     */
+    public CompiledSchematic rotate(int rotation) {
+        rotation = Math.floorMod(rotation, 360);
+        if (rotation == 0) return this;
+
+        StructureRotation structureRotation;
+        if (rotation == 90) {
+            structureRotation = StructureRotation.COUNTERCLOCKWISE_90;
+        } else if (rotation == 180) {
+            structureRotation = StructureRotation.CLOCKWISE_180;
+        } else if (rotation == 270) {
+            structureRotation = StructureRotation.CLOCKWISE_90;
+        } else {
+            throw new IllegalArgumentException("Unsupported schematic rotation " + rotation);
+        }
+
+        Builder builder = new Builder();
+        for (int i = 0; i < data.length; i++) {
+            int rotatedX;
+            int rotatedZ;
+            if (rotation == 90) {
+                rotatedX = z[i];
+                rotatedZ = -x[i];
+            } else if (rotation == 180) {
+                rotatedX = -x[i];
+                rotatedZ = -z[i];
+            } else {
+                rotatedX = -z[i];
+                rotatedZ = x[i];
+            }
+
+            BlockData rotatedData = data[i].clone();
+            rotatedData.rotate(structureRotation);
+            builder.add(rotatedX, y[i], rotatedZ, rotatedData);
+        }
+        return builder.build();
+    }
+
+    /**
+     * This method sets the blocks of the schematic in the world, without applying
+     * physics. Each affected chunk is only looked up once per paste.
+     *
+     * @param world (World) the target world
+     * @param originX (int) the block x coordinate of the paste origin
+     * @param originY (int) the block y coordinate of the paste origin
+     * @param originZ (int) the block z coordinate of the paste origin
+     */
+    public void paste(World world, int originX, int originY, int originZ) {
+        int minHeight = world.getMinHeight();
+        int maxHeight = world.getMaxHeight();
+
+        Map<Long, Chunk> chunks = new HashMap<>();
+
+        for (int i = 0; i < data.length; i++) {
+            int blockY = originY + y[i];
+            if ((blockY < minHeight) || (blockY >= maxHeight)) continue;
+
+            int blockX = originX + x[i];
+            int blockZ = originZ + z[i];
+            int chunkX = blockX >> 4;
+            int chunkZ = blockZ >> 4;
+            Chunk chunk = chunks.computeIfAbsent(((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL),
+                    key -> world.getChunkAt(chunkX, chunkZ));
+
+            chunk.getBlock(blockX & 15, blockY, blockZ & 15).setBlockData(data[i], false);
+        }
+    }
+
+    /**
+     * This method replaces all blocks of the given material, which were set by this
+     * schematic and are still present in the world, with air. In contrast to a search
+     * in the surrounding area, only the positions of the schematic are checked.
+     *
+     * @param world (World) the target world
+     * @param originX (int) the block x coordinate of the paste origin
+     * @param originY (int) the block y coordinate of the paste origin
+     * @param originZ (int) the block z coordinate of the paste origin
+     * @param material (Material) the material to be removed
+     */
+    public void remove(World world, int originX, int originY, int originZ, Material material) {
+        int minHeight = world.getMinHeight();
+        int maxHeight = world.getMaxHeight();
+
+        for (int i = 0; i < data.length; i++) {
+            if (data[i].getMaterial() != material) continue;
+
+            int blockY = originY + y[i];
+            if ((blockY < minHeight) || (blockY >= maxHeight)) continue;
+
+            Block block = world.getBlockAt(originX + x[i], blockY, originZ + z[i]);
+            if (block.getType() == material) block.setType(Material.AIR);
+        }
+    }
+
+    static class Builder {
+
+        private final List<int[]> positions = new ArrayList<>();
+        private final List<BlockData> data = new ArrayList<>();
+
+        void add(int x, int y, int z, BlockData blockData) {
+            positions.add(new int[] {x, y, z});
+            data.add(blockData);
+        }
+
+        CompiledSchematic build() {
+            int size = data.size();
+            int[] x = new int[size];
+            int[] y = new int[size];
+            int[] z = new int[size];
+            for (int i = 0; i < size; i++) {
+                int[] position = positions.get(i);
+                x[i] = position[0];
+                y[i] = position[1];
+                z[i] = position[2];
+            }
+            return new CompiledSchematic(x, y, z, data.toArray(new BlockData[0]));
+        }
+    }
+}
@@ -18,7 +18,10 @@
 
 package de.butzlabben.missilewars.game.schematics.paste;
 
+import de.butzlabben.missilewars.Logger;
 import de.butzlabben.missilewars.MissileWars;
+import de.butzlabben.missilewars.configuration.Config;
+import de.butzlabben.missilewars.missile.paste.v1_20.fawe.ClipboardCache;
 import de.butzlabben.missilewars.missile.paste.v1_20.fawe.FAWE_Paster;
 import org.bukkit.Material;
 import org.bukkit.util.Vector;
@@ -31,17 +34,45 @@ import java.io.File;
  */
 public class FawePasteProvider implements Paster {
 
-    FAWE_Paster paster = new FAWE_Paster();
+    FAWE_Paster paster = new FAWE_Paster(Config.getSchematicCacheMaxVolume());
+    private final PasteTimings timings = new PasteTimings();
 
     @Override
-    public void pasteMissile(File schematic, Vector locationVec, int rotation, org.bukkit.World world, boolean blockUpdate, 
-                             Material replaceMaterial, int replaceTicks, int replaceRadius) {
-        paster.pasteMissile(schematic, locationVec, rotation, world, blockUpdate, replaceMaterial, replaceTicks, 
-                replaceRadius, MissileWars.getInstance());
+    public void pasteSchematic(File schematic, Vector locationVec, int rotation, org.bukkit.World world) {
+        long startTime = System.nanoTime();
+        paster.pasteSchematic(schematic, locationVec, rotation, world, MissileWars.getInstance());
+        long endTime = System.nanoTime();
+        timings.add(endTime - startTime);
+        
+        Logger.DEBUG.log("[FAWE-Paster] Pasted '" + schematic.getName() + "' in " + ((endTime - startTime) / 1000) + " µs.");
     }
 
     @Override
-    public void pasteSchematic(File schematic, Vector locationVec, int rotation, org.bukkit.World world) {
-        paster.pasteSchematic(schematic, locationVec, rotation, world, MissileWars.getInstance());
+    public void removeTempBlocks(File schematic, Vector locationVec, int rotation, org.bukkit.World world, 
+                                 Material replaceMaterial, int replaceRadius) {
+        paster.removeTempBlocks(schematic, locationVec, rotation, world, replaceMaterial, replaceRadius, 
+                MissileWars.getInstance());
+    }
+
+    @Override
+    public long getBlockCount(File schematic, int rotation) {
+        return paster.getVolume(schematic, rotation, MissileWars.getInstance());
+    }
+
+    @Override
+    public int[] getBounds(File schematic, int rotation) {
+        return paster.getBounds(schematic, rotation, MissileWars.getInstance());
+    }
+
+    @Override
+    public void preloadSchematic(File schematic, int... rotations) {
+        paster.preloadSchematic(schematic, rotations, MissileWars.getInstance());
+    }
+
+    @Override
+    public String getStatistics() {
+        ClipboardCache clipboardCache = paster.getClipboardCache();
+        return "Schematic cache: " + clipboardCache.size() + " clipboards, " + clipboardCache.getHits() + " hits, " 
+                + clipboardCache.getMisses() + " misses, " + timings;
     }
 }
@@ -0,0 +1,169 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.game.schematics.paste;
+
+import de.butzlabben.missilewars.Logger;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.util.Vector;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class pastes the schematics with the Bukkit API, without WorldEdit. Each schematic
+ * is read once and compiled into a list of block deltas for every rotation, which are then
+ * set directly in the world. Block entity data (like container contents) is not pasted.
+ */
+public class NativePasteProvider implements Paster {
+
+    private final Map<String, CachedSchematic> schematics = new HashMap<>();
+    private final PasteTimings timings = new PasteTimings();
+    private long hits = 0;
+    private long misses = 0;
+
+    @Override
+    public void pasteSchematic(File schematic, Vector locationVec, int rotation, World world) {
+        pasteBlocks(schematic, locationVec, rotation, world);
+    }
+
+    @Override
+    public void removeTempBlocks(File schematic, Vector locationVec, int rotation, World world,
+                                 Material replaceMaterial, int replaceRadius) {
+        // Only the positions of the schematic are checked for the temp block, so the radius is not needed.
+        CompiledSchematic compiledSchematic;
+        try {
+            compiledSchematic = getSchematic(schematic, rotation);
+        } catch (IOException | IllegalArgumentException e) {
+            Logger.ERROR.log("Could not remove the temp blocks of schematic '" + schematic.getName() + "'.");
+            e.printStackTrace();
+            return;
+        }
+
+        compiledSchematic.remove(world, locationVec.getBlockX(), locationVec.getBlockY(), locationVec.getBlockZ(), replaceMaterial);
+    }
+
+    @Override
+    public long getBlockCount(File schematic, int rotation) {
+        try {
+            return getSchematic(schematic, rotation).size();
+        } catch (IOException | IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public int[] getBounds(File schematic, int rotation) {
+        try {
+            return getSchematic(schematic, rotation).getBounds();
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void preloadSchematic(File schematic, int... rotations) {
+        try {
+            for (int rotation : rotations) {
+                getSchematic(schematic, rotation);
+            }
+        } catch (IOException e) {
+            Logger.ERROR.log("Could not load schematic '" + schematic.getName() + "' with the native paster.");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized String getStatistics() {
+        return "Native schematic cache: " + schematics.size() + " schematics, " + hits + " hits, " + misses + " misses, " + timings;
+    }
+
+    private void pasteBlocks(File schematic, Vector locationVec, int rotation, World world) {
+        long startTime = System.nanoTime();
+
+        CompiledSchematic compiledSchematic;
+        try {
+            compiledSchematic = getSchematic(schematic, rotation);
+        } catch (IOException | IllegalArgumentException e) {
+            Logger.ERROR.log("Could not paste schematic '" + schematic.getName() + "' with the native paster.");
+            e.printStackTrace();
+            return;
+        }
+
+        compiledSchematic.paste(world, locationVec.getBlockX(), locationVec.getBlockY(), locationVec.getBlockZ());
+
+        long endTime = System.nanoTime();
+        timings.add(endTime - startTime);
+        Logger.DEBUG.log("[Native-Paster] Pasted '" + schematic.getName() + "' (" + compiledSchematic.size() + " blocks) in "
+                + ((endTime - startTime) / 1000) + " µs.");
+    }
+
+    /**
+     * This method returns the compiled schematic in the requested rotation. If the
+     * schematic file has changed since it was read, it is read again.
+     *
+     * @param schematic (File) the Sponge schematic file
+     * @param rotation (int) the rotation in degrees: 0, 90, 180 or 270
+     *
+     * @return the compiled schematic
+     */
+    private synchronized CompiledSchematic getSchematic(File schematic, int rotation) throws IOException {
+        int index = Math.floorMod(rotation, 360) / 90;
+        if (Math.floorMod(rotation, 90) != 0) throw new IllegalArgumentException("Unsupported schematic rotation " + rotation);
+
+        String key = schematic.getAbsolutePath();
+        boolean hit = true;
+
+        CachedSchematic cachedSchematic = schematics.get(key);
+        if ((cachedSchematic == null) || (cachedSchematic.lastModified != schematic.lastModified())) {
+            long startTime = System.currentTimeMillis();
+            cachedSchematic = new CachedSchematic(schematic.lastModified(), SpongeSchematicReader.read(schematic));
+            long endTime = System.currentTimeMillis();
+
+            schematics.put(key, cachedSchematic);
+            hit = false;
+            Logger.DEBUG.log("[Native-Paster] Compiled '" + schematic.getName() + "' in " + (endTime - startTime) + " ms.");
+        }
+
+        if (cachedSchematic.rotations[index] == null) {
+            cachedSchematic.rotations[index] = cachedSchematic.rotations[0].rotate(rotation);
+            hit = false;
+        }
+
+        if (hit) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return cachedSchematic.rotations[index];
+    }
+
+    private static class CachedSchematic {
+
+        private final long lastModified;
+        private final CompiledSchematic[] rotations = new CompiledSchematic[4];
+
+        private CachedSchematic(long lastModified, CompiledSchematic schematic) {
+            this.lastModified = lastModified;
+            this.rotations[0] = schematic;
+        }
+    }
+}
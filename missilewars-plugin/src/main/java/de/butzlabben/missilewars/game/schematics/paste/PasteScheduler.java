@@ -0,0 +1,230 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.game.schematics.paste;
+
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.MissileWars;
+import de.butzlabben.missilewars.configuration.Config;
+import de.butzlabben.missilewars.game.Game;
+import de.butzlabben.missilewars.game.enums.GameState;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.util.Vector;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * This class limits the number of block changes of the schematic pastes per tick for
+ * a game. The missile and shield pastes and the removals of the temp blocks are queued
+ * first in, first out. In every tick, the queued jobs are executed until the configured
+ * block budget is used up. A job is always executed at the beginning of a tick, even
+ * if it is larger than the whole budget.
+ * <p>
+ * As a paste can replace portal blocks without a block event, the portal blocks within
+ * the area of an executed paste are verified in the next tick. Only if the area of a
+ * schematic is unknown, all portals of the game are verified.
+ */
+public class PasteScheduler {
+
+    private final Game game;
+    private final Deque<PasteJob> queue = new ArrayDeque<>();
+    private BukkitTask task;
+    private long usedBudget = 0;
+    private boolean stopped = false;
+    private final List<int[]> pendingPortalAreas = new ArrayList<>();
+    private boolean fullPortalCheckPending = false;
+
+    private long executedJobs = 0;
+    private long totalWaitTime = 0;
+    private long maxWaitTime = 0;
+    private int maxQueueDepth = 0;
+
+    public PasteScheduler(Game game) {
+        this.game = game;
+    }
+
+    /**
+     * This method queues the paste of a missile. The temp blocks are removed
+     * 'replaceTicks' after the paste was actually executed.
+     */
+    public void pasteMissile(File schematic, Vector locationVec, int rotation, World world, boolean blockUpdate,
+                             Material replaceMaterial, int replaceTicks, int replaceRadius) {
+        Paster paster = MissileWars.getInstance().getSchematicPaster();
+        int[] area = getArea(paster, schematic, locationVec, rotation);
+
+        enqueue(schematic.getName(), paster.getBlockCount(schematic, rotation), area, () -> {
+            paster.pasteSchematic(schematic, locationVec, rotation, world);
+
+            if (!blockUpdate) return;
+
+            Bukkit.getScheduler().runTaskLater(MissileWars.getInstance(), () -> enqueue("temp blocks of " + schematic.getName(), 1, area,
+                    () -> paster.removeTempBlocks(schematic, locationVec, rotation, world, replaceMaterial, replaceRadius)), replaceTicks);
+        });
+    }
+
+    /**
+     * This method queues the paste of a schematic, like a shield.
+     */
+    public void pasteSchematic(File schematic, Vector locationVec, int rotation, World world) {
+        Paster paster = MissileWars.getInstance().getSchematicPaster();
+
+        enqueue(schematic.getName(), paster.getBlockCount(schematic, rotation), getArea(paster, schematic, locationVec, rotation),
+                () -> paster.pasteSchematic(schematic, locationVec, rotation, world));
+    }
+
+    /**
+     * This method discards all queued jobs. Jobs that are added later are ignored.
+     */
+    public void stop() {
+        stopped = true;
+        queue.clear();
+
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public String getStatistics() {
+        long averageWaitTime = (executedJobs == 0) ? 0 : totalWaitTime / executedJobs;
+        return "Paste scheduler of " + game.getGameConfig().getName() + ": " + executedJobs + " jobs, queue depth " + queue.size()
+                + " (max " + maxQueueDepth + "), wait time " + averageWaitTime + " ms average, " + maxWaitTime + " ms max";
+    }
+
+    /**
+     * @return the block area of the paste (min x, y, z, max x, y, z) or 'null', if it is unknown
+     */
+    private static int[] getArea(Paster paster, File schematic, Vector locationVec, int rotation) {
+        int[] bounds = paster.getBounds(schematic, rotation);
+        if (bounds == null) return null;
+
+        int[] origin = {locationVec.getBlockX(), locationVec.getBlockY(), locationVec.getBlockZ()};
+        int[] area = new int[6];
+        for (int i = 0; i < 6; i++) {
+            area[i] = origin[i % 3] + bounds[i];
+        }
+        return area;
+    }
+
+    private void enqueue(String name, long blockCount, int[] area, Runnable action) {
+        if (stopped) return;
+
+        queue.add(new PasteJob(name, Math.max(blockCount, 1), area, action));
+        maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+
+        // If the budget of the current tick is not used up, the job is executed immediately.
+        executeJobs();
+
+        if ((task == null) && !stopped) {
+            task = Bukkit.getScheduler().runTaskTimer(MissileWars.getInstance(), this::tick, 1, 1);
+        }
+    }
+
+    private void tick() {
+        usedBudget = 0;
+
+        checkPastedPortals();
+
+        executeJobs();
+
+        // The task keeps running for one more tick after the last job, so that the budget of that tick is respected.
+        if (queue.isEmpty() && (usedBudget == 0)) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * This method verifies the portal blocks within the areas of the pastes of the last tick.
+     */
+    private void checkPastedPortals() {
+        if (pendingPortalAreas.isEmpty() && !fullPortalCheckPending) return;
+
+        List<int[]> areas = new ArrayList<>(pendingPortalAreas);
+        boolean fullCheck = fullPortalCheckPending;
+        pendingPortalAreas.clear();
+        fullPortalCheckPending = false;
+
+        if (game.getState() != GameState.INGAME) return;
+
+        if (fullCheck) {
+            game.checkPortals();
+            return;
+        }
+        for (int[] area : areas) {
+            game.checkPortals(area);
+        }
+    }
+
+    private void executeJobs() {
+        long budget = Config.getPasteBlocksPerTick();
+
+        while (!queue.isEmpty()) {
+            PasteJob job = queue.peek();
+            if ((budget > 0) && (usedBudget > 0) && (usedBudget + job.blockCount > budget)) break;
+
+            queue.poll();
+            usedBudget += job.blockCount;
+
+            long waitTime = (System.nanoTime() - job.queueTime) / 1000000;
+            executedJobs++;
+            totalWaitTime += waitTime;
+            maxWaitTime = Math.max(maxWaitTime, waitTime);
+            if (waitTime > 0) {
+                Logger.DEBUG.log("[Paste-Scheduler] Executed '" + job.name + "' (" + job.blockCount + " blocks) after "
+                        + waitTime + " ms (queue depth: " + queue.size() + ").");
+            }
+
+            try {
+                job.action.run();
+                if (job.area != null) pendingPortalAreas.add(job.area);
+                else fullPortalCheckPending = true;
+            } catch (Exception e) {
+                Logger.ERROR.log("Could not execute the paste of '" + job.name + "'.");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static class PasteJob {
+
+        private final String name;
+        private final long blockCount;
+        private final int[] area;
+        private final Runnable action;
+        private final long queueTime = System.nanoTime();
+
+        private PasteJob(String name, long blockCount, int[] area, Runnable action) {
+            this.name = name;
+            this.blockCount = blockCount;
+            this.area = area;
+            this.action = action;
+        }
+    }
+}
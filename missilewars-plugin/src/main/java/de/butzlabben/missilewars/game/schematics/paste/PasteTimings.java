@@ -0,0 +1,47 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.schematics.paste;
+
+/**
+ * This class sums up the time of the pastes on the main thread. It is shown with 
+ * the statistics of the paster ('/mw debug'), so that the pasters can be compared 
+ * on a running server.
+ */
+public class PasteTimings {
+
+    private long pastes = 0;
+    private long totalTime = 0;
+    private long maxTime = 0;
+
+    /**
+     * @param time (long) the time of the paste in nanoseconds
+     */
+    public synchronized void add(long time) {
+        pastes++;
+        totalTime += time;
+        maxTime = Math.max(maxTime, time);
+    }
+
+    @Override
+    public synchronized String toString() {
+        long averageTime = (pastes == 0) ? 0 : totalTime / pastes;
+        return pastes + " pastes, paste time " + (averageTime / 1000) + " µs average, " + (maxTime / 1000) + " µs max";
+    }
+}
@@ -29,8 +29,20 @@ import java.io.File;
  */
 public interface Paster {
 
-    void pasteMissile(File schematic, Vector locationVec, int rotation, org.bukkit.World world, boolean blockUpdate, 
-                      Material replaceMaterial, int replaceTicks, int replaceRadius);
-
     void pasteSchematic(File schematic, Vector locationVec, int rotation, org.bukkit.World world);
+
+    void removeTempBlocks(File schematic, Vector locationVec, int rotation, org.bukkit.World world, 
+                          Material replaceMaterial, int replaceRadius);
+
+    long getBlockCount(File schematic, int rotation);
+
+    /**
+     * @return the area of the (rotated) schematic relative to the paste position 
+     *         (min x, y, z, max x, y, z) or 'null', if the schematic could not be read
+     */
+    int[] getBounds(File schematic, int rotation);
+
+    void preloadSchematic(File schematic, int... rotations);
+
+    String getStatistics();
 }
@@ -0,0 +1,208 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.game.schematics.paste;
+
+import org.bukkit.Bukkit;
+import org.bukkit.block.data.BlockData;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * This class reads Sponge schematic files ('.schem', version 1 to 3) without
+ * WorldEdit. The result is a {@link CompiledSchematic} with the block positions
+ * relative to the schematic origin, exactly as WorldEdit would paste them.
+ */
+public class SpongeSchematicReader {
+
+    private static final int TAG_END = 0;
+    private static final int TAG_BYTE = 1;
+    private static final int TAG_SHORT = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_LONG = 4;
+    private static final int TAG_FLOAT = 5;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_BYTE_ARRAY = 7;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_LIST = 9;
+    private static final int TAG_COMPOUND = 10;
+    private static final int TAG_INT_ARRAY = 11;
+    private static final int TAG_LONG_ARRAY = 12;
+
+    /**
+     * This method reads the schematic file.
+     *
+     * @param schematic (File) the Sponge schematic file
+     *
+     * @return the compiled schematic without rotation
+     */
+    @SuppressWarnings("unchecked")
+    public static CompiledSchematic read(File schematic) throws IOException {
+        Map<String, Object> root;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(schematic))))) {
+            if (in.readByte() != TAG_COMPOUND) throw new IOException("The schematic '" + schematic.getName() + "' is not a NBT compound");
+            in.readUTF();
+            root = (Map<String, Object>) readPayload(in, TAG_COMPOUND);
+        }
+
+        // Version 3 wraps all data in a "Schematic" compound.
+        Map<String, Object> tag = root.containsKey("Schematic") ? (Map<String, Object>) root.get("Schematic") : root;
+        int version = getNumber(tag, "Version").intValue();
+
+        int width = getNumber(tag, "Width").intValue() & 0xFFFF;
+        int height = getNumber(tag, "Height").intValue() & 0xFFFF;
+        int length = getNumber(tag, "Length").intValue() & 0xFFFF;
+
+        Map<String, Object> palette;
+        byte[] blockData;
+        int offsetX = 0, offsetY = 0, offsetZ = 0;
+
+        if (version >= 3) {
+            Map<String, Object> blocks = (Map<String, Object>) tag.get("Blocks");
+            if (blocks == null) throw new IOException("The schematic '" + schematic.getName() + "' has no blocks");
+            palette = (Map<String, Object>) blocks.get("Palette");
+            blockData = (byte[]) blocks.get("Data");
+
+            // In version 3, the offset is relative to the origin.
+            int[] offset = (int[]) tag.get("Offset");
+            if (offset != null) {
+                offsetX = offset[0];
+                offsetY = offset[1];
+                offsetZ = offset[2];
+            }
+        } else {
+            palette = (Map<String, Object>) tag.get("Palette");
+            blockData = (byte[]) tag.get("BlockData");
+
+            // In version 1 and 2, WorldEdit stores the offset to the origin in its metadata.
+            Map<String, Object> metadata = (Map<String, Object>) tag.get("Metadata");
+            if ((metadata != null) && metadata.containsKey("WEOffsetX")) {
+                offsetX = getNumber(metadata, "WEOffsetX").intValue();
+                offsetY = getNumber(metadata, "WEOffsetY").intValue();
+                offsetZ = getNumber(metadata, "WEOffsetZ").intValue();
+            }
+        }
+
+        if ((palette == null) || (blockData == null)) throw new IOException("The schematic '" + schematic.getName() + "' has no block palette");
+
+        BlockData[] paletteData = new BlockData[palette.size()];
+        for (Map.Entry<String, Object> entry : palette.entrySet()) {
+            int id = ((Number) entry.getValue()).intValue();
+            if (id >= paletteData.length) paletteData = Arrays.copyOf(paletteData, id + 1);
+
+            try {
+                paletteData[id] = Bukkit.createBlockData(entry.getKey());
+            } catch (IllegalArgumentException e) {
+                // Unknown block states of other versions are skipped like air.
+                paletteData[id] = null;
+            }
+        }
+
+        CompiledSchematic.Builder builder = new CompiledSchematic.Builder();
+        int index = 0;
+        int i = 0;
+        while (i < blockData.length) {
+            int value = 0;
+            int varIntLength = 0;
+            while (true) {
+                value |= (blockData[i] & 127) << (varIntLength++ * 7);
+                if (varIntLength > 5) throw new IOException("The schematic '" + schematic.getName() + "' has an invalid block data");
+                if ((blockData[i++] & 128) != 128) break;
+            }
+
+            BlockData data = (value < paletteData.length) ? paletteData[value] : null;
+            if ((data != null) && !data.getMaterial().isAir()) {
+                int x = index % width;
+                int z = (index / width) % length;
+                int y = index / (width * length);
+                builder.add(x + offsetX, y + offsetY, z + offsetZ, data);
+            }
+            index++;
+        }
+
+        if (index != width * height * length) throw new IOException("The schematic '" + schematic.getName() + "' has an incomplete block data");
+
+        return builder.build();
+    }
+
+    private static Number getNumber(Map<String, Object> tag, String key) throws IOException {
+        Object value = tag.get(key);
+        if (!(value instanceof Number)) throw new IOException("Missing schematic value '" + key + "'");
+        return (Number) value;
+    }
+
+    private static Object readPayload(DataInputStream in, int type) throws IOException {
+        switch (type) {
+            case TAG_BYTE:
+                return in.readByte();
+            case TAG_SHORT:
+                return in.readShort();
+            case TAG_INT:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_FLOAT:
+                return in.readFloat();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_BYTE_ARRAY: {
+                byte[] value = new byte[in.readInt()];
+                in.readFully(value);
+                return value;
+            }
+            case TAG_STRING:
+                return in.readUTF();
+            case TAG_LIST: {
+                int elementType = in.readByte();
+                int size = in.readInt();
+                List<Object> value = new ArrayList<>(Math.max(size, 0));
+                for (int i = 0; i < size; i++) {
+                    value.add(readPayload(in, elementType));
+                }
+                return value;
+            }
+            case TAG_COMPOUND: {
+                Map<String, Object> value = new HashMap<>();
+                int childType;
+                while ((childType = in.readByte()) != TAG_END) {
+                    String name = in.readUTF();
+                    value.put(name, readPayload(in, childType));
+                }
+                return value;
+            }
+            case TAG_INT_ARRAY: {
+                int[] value = new int[in.readInt()];
+                for (int i = 0; i < value.length; i++) {
+                    value[i] = in.readInt();
+                }
+                return value;
+            }
+            case TAG_LONG_ARRAY: {
+                long[] value = new long[in.readInt()];
+                for (int i = 0; i < value.length; i++) {
+                    value[i] = in.readLong();
+                }
+                return value;
+            }
+            default:
+                throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+}
@@ -18,23 +18,12 @@
 
 package de.butzlabben.missilewars.game.signs;
 
-import de.butzlabben.missilewars.Logger;
-import de.butzlabben.missilewars.MissileWars;
-import de.butzlabben.missilewars.configuration.PluginMessages;
-import de.butzlabben.missilewars.game.Game;
 import de.butzlabben.missilewars.game.GameManager;
-import de.butzlabben.missilewars.game.enums.GameState;
 import de.butzlabben.missilewars.util.version.MaterialHelper;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.block.Block;
-import org.bukkit.block.Sign;
-
-import java.util.ArrayList;
-import java.util.List;
 
 @Data
 @AllArgsConstructor
@@ -56,60 +45,10 @@ public class MWSign {
         return this.location.equals(location);
     }
 
+    /**
+     * This method writes the current game information on the sign.
+     */
     public void update() {
-        if (!isValid()) {
-            Logger.WARN.log("The specified configuration options for the sign at " + location + " for the lobby " + lobby + " are not valid.");
-            return;
-        }
-        Game game = GameManager.getInstance().getGame(getLobby());
-        List<String> lines = new ArrayList<>();
-        lines.add(replace(PluginMessages.getMessage(false, PluginMessages.MessageEnum.SIGN_0), game));
-        lines.add(replace(PluginMessages.getMessage(false, PluginMessages.MessageEnum.SIGN_1), game));
-        lines.add(replace(PluginMessages.getMessage(false, PluginMessages.MessageEnum.SIGN_2), game));
-        lines.add(replace(PluginMessages.getMessage(false, PluginMessages.MessageEnum.SIGN_3), game));
-
-        // Run sync
-        Bukkit.getScheduler().runTask(MissileWars.getInstance(), () -> editSign(getLocation(), lines));
-    }
-
-    private void editSign(Location location, List<String> lines) {
-        Block block = location.getBlock();
-        if (!(MaterialHelper.isSignMaterial(block.getType()))) {
-            Logger.WARN.log("Configured sign at: " + location + " is not a standing or wall sign");
-            return;
-        }
-        Sign sign = (Sign) block.getState();
-        for (int i = 0; i < lines.size(); i++) {
-            sign.setLine(i, lines.get(i));
-        }
-        sign.update(true);
-    }
-
-    private String replace(String line, Game game) {
-
-        String gameStateMsg = GameState.ERROR.getGameStateMsg();
-        String name = "-";
-        
-        if (game != null) {
-            gameStateMsg = game.getState().getGameStateMsg();
-            
-            switch (game.getState()) {
-                case LOBBY:
-                    name = game.getGameConfig().getDisplayName();
-                    break;
-                case INGAME:
-                case END:
-                    name = game.getArenaConfig().getDisplayName();
-                    break;
-            }
-        }
-
-        int maxPlayers = (game == null ? 0 : game.getGameConfig().getMaxPlayers());
-        int players = (game == null ? 0 : game.getPlayerAmount());
-
-        return line.replace("%state%", gameStateMsg)
-                .replace("%arena%", name)
-                .replace("%max_players%", Integer.toString(maxPlayers))
-                .replace("%players%", Integer.toString(players));
+        SignRenderer.getInstance().updateSign(this);
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.signs;
+
+import de.butzlabben.missilewars.configuration.PluginMessages;
+import de.butzlabben.missilewars.game.Game;
+import lombok.Getter;
+
+/**
+ * An immutable snapshot of the game information shown on the MissileWars signs.
+ */
+@Getter
+public final class SignContent {
+    
+    private static final PluginMessages.MessageEnum[] LINES = {
+            PluginMessages.MessageEnum.SIGN_0,
+            PluginMessages.MessageEnum.SIGN_1,
+            PluginMessages.MessageEnum.SIGN_2,
+            PluginMessages.MessageEnum.SIGN_3
+    };
+    
+    private final String gameStateMsg;
+    private final String name;
+    private final int players;
+    private final int maxPlayers;
+    
+    private SignContent(String gameStateMsg, String name, int players, int maxPlayers) {
+        this.gameStateMsg = gameStateMsg;
+        this.name = name;
+        this.players = players;
+        this.maxPlayers = maxPlayers;
+    }
+    
+    /**
+     * This method creates the snapshot of the current game information.
+     * 
+     * @param game (Game) the target game
+     * @return (SignContent) the snapshot
+     */
+    public static SignContent of(Game game) {
+        String name = "-";
+        switch (game.getState()) {
+            case LOBBY:
+                name = game.getGameConfig().getDisplayName();
+                break;
+            case INGAME:
+            case END:
+                name = game.getArenaConfig().getDisplayName();
+                break;
+        }
+        
+        return new SignContent(game.getState().getGameStateMsg(), name, game.getPlayerAmount(), game.getGameConfig().getMaxPlayers());
+    }
+    
+    /**
+     * This method renders the four sign lines of this snapshot.
+     * 
+     * @return (String[]) the sign lines
+     */
+    public String[] renderLines() {
+        String[] lines = new String[LINES.length];
+        for (int i = 0; i < LINES.length; i++) {
+            lines[i] = PluginMessages.getMessage(false, LINES[i],
+                    "state", gameStateMsg,
+                    "arena", name,
+                    "max_players", maxPlayers,
+                    "players", players);
+        }
+        return lines;
+    }
+    
+}
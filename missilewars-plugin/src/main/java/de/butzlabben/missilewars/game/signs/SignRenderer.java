@@ -0,0 +1,186 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.signs;
+
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.MissileWars;
+import de.butzlabben.missilewars.game.Game;
+import de.butzlabben.missilewars.game.GameManager;
+import de.butzlabben.missilewars.util.version.MaterialHelper;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.Sign;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class renders the MissileWars signs. Only signs with changed lines and in loaded 
+ * chunks are written, and all writes of a tick are applied in one main-thread task.
+ */
+public class SignRenderer {
+    
+    @Getter
+    private static final SignRenderer instance = new SignRenderer();
+    
+    // The lines which are currently shown on the signs.
+    private final Map<MWSign, String[]> renderedLines = new HashMap<>();
+    private final Map<MWSign, String[]> pendingLines = new LinkedHashMap<>();
+    private boolean flushScheduled = false;
+    
+    /**
+     * This method updates all MissileWars signs of the game.
+     * 
+     * @param game (Game) the target game
+     */
+    public void updateSigns(Game game) {
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(MissileWars.getInstance(), () -> updateSigns(game));
+            return;
+        }
+        
+        List<MWSign> signs = MissileWars.getInstance().getSignRepository().getSigns(game);
+        if (signs.isEmpty()) return;
+        
+        // All signs of a game show the same lines.
+        String[] lines = SignContent.of(game).renderLines();
+        for (MWSign sign : signs) {
+            render(sign, lines);
+        }
+    }
+    
+    /**
+     * This method updates all MissileWars signs. Signs whose chunk was not 
+     * loaded at the last update are written now, if their chunk is loaded.
+     */
+    public void updateAllSigns() {
+        List<MWSign> signs = MissileWars.getInstance().getSignRepository().getSigns();
+        
+        // Forget the signs which were removed in the meantime.
+        renderedLines.keySet().retainAll(signs);
+        
+        Map<String, String[]> linesByLobby = new HashMap<>();
+        for (MWSign sign : signs) {
+            String[] lines = linesByLobby.computeIfAbsent(sign.getLobby(), lobby -> {
+                Game game = GameManager.getInstance().getGame(lobby);
+                return (game == null) ? null : SignContent.of(game).renderLines();
+            });
+            
+            if (lines == null) {
+                Logger.WARN.log("The specified configuration options for the sign at " + sign.getLocation() + " for the lobby " + sign.getLobby() + " are not valid.");
+                continue;
+            }
+            render(sign, lines);
+        }
+    }
+    
+    /**
+     * This method writes the sign again, even if the lines seem to be unchanged. 
+     * It is used for new signs, as their old text is unknown.
+     * 
+     * @param sign (MWSign) the target sign
+     */
+    public void updateSign(MWSign sign) {
+        Game game = GameManager.getInstance().getGame(sign.getLobby());
+        if (game == null) {
+            Logger.WARN.log("The specified configuration options for the sign at " + sign.getLocation() + " for the lobby " + sign.getLobby() + " are not valid.");
+            return;
+        }
+        
+        renderedLines.remove(sign);
+        render(sign, SignContent.of(game).renderLines());
+    }
+    
+    /**
+     * This method removes the sign from the renderer, 
+     * after it was removed from the sign repository.
+     * 
+     * @param sign (MWSign) the removed sign
+     */
+    public void forget(MWSign sign) {
+        renderedLines.remove(sign);
+        pendingLines.remove(sign);
+    }
+    
+    private void render(MWSign sign, String[] lines) {
+        if (!isChunkLoaded(sign.getLocation())) {
+            // The sign is written again, when it is loaded at the next update.
+            forget(sign);
+            return;
+        }
+        
+        String[] knownLines = pendingLines.containsKey(sign) ? pendingLines.get(sign) : renderedLines.get(sign);
+        if (Arrays.equals(knownLines, lines)) return;
+        
+        pendingLines.put(sign, lines);
+        if (flushScheduled) return;
+        
+        flushScheduled = true;
+        Bukkit.getScheduler().runTask(MissileWars.getInstance(), this::flush);
+    }
+    
+    private void flush() {
+        flushScheduled = false;
+        int updated = 0;
+        
+        for (Map.Entry<MWSign, String[]> entry : pendingLines.entrySet()) {
+            MWSign sign = entry.getKey();
+            Location location = sign.getLocation();
+            if (!isChunkLoaded(location)) {
+                renderedLines.remove(sign);
+                continue;
+            }
+            
+            Block block = location.getBlock();
+            if (!(MaterialHelper.isSignMaterial(block.getType()))) {
+                Logger.WARN.log("Configured sign at: " + location + " is not a standing or wall sign");
+                renderedLines.remove(sign);
+                continue;
+            }
+            
+            String[] lines = entry.getValue();
+            Sign signState = (Sign) block.getState();
+            for (int i = 0; i < lines.length; i++) {
+                signState.setLine(i, lines[i]);
+            }
+            signState.update(true);
+            
+            renderedLines.put(sign, lines);
+            updated++;
+        }
+        pendingLines.clear();
+        
+        if (updated > 0) Logger.DEBUG.log("[Sign-Renderer] Updated " + updated + " signs.");
+    }
+    
+    private static boolean isChunkLoaded(Location location) {
+        World world = location.getWorld();
+        if (world == null) return false;
+        
+        return world.isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+    
+}
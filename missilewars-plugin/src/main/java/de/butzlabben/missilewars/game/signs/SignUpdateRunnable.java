@@ -18,14 +18,11 @@
 
 package de.butzlabben.missilewars.game.signs;
 
-import de.butzlabben.missilewars.MissileWars;
-import java.util.List;
-
 public class SignUpdateRunnable implements Runnable {
 
     @Override
     public void run() {
-        List<MWSign> signs = MissileWars.getInstance().getSignRepository().getSigns();
-        signs.forEach(MWSign::update);
+        // The game changes are pushed directly. This run only writes signs of newly loaded chunks.
+        SignRenderer.getInstance().updateAllSigns();
     }
 }
@@ -0,0 +1,349 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.stats;
+
+import de.butzlabben.missilewars.Logger;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * The stats storage in a local file, for servers without a MySQL database. The fights are 
+ * appended to a fight log and are kept in memory. The per-player stats are aggregated 
+ * when a fight is added, so that they don't have to be computed for every query.
+ */
+public class EmbeddedStatsStorage implements StatsStorage {
+
+    private static final int WINS = 0;
+    private static final int LOSES = 1;
+    private static final int GAMES = 2;
+    private static final int GAMES_TEAM1 = 3;
+    private static final int GAMES_TEAM2 = 4;
+
+    private static final Comparator<SavedStats> PAGE_ORDER = Comparator.comparingLong(SavedStats::getTimeStart)
+            .thenComparingInt(SavedStats::getId);
+    // The players are ordered like the player column of the MySQL stats storage.
+    private static final Comparator<UUID> PLAYER_ORDER = Comparator.comparing(UUID::toString);
+
+    private final File file;
+    private final List<FightStats> fights = new ArrayList<>();
+    private final Map<UUID, int[]> playerStats = new HashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MissileWars-Stats-Storage");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private boolean loaded = false;
+
+    public EmbeddedStatsStorage(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public String getType() {
+        return EMBEDDED;
+    }
+
+    /**
+     * The fight log is loaded only once on the storage thread. The 
+     * future completes, when the fight log is loaded.
+     */
+    @Override
+    public CompletableFuture<Void> prepare() {
+        return CompletableFuture.runAsync(this::load, executor);
+    }
+
+    private synchronized void load() {
+        if (loaded) return;
+        loaded = true;
+
+        if (!file.exists()) return;
+
+        long startTime = System.currentTimeMillis();
+        boolean incomplete = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            FightStats fightStats;
+            while ((fightStats = FightStats.readFrom(in)) != null) {
+                addFight(fightStats);
+            }
+        } catch (EOFException e) {
+            incomplete = true;
+        } catch (IOException e) {
+            // The fight log is kept as a backup and a new one is started.
+            File backup = new File(file.getPath() + "." + System.currentTimeMillis() + ".broken");
+            Logger.ERROR.log("Could not read the fight log " + file.getPath() + ". It is moved to " + backup.getName());
+            e.printStackTrace();
+            if (!file.renameTo(backup)) Logger.ERROR.log("Could not move the fight log " + file.getPath());
+            fights.clear();
+            playerStats.clear();
+            return;
+        }
+
+        // The last fight was not completely written, for example because of a crash.
+        if (incomplete) {
+            Logger.WARN.log("The last entry of the fight log is incomplete and is removed.");
+            rewrite();
+        }
+
+        long endTime = System.currentTimeMillis();
+        Logger.DEBUG.log("Loaded " + fights.size() + " fights of the fight log in " + (endTime - startTime) + " ms.");
+    }
+
+    @Override
+    public synchronized void writeFight(FightStats fightStats) throws StatsStorageException {
+        load();
+
+        try (FileOutputStream fileOut = new FileOutputStream(file, true)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+            fightStats.writeTo(out);
+            out.flush();
+            fileOut.getFD().sync();
+        } catch (IOException e) {
+            throw new StatsStorageException("Could not append the fight to the fight log " + file.getPath(), e);
+        }
+
+        addFight(fightStats);
+    }
+
+    private void addFight(FightStats fightStats) {
+        fights.add(fightStats);
+        addPlayerStats(fightStats);
+    }
+
+    private void addPlayerStats(FightStats fightStats) {
+        int teamWon = fightStats.getTeamWon();
+        for (Map.Entry<UUID, Integer> member : fightStats.getMembers().entrySet()) {
+            int[] stats = playerStats.computeIfAbsent(member.getKey(), uuid -> new int[5]);
+            int team = member.getValue();
+
+            stats[GAMES]++;
+            stats[(team == 1) ? GAMES_TEAM1 : GAMES_TEAM2]++;
+            if ((teamWon == 1) || (teamWon == 2)) {
+                stats[(teamWon == team) ? WINS : LOSES]++;
+            }
+        }
+    }
+
+    /**
+     * This method rewrites the fight log with the loaded fights. The new 
+     * fight log replaces the old one atomically.
+     */
+    private void rewrite() {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            try (FileOutputStream fileOut = new FileOutputStream(tempFile)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+                for (FightStats fightStats : fights) {
+                    fightStats.writeTo(out);
+                }
+                out.flush();
+                fileOut.getFD().sync();
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.ERROR.log("Could not rewrite the fight log " + file.getPath());
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> getGameCount(long time, String arena) {
+        return query(() -> {
+            int count = 0;
+            for (FightStats fightStats : fights) {
+                if ((fightStats.getTimeStart() >= time) && matchesArena(fightStats, arena)) count++;
+            }
+            return count;
+        });
+    }
+
+    @Override
+    public CompletableFuture<SavedStats> getAverageSavedStats(long time, String arena, boolean mustBeenWon) {
+        return query(() -> {
+            int excludedResult = mustBeenWon ? 0 : -1;
+            long timeElapsed = 0;
+            long playerCount = 0;
+            int fightCount = 0;
+            int teamWon1 = 0;
+            int teamWon2 = 0;
+
+            for (FightStats fightStats : fights) {
+                if (!isPlayedFight(fightStats, time, arena)) continue;
+                if (fightStats.getTeamWon() == excludedResult) continue;
+
+                timeElapsed += fightStats.getTimeElapsed();
+                playerCount += fightStats.getMembers().size();
+                fightCount++;
+                if (fightStats.getTeamWon() == 1) teamWon1++;
+                if (fightStats.getTeamWon() == 2) teamWon2++;
+            }
+
+            double winRatio = (double) teamWon1 / (double) teamWon2;
+            if (fightCount == 0) return new SavedStats(0, 0L, 0L, null, 0, winRatio);
+            return new SavedStats(0, timeElapsed / fightCount, 0L, null, (double) playerCount / fightCount, winRatio);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> getDrawFights(long time, String arena) {
+        return query(() -> {
+            int count = 0;
+            for (FightStats fightStats : fights) {
+                if ((fightStats.getTeamWon() == 0) && (fightStats.getTimeStart() > time) && matchesArena(fightStats, arena)) count++;
+            }
+            return count;
+        });
+    }
+
+    /**
+     * The id of a fight is its position in the fight log, starting with 1.
+     */
+    @Override
+    public CompletableFuture<List<SavedStats>> getStatsPage(long time, String arena, SavedStats after, int limit) {
+        return query(() -> {
+            List<SavedStats> stats = new ArrayList<>();
+            for (int i = 0; i < fights.size(); i++) {
+                FightStats fightStats = fights.get(i);
+                if (!isPlayedFight(fightStats, time, arena)) continue;
+
+                SavedStats savedStats = new SavedStats(i + 1, fightStats.getTimeElapsed(), fightStats.getTimeStart(),
+                        fightStats.getArenaName(), fightStats.getMembers().size(), fightStats.getTeamWon());
+                if ((after == null) || (PAGE_ORDER.compare(savedStats, after) > 0)) stats.add(savedStats);
+            }
+            stats.sort(PAGE_ORDER);
+            return new ArrayList<>(stats.subList(0, Math.min(limit, stats.size())));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> getUniquePlayers(long time, String arena) {
+        return query(() -> getPlayerSet(time, arena).size());
+    }
+
+    @Override
+    public CompletableFuture<List<UUID>> getPlayersPage(long time, String arena, UUID after, int limit) {
+        return query(() -> {
+            NavigableSet<UUID> players = new TreeSet<>(PLAYER_ORDER);
+            players.addAll(getPlayerSet(time, arena));
+            if (after != null) players = players.tailSet(after, false);
+
+            List<UUID> page = new ArrayList<>(Math.min(limit, players.size()));
+            for (UUID uuid : players) {
+                if (page.size() >= limit) break;
+                page.add(uuid);
+            }
+            return page;
+        });
+    }
+
+    private Set<UUID> getPlayerSet(long time, String arena) {
+        Set<UUID> players = new LinkedHashSet<>();
+        for (FightStats fightStats : fights) {
+            if ((fightStats.getTimeStart() > time) && matchesArena(fightStats, arena)) {
+                players.addAll(fightStats.getMembers().keySet());
+            }
+        }
+        return players;
+    }
+
+    @Override
+    public CompletableFuture<List<PlayerStats>> getStatsFrom(List<UUID> uuids) {
+        return query(() -> {
+            List<PlayerStats> stats = new ArrayList<>();
+            for (UUID uuid : uuids) {
+                int[] aggregate = playerStats.get(uuid);
+                if (aggregate == null) continue;
+
+                stats.add(new PlayerStats(uuid, aggregate[WINS], aggregate[LOSES], aggregate[GAMES],
+                        aggregate[GAMES_TEAM1], aggregate[GAMES_TEAM2]));
+            }
+            return stats;
+        });
+    }
+
+    /**
+     * The player stats are kept in memory and are calculated again from 
+     * the loaded fights.
+     */
+    @Override
+    public CompletableFuture<Integer> rebuildPlayerStats() {
+        return query(() -> {
+            playerStats.clear();
+            fights.forEach(this::addPlayerStats);
+            return playerStats.size();
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<FightStats>> getFights() {
+        return query(() -> new ArrayList<>(fights));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * This method executes the query on the storage thread. The queries hold the lock 
+     * of the storage, so that no fight is added while they are running.
+     */
+    private <T> CompletableFuture<T> query(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            synchronized (this) {
+                load();
+                return query.get();
+            }
+        }, executor);
+    }
+
+    /**
+     * @return true, if the fight has at least one member and matches the filter (like the fights of the MySQL stats storage)
+     */
+    private static boolean isPlayedFight(FightStats fightStats, long time, String arena) {
+        return !fightStats.getMembers().isEmpty() && (fightStats.getTimeStart() >= time) && matchesArena(fightStats, arena);
+    }
+
+    private static boolean matchesArena(FightStats fightStats, String arena) {
+        return arena.isEmpty() || fightStats.getArenaName().equals(arena);
+    }
+}
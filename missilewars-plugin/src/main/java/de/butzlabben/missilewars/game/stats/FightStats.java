@@ -18,41 +18,60 @@
 
 package de.butzlabben.missilewars.game.stats;
 
+import de.butzlabben.missilewars.MissileWars;
 import de.butzlabben.missilewars.configuration.Config;
 import de.butzlabben.missilewars.game.Game;
 import de.butzlabben.missilewars.game.enums.GameResult;
 import de.butzlabben.missilewars.player.MWPlayer;
-import de.butzlabben.missilewars.util.ConnectionHolder;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.Collection;
-import lombok.RequiredArgsConstructor;
-
-@RequiredArgsConstructor
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import lombok.Getter;
+
+/**
+ * This class holds the result of a fight. All values are copied when the
+ * fight ends, so that the result can be written to the database later on
+ * another thread.
+ */
+@Getter
 public class FightStats {
 
     private final String arenaName;
     private final long timeStart, timeElapsed;
     private final int teamWon;
-    private final Collection<MWPlayer> players;
-    private Game game;
+    private final Map<UUID, Integer> members;
 
     public FightStats(Game game) {
-        this.game = game;
-
         arenaName = game.getArenaConfig().getName();
         timeStart = game.getTimestart();
         timeElapsed = System.currentTimeMillis() - timeStart;
-        teamWon = getGameResultCode();
-        players = game.getPlayers().values();
+        teamWon = getGameResultCode(game);
+
+        members = new LinkedHashMap<>();
+        for (MWPlayer mwPlayer : game.getPlayers().values()) {
+            if (mwPlayer.getTeam() == null) continue;
+
+            members.put(mwPlayer.getUuid(), (mwPlayer.getTeam() == game.getTeamManager().getTeam1()) ? 1 : 2);
+        }
+    }
+
+    FightStats(String arenaName, long timeStart, long timeElapsed, int teamWon, Map<UUID, Integer> members) {
+        this.arenaName = arenaName;
+        this.timeStart = timeStart;
+        this.timeElapsed = timeElapsed;
+        this.teamWon = teamWon;
+        this.members = members;
     }
 
 
     /**
      * This method returns the game result code for the database.
      */
-    private int getGameResultCode() {
+    private static int getGameResultCode(Game game) {
 
         if (game.getTeamManager().getTeam1().getGameResult() == GameResult.WIN) {
             return 1;
@@ -63,62 +82,68 @@ public class FightStats {
         return 0;
     }
 
+    /**
+     * This method prepares the fight stats storage, for example by creating the missing tables.
+     */
     public static void checkTables() {
         if (!Config.isFightStatsEnabled())
             return;
-        try {
-            PreparedStatement ps = ConnectionHolder.prepareStatement(
-                    "CREATE TABLE IF NOT EXISTS " + Config.getFightsTable() + "(id int NOT NULL AUTO_INCREMENT PRIMARY KEY, arena TEXT NOT NULL, " +
-                            "timestart bigint(20), timeelapsed bigint(20), teamwon int UNSIGNED)");
-            ConnectionHolder.executeUpdate(ps);
 
-            ps = ConnectionHolder.prepareStatement(
-                    "CREATE TABLE IF NOT EXISTS " + Config.getFightMembersTable() +
-                            " (fid int, player varchar(36), team tinyint(4), PRIMARY KEY (player, fid))");
-
-            ConnectionHolder.executeUpdate(ps);
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        MissileWars.getInstance().getStatsStorage().prepare();
     }
 
+    /**
+     * This method hands the fight over to the stats writer, which writes
+     * it asynchronously to the stats storage.
+     */
     public void insert() {
         if (!Config.isFightStatsEnabled())
             return;
-        try {
-            PreparedStatement ps = ConnectionHolder.prepareStatement("INSERT INTO " + Config.getFightsTable() + " (arena, timestart, timeelapsed, teamwon) VALUES "
-                    + " (?, ?, ?, ?)");
-            ps.setString(1, arenaName);
-            ps.setLong(2, timeStart);
-            ps.setLong(3, timeElapsed);
-            ps.setInt(4, teamWon);
-
-            ConnectionHolder.executeUpdate(ps);
-            ResultSet rs = ps.getGeneratedKeys();
-            int fightID = -1;
-            if (rs.next())
-                fightID = rs.getInt(1);
-
-            if (fightID == -1)
-                return;
-            for (MWPlayer mwPlayer : players) {
-                if (mwPlayer.getTeam() != null) {
-                    PreparedStatement statement = ConnectionHolder.prepareStatement("INSERT INTO " + Config.getFightMembersTable() + " (fid, player, team) VALUES "
-                            + " (?, ?, ?)");
-                    statement.setInt(1, fightID);
-                    statement.setString(2, mwPlayer.getUuid().toString());
-
-                    if (mwPlayer.getTeam() == game.getTeamManager().getTeam1())
-                        statement.setInt(3, 1);
-                    else
-                        statement.setInt(3, 2);
-
-                    ConnectionHolder.executeUpdate(statement);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+
+        FightStatsWriter.getInstance().submit(this);
+    }
+
+    /**
+     * This method writes the fight in the binary format of the fight journals.
+     *
+     * @param out (DataOutputStream) the target stream
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeUTF(arenaName);
+        out.writeLong(timeStart);
+        out.writeLong(timeElapsed);
+        out.writeInt(teamWon);
+        out.writeInt(members.size());
+        for (Map.Entry<UUID, Integer> member : members.entrySet()) {
+            out.writeLong(member.getKey().getMostSignificantBits());
+            out.writeLong(member.getKey().getLeastSignificantBits());
+            out.writeByte(member.getValue());
+        }
+    }
+
+    /**
+     * This method reads a fight in the binary format of the fight journals.
+     *
+     * @param in (DataInputStream) the source stream, which must support mark and reset
+     * @return (FightStats) the fight or 'null', if the end of the stream is reached
+     * @throws EOFException if the fight is incomplete
+     */
+    static FightStats readFrom(DataInputStream in) throws IOException {
+        // The end is only reached, if no byte of the next fight is left. Otherwise, 
+        // a fight that breaks off within the arena name would be taken for the end.
+        in.mark(1);
+        if (in.read() < 0) return null;
+        in.reset();
+
+        String arenaName = in.readUTF();
+        long timeStart = in.readLong();
+        long timeElapsed = in.readLong();
+        int teamWon = in.readInt();
+        int size = in.readInt();
+        Map<UUID, Integer> members = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            members.put(new UUID(in.readLong(), in.readLong()), (int) in.readByte());
         }
+        return new FightStats(arenaName, timeStart, timeElapsed, teamWon, members);
     }
 }
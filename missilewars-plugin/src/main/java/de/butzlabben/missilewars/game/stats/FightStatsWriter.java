@@ -0,0 +1,279 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.game.stats;
+
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.MissileWars;
+import de.butzlabben.missilewars.configuration.Config;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+
+/**
+ * This class writes the fight stats asynchronously to the stats storage. The finished fights
+ * are collected in a bounded queue, which is drained by an async task. Each fight is
+ * written in one operation of the stats storage.
+ * <p>
+ * If the stats storage is not available, the fights are appended to a journal file. The
+ * journal is written to the stats storage with the next fight or when the plugin starts.
+ */
+public class FightStatsWriter {
+
+    @Getter
+    private static final FightStatsWriter instance = new FightStatsWriter();
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY = 1000;
+
+    private final BlockingQueue<FightStats> queue = new ArrayBlockingQueue<>(Math.max(Config.getFightStatsQueueSize(), 1));
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final Object writeLock = new Object();
+
+    private FightStatsWriter() {
+    }
+
+    /**
+     * This method adds the fight to the queue. If the queue is full, the fight
+     * is saved to the journal instead.
+     *
+     * @param fightStats (FightStats) the finished fight
+     */
+    public void submit(FightStats fightStats) {
+        if (!queue.offer(fightStats)) {
+            Logger.WARN.log("[Stats-Writer] The queue is full. The fight is saved to the journal.");
+            List<FightStats> fights = new ArrayList<>();
+            fights.add(fightStats);
+            synchronized (writeLock) {
+                appendToJournal(fights);
+            }
+        }
+
+        scheduleDrain();
+    }
+
+    /**
+     * This method writes the journal of the last runs to the stats storage, if there is one.
+     */
+    public void replayJournalAsync() {
+        if (!getJournalFile().exists()) return;
+
+        scheduleDrain();
+    }
+
+    /**
+     * This method writes all queued fights synchronously. It is called when the
+     * plugin is disabled and waits for a running write to finish. Failed writes are
+     * retried without a delay, so that the shutdown is not blocked by the back-off.
+     */
+    public void flush() {
+        drain(0);
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void scheduleDrain() {
+        if (!MissileWars.getInstance().isEnabled()) return;
+        if (!draining.compareAndSet(false, true)) return;
+
+        Bukkit.getScheduler().runTaskAsynchronously(MissileWars.getInstance(), () -> {
+            try {
+                drain(RETRY_DELAY);
+            } finally {
+                draining.set(false);
+            }
+
+            // A fight could have been added after the queue was drained.
+            if (!queue.isEmpty()) scheduleDrain();
+        });
+    }
+
+    private void drain(long retryDelay) {
+        synchronized (writeLock) {
+            boolean available = replayJournal();
+
+            List<FightStats> fights = new ArrayList<>();
+            queue.drainTo(fights);
+            if (fights.isEmpty()) return;
+
+            long startTime = System.currentTimeMillis();
+            List<FightStats> failedFights = new ArrayList<>();
+            for (FightStats fightStats : fights) {
+                if (available && write(fightStats, MAX_ATTEMPTS, retryDelay)) continue;
+
+                // If the stats storage is down, the remaining fights are not tried again.
+                available = false;
+                failedFights.add(fightStats);
+            }
+            long endTime = System.currentTimeMillis();
+
+            if (!failedFights.isEmpty()) {
+                Logger.WARN.log("[Stats-Writer] Could not write " + failedFights.size() + " fight(s) to the stats storage. They are saved to the journal.");
+                appendToJournal(failedFights);
+            }
+
+            Logger.DEBUG.log("[Stats-Writer] Wrote " + (fights.size() - failedFights.size()) + " fight(s) in " + (endTime - startTime) + " ms.");
+        }
+    }
+
+    /**
+     * This method inserts the fight with retries. The delay between the attempts
+     * increases with each attempt.
+     *
+     * @return true, if the fight was written
+     */
+    private boolean write(FightStats fightStats, int attempts, long retryDelay) {
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            try {
+                MissileWars.getInstance().getStatsStorage().writeFight(fightStats);
+                StatsCache.getInstance().invalidate();
+                return true;
+            } catch (StatsStorageException e) {
+                Logger.WARN.log("[Stats-Writer] Could not write the fight (attempt " + attempt + " of " + attempts + "): " + e.getMessage());
+            }
+
+            if (attempt == attempts) break;
+            if (retryDelay <= 0) continue;
+            try {
+                Thread.sleep(retryDelay * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method writes the fights of the journal to the stats storage. The fights that could
+     * not be written remain in the journal, which is replaced atomically (see {@link #rewriteJournal(File, List)}).
+     *
+     * @return false, if the stats storage is not available
+     */
+    private boolean replayJournal() {
+        File journal = getJournalFile();
+        if (!journal.exists()) return true;
+
+        List<FightStats> fights = readJournal(journal);
+        if (fights == null) return true;
+
+        List<FightStats> remainingFights = new ArrayList<>();
+        boolean available = true;
+        for (FightStats fightStats : fights) {
+            if (available && write(fightStats, 1, 0)) continue;
+
+            available = false;
+            remainingFights.add(fightStats);
+        }
+
+        if (remainingFights.size() < fights.size()) rewriteJournal(journal, remainingFights);
+
+        if (fights.size() > remainingFights.size()) {
+            Logger.NORMAL.log("[Stats-Writer] Wrote " + (fights.size() - remainingFights.size()) + " fight(s) of the journal to the stats storage.");
+        }
+        return available;
+    }
+
+    private void appendToJournal(List<FightStats> fights) {
+        if (fights.isEmpty()) return;
+
+        File journal = getJournalFile();
+        journal.getParentFile().mkdirs();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journal, true)))) {
+            for (FightStats fightStats : fights) {
+                fightStats.writeTo(out);
+            }
+        } catch (IOException e) {
+            Logger.ERROR.log("[Stats-Writer] Could not save " + fights.size() + " fight(s) to the journal. They are lost.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * This method replaces the journal with the remaining fights. They are written to a
+     * temporary file, which is synced to the disk and then moved over the journal, so
+     * that the remaining fights are not lost, if the server crashes in between.
+     */
+    private void rewriteJournal(File journal, List<FightStats> remainingFights) {
+        if (remainingFights.isEmpty()) {
+            if (!journal.delete()) Logger.ERROR.log("[Stats-Writer] Could not delete the journal " + journal.getPath());
+            return;
+        }
+
+        File tempFile = new File(journal.getParentFile(), "fightstats.journal.tmp");
+        try {
+            try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+                for (FightStats fightStats : remainingFights) {
+                    fightStats.writeTo(out);
+                }
+                out.flush();
+                fileOut.getFD().sync();
+            }
+            Files.move(tempFile.toPath(), journal.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException e) {
+            // The old journal is kept. The fights that were already written are written again with the next replay.
+            Logger.ERROR.log("[Stats-Writer] Could not rewrite the journal " + journal.getPath());
+            e.printStackTrace();
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * @return the fights of the journal or 'null', if the journal could not be read
+     */
+    private List<FightStats> readJournal(File journal) {
+        List<FightStats> fights = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journal)))) {
+            FightStats fightStats;
+            while ((fightStats = FightStats.readFrom(in)) != null) {
+                fights.add(fightStats);
+            }
+        } catch (EOFException e) {
+            // The last fight was not completely written, for example because of a crash.
+            Logger.WARN.log("[Stats-Writer] The last entry of the journal is incomplete and is skipped.");
+        } catch (IOException e) {
+            Logger.ERROR.log("[Stats-Writer] Could not read the journal " + journal.getPath());
+            e.printStackTrace();
+            return null;
+        }
+        return fights;
+    }
+
+    private static File getJournalFile() {
+        return new File(MissileWars.getInstance().getDataFolder(), "fightstats.journal");
+    }
+}
@@ -0,0 +1,445 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.game.stats;
+
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.configuration.Config;
+import de.butzlabben.missilewars.util.ConnectionHolder;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The stats storage in the MySQL database of the 'mysql' config section.
+ */
+public class MySQLStatsStorage implements StatsStorage {
+
+    private final AtomicBoolean schemaChecked = new AtomicBoolean();
+    private final String fightsTable;
+    private final String fightMembersTable;
+    private final String playerStatsTable;
+
+    public MySQLStatsStorage() {
+        this(Config.getFightsTable(), Config.getFightMembersTable(), Config.getPlayerStatsTable());
+    }
+
+    MySQLStatsStorage(String fightsTable, String fightMembersTable, String playerStatsTable) {
+        this.fightsTable = fightsTable;
+        this.fightMembersTable = fightMembersTable;
+        this.playerStatsTable = playerStatsTable;
+    }
+
+    @Override
+    public String getType() {
+        return MYSQL;
+    }
+
+    /**
+     * The indexes are checked once after the start. The player stats are rebuilt, if 
+     * the player stats table is still empty, but fights were already saved (for 
+     * example after an update).
+     */
+    @Override
+    public CompletableFuture<Void> prepare() {
+        CompletableFuture<Void> future = ConnectionHolder.executeAsync(connection -> {
+            checkTables(connection);
+            return null;
+        });
+
+        if (schemaChecked.compareAndSet(false, true)) {
+            future = future.thenCompose(v -> ConnectionHolder.executeAsync(connection -> {
+                        checkIndexes(connection);
+                        return isPlayerStatsMissing(connection);
+                    }))
+                    .thenCompose(missing -> {
+                        if (!missing) return CompletableFuture.completedFuture(null);
+
+                        Logger.NORMAL.log("The player stats table is empty. The player stats are rebuilt from the saved fights.");
+                        return rebuildPlayerStats().thenAccept(players -> Logger.NORMAL.log("Rebuilt the stats of " + players + " players."));
+                    });
+        }
+
+        return future.exceptionally(e -> {
+            Logger.ERROR.log("Could not create the fight stats tables: " + e.getMessage());
+            return null;
+        });
+    }
+
+    void checkTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + fightsTable + "(id int NOT NULL AUTO_INCREMENT PRIMARY KEY, arena TEXT NOT NULL, " +
+                    "timestart bigint(20), timeelapsed bigint(20), teamwon int UNSIGNED)");
+
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + fightMembersTable +
+                    " (fid int, player varchar(36), team tinyint(4), PRIMARY KEY (player, fid))");
+
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + playerStatsTable +
+                    " (player varchar(36) NOT NULL PRIMARY KEY, wins int UNSIGNED NOT NULL DEFAULT 0, loses int UNSIGNED NOT NULL DEFAULT 0, " +
+                    "games int UNSIGNED NOT NULL DEFAULT 0, games_team1 int UNSIGNED NOT NULL DEFAULT 0, games_team2 int UNSIGNED NOT NULL DEFAULT 0, " +
+                    "INDEX (wins))");
+        }
+    }
+
+    /**
+     * The fights are filtered by the start time and the arena. The fight members are joined 
+     * by the fight id and filtered by the player, which is covered by the primary key.
+     */
+    private void checkIndexes(Connection connection) throws SQLException {
+        createIndex(connection, fightsTable, "mw_timestart", "timestart");
+        createIndex(connection, fightsTable, "mw_arena_timestart", "arena(64), timestart");
+        createIndex(connection, fightMembersTable, "mw_fid", "fid");
+    }
+
+    private void createIndex(Connection connection, String table, String index, String columns) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, table, false, true)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return;
+            }
+        }
+
+        long startTime = System.currentTimeMillis();
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
+        }
+        long endTime = System.currentTimeMillis();
+        Logger.NORMAL.log("Created the index " + index + " on the table " + table + " in " + (endTime - startTime) + " ms.");
+    }
+
+    private boolean isPlayerStatsMissing(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery(replace("SELECT 1 FROM $mw_player_stats LIMIT 1"))) {
+                if (rs.next()) return false;
+            }
+            try (ResultSet rs = statement.executeQuery(replace("SELECT 1 FROM $mw_fightmember LIMIT 1"))) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * The player stats table is cleared and filled again with the stats 
+     * of all saved fights in one transaction.
+     */
+    @Override
+    public CompletableFuture<Integer> rebuildPlayerStats() {
+        return ConnectionHolder.executeTransactionAsync(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(replace("DELETE FROM $mw_player_stats"));
+                return statement.executeUpdate(replace("INSERT INTO $mw_player_stats (player, wins, loses, games, games_team1, games_team2) " +
+                        "SELECT $mw_fightmember.player, " +
+                        "SUM(CASE WHEN ($mw_fights.teamwon = 1 AND $mw_fightmember.team = 1) OR ($mw_fights.teamwon = 2 AND $mw_fightmember.team = 2) THEN 1 ELSE 0 END), " +
+                        "SUM(CASE WHEN ($mw_fights.teamwon = 1 AND $mw_fightmember.team = 2) OR ($mw_fights.teamwon = 2 AND $mw_fightmember.team = 1) THEN 1 ELSE 0 END), " +
+                        "COUNT(*), " +
+                        "SUM(CASE WHEN $mw_fightmember.team = 1 THEN 1 ELSE 0 END), " +
+                        "SUM(CASE WHEN $mw_fightmember.team = 2 THEN 1 ELSE 0 END) " +
+                        "FROM $mw_fightmember JOIN $mw_fights ON $mw_fightmember.fid = $mw_fights.id " +
+                        "GROUP BY $mw_fightmember.player"));
+            }
+        });
+    }
+
+    /**
+     * The fight, all fight members and the updated player stats are inserted 
+     * in one transaction. The members and the player stats are inserted as 
+     * one batch each.
+     */
+    @Override
+    public void writeFight(FightStats fightStats) throws StatsStorageException {
+        try {
+            ConnectionHolder.executeTransaction(connection -> write(connection, fightStats));
+        } catch (SQLException e) {
+            throw new StatsStorageException("Could not insert the fight into the database", e);
+        }
+    }
+
+    private void write(Connection connection, FightStats fightStats) throws SQLException {
+        int fightID = -1;
+        try (PreparedStatement ps = connection.prepareStatement("INSERT INTO " + fightsTable + " (arena, timestart, timeelapsed, teamwon) VALUES "
+                + " (?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, fightStats.getArenaName());
+            ps.setLong(2, fightStats.getTimeStart());
+            ps.setLong(3, fightStats.getTimeElapsed());
+            ps.setInt(4, fightStats.getTeamWon());
+            ps.executeUpdate();
+
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next())
+                    fightID = rs.getInt(1);
+            }
+        }
+
+        if (fightID == -1)
+            throw new SQLException("No id was generated for the fight");
+
+        if (fightStats.getMembers().isEmpty())
+            return;
+
+        try (PreparedStatement ps = connection.prepareStatement("INSERT INTO " + fightMembersTable + " (fid, player, team) VALUES "
+                + " (?, ?, ?)")) {
+            for (Map.Entry<UUID, Integer> member : fightStats.getMembers().entrySet()) {
+                ps.setInt(1, fightID);
+                ps.setString(2, member.getKey().toString());
+                ps.setInt(3, member.getValue());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(replace("INSERT INTO $mw_player_stats (player, wins, loses, games, games_team1, games_team2) " +
+                "VALUES (?, ?, ?, 1, ?, ?) ON DUPLICATE KEY UPDATE wins = wins + VALUES(wins), loses = loses + VALUES(loses), " +
+                "games = games + 1, games_team1 = games_team1 + VALUES(games_team1), games_team2 = games_team2 + VALUES(games_team2)"))) {
+            int teamWon = fightStats.getTeamWon();
+            for (Map.Entry<UUID, Integer> member : fightStats.getMembers().entrySet()) {
+                int team = member.getValue();
+                boolean played = ((team == 1) || (team == 2)) && ((teamWon == 1) || (teamWon == 2));
+
+                ps.setString(1, member.getKey().toString());
+                ps.setInt(2, (played && (team == teamWon)) ? 1 : 0);
+                ps.setInt(3, (played && (team != teamWon)) ? 1 : 0);
+                ps.setInt(4, (team == 1) ? 1 : 0);
+                ps.setInt(5, (team == 2) ? 1 : 0);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> getGameCount(long time, String arena) {
+        return ConnectionHolder.executeAsync(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(replace("SELECT COUNT(*) FROM $mw_fights WHERE $mw_fights.timestart >= ?"
+                    + getArenaCondition(arena)))) {
+                setFilter(ps, time, arena);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
+                }
+            }
+            return 0;
+        });
+    }
+
+    @Override
+    public CompletableFuture<SavedStats> getAverageSavedStats(long time, String arena, boolean mustBeenWon) {
+        return ConnectionHolder.executeAsync(connection -> {
+            String statement = "SELECT AVG(timeelapsed) as timeelapsed, " +
+                    "COUNT(case teamwon when 1 then 1 else null end) AS teamwon1, " +
+                    "COUNT(case teamwon when 2 then 1 else null end) AS teamwon2, " +
+                    "AVG(playercount) as playercount " +
+                    "FROM (SELECT $mw_fights.id, $mw_fights.teamwon, $mw_fights.timeelapsed, COUNT($mw_fightmember.fid) as playercount " +
+                    "FROM $mw_fights JOIN $mw_fightmember ON $mw_fights.id = $mw_fightmember.fid " +
+                    "WHERE $mw_fights.timestart >= ?" + getArenaCondition(arena) + " AND $mw_fights.teamwon != ? " +
+                    "GROUP BY $mw_fights.id) fights";
+            try (PreparedStatement ps = connection.prepareStatement(replace(statement))) {
+                int index = setFilter(ps, time, arena);
+                ps.setInt(index, mustBeenWon ? 0 : -1);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        double winRatio = (double) rs.getInt("teamwon1") / (double) rs.getInt("teamwon2");
+                        return new SavedStats(0, rs.getLong("timeelapsed"), 0L,
+                                null, rs.getDouble("playercount"), winRatio);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> getDrawFights(long time, String arena) {
+        return ConnectionHolder.executeAsync(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(replace("SELECT COUNT(*) FROM $mw_fights " +
+                    "WHERE $mw_fights.timestart > ?" + getArenaCondition(arena) + " AND $mw_fights.teamwon = 0"))) {
+                setFilter(ps, time, arena);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
+                }
+            }
+            return 0;
+        });
+    }
+
+    /**
+     * The fights are read in the order of the (arena, timestart) index. The page continues 
+     * after the last fight of the previous page, so no skipped rows have to be read.
+     */
+    @Override
+    public CompletableFuture<List<SavedStats>> getStatsPage(long time, String arena, SavedStats after, int limit) {
+        return ConnectionHolder.executeAsync(connection -> {
+            String statement = "SELECT id, arena, teamwon, timeelapsed, timestart, " +
+                    "(SELECT COUNT(*) FROM $mw_fightmember WHERE $mw_fightmember.fid = $mw_fights.id) AS playercount " +
+                    "FROM $mw_fights WHERE $mw_fights.timestart >= ?" + getArenaCondition(arena) +
+                    " AND EXISTS (SELECT 1 FROM $mw_fightmember WHERE $mw_fightmember.fid = $mw_fights.id)" +
+                    ((after != null) ? " AND ($mw_fights.timestart, $mw_fights.id) > (?, ?)" : "") +
+                    " ORDER BY $mw_fights.timestart, $mw_fights.id LIMIT ?";
+            try (PreparedStatement ps = connection.prepareStatement(replace(statement))) {
+                int index = setFilter(ps, time, arena);
+                if (after != null) {
+                    ps.setLong(index++, after.getTimeStart());
+                    ps.setInt(index++, after.getId());
+                }
+                ps.setInt(index, limit);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    List<SavedStats> stats = new ArrayList<>();
+                    while (rs.next()) {
+                        stats.add(new SavedStats(rs.getInt("id"), rs.getLong("timeelapsed"), rs.getLong("timestart"),
+                                rs.getString("arena"), rs.getInt("playercount"), rs.getInt("teamwon")));
+                    }
+                    return stats;
+                }
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> getUniquePlayers(long time, String arena) {
+        return ConnectionHolder.executeAsync(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(replace("SELECT COUNT(DISTINCT($mw_fightmember.player)) as unique_players " +
+                    "FROM $mw_fightmember JOIN $mw_fights ON $mw_fightmember.fid = $mw_fights.id " +
+                    "WHERE $mw_fights.timestart > ?" + getArenaCondition(arena)))) {
+                setFilter(ps, time, arena);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) return rs.getInt("unique_players");
+                }
+            }
+            return 0;
+        });
+    }
+
+    /**
+     * The players are read in the order of the primary key of the fight members. 
+     * The page continues after the last player of the previous page.
+     */
+    @Override
+    public CompletableFuture<List<UUID>> getPlayersPage(long time, String arena, UUID after, int limit) {
+        return ConnectionHolder.executeAsync(connection -> {
+            String statement = "SELECT DISTINCT($mw_fightmember.player) as unique_player " +
+                    "FROM $mw_fightmember JOIN $mw_fights ON $mw_fightmember.fid = $mw_fights.id " +
+                    "WHERE $mw_fights.timestart > ?" + getArenaCondition(arena) +
+                    ((after != null) ? " AND $mw_fightmember.player > ?" : "") +
+                    " ORDER BY $mw_fightmember.player LIMIT ?";
+            try (PreparedStatement ps = connection.prepareStatement(replace(statement))) {
+                int index = setFilter(ps, time, arena);
+                if (after != null) ps.setString(index++, after.toString());
+                ps.setInt(index, limit);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    List<UUID> list = new ArrayList<>();
+                    while (rs.next()) {
+                        list.add(UUID.fromString(rs.getString("unique_player")));
+                    }
+                    return list;
+                }
+            }
+        });
+    }
+
+    /**
+     * The stats of all players are read from the player stats table on one 
+     * connection, with one primary key lookup for each player.
+     */
+    @Override
+    public CompletableFuture<List<PlayerStats>> getStatsFrom(List<UUID> uuids) {
+        return ConnectionHolder.executeAsync(connection -> {
+            List<PlayerStats> stats = new ArrayList<>();
+            try (PreparedStatement ps = connection.prepareStatement(replace("SELECT wins, loses, games, games_team1, games_team2 " +
+                    "FROM $mw_player_stats WHERE player = ?"))) {
+                for (UUID uuid : uuids) {
+                    ps.setString(1, uuid.toString());
+
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            stats.add(new PlayerStats(uuid, rs.getInt("wins"), rs.getInt("loses"),
+                                    rs.getInt("games"), rs.getInt("games_team1"), rs.getInt("games_team2")));
+                        }
+                    }
+                }
+            }
+            return stats;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<FightStats>> getFights() {
+        return ConnectionHolder.executeAsync(connection -> {
+            Map<Integer, Map<UUID, Integer>> members = new LinkedHashMap<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(replace("SELECT fid, player, team FROM $mw_fightmember"))) {
+                while (rs.next()) {
+                    members.computeIfAbsent(rs.getInt("fid"), fid -> new LinkedHashMap<>())
+                            .put(UUID.fromString(rs.getString("player")), rs.getInt("team"));
+                }
+            }
+
+            List<FightStats> fights = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(replace("SELECT id, arena, timestart, timeelapsed, teamwon FROM $mw_fights ORDER BY id"))) {
+                while (rs.next()) {
+                    fights.add(new FightStats(rs.getString("arena"), rs.getLong("timestart"), rs.getLong("timeelapsed"),
+                            rs.getInt("teamwon"), members.getOrDefault(rs.getInt("id"), new LinkedHashMap<>())));
+                }
+            }
+            return fights;
+        });
+    }
+
+    @Override
+    public void close() {
+        // The connections are closed by the connection holder.
+    }
+
+    private String replace(String statement) {
+        // Replace dbs
+        statement = statement.replace("$mw_fights", fightsTable).replace("$mw_fightmember", fightMembersTable)
+                .replace("$mw_player_stats", playerStatsTable);
+        return statement;
+    }
+
+    /**
+     * The arena is matched by the exact name, so that the arena index can be used. 
+     * Without an arena, the fights of all arenas are matched.
+     */
+    private static String getArenaCondition(String arena) {
+        return arena.isEmpty() ? "" : " AND $mw_fights.arena = ?";
+    }
+
+    /**
+     * @return (int) the index of the next parameter
+     */
+    private static int setFilter(PreparedStatement ps, long time, String arena) throws SQLException {
+        int index = 1;
+        ps.setLong(index++, time);
+        if (!arena.isEmpty()) ps.setString(index++, arena);
+        return index;
+    }
+}
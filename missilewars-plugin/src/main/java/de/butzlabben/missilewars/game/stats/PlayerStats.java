@@ -18,6 +18,7 @@
 
 package de.butzlabben.missilewars.game.stats;
 
+import java.util.Comparator;
 import java.util.UUID;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +30,9 @@ import lombok.ToString;
 @ToString(of = {"name", "uuid"})
 public class PlayerStats implements Comparable<PlayerStats> {
 
+    // The stats without a name are sorted to the end.
+    private static final Comparator<String> NAME_ORDER = Comparator.nullsLast(Comparator.naturalOrder());
+
     private final UUID uuid;
     private final int wins, loses;
     private final int gamesPlayed;
@@ -36,6 +40,16 @@ public class PlayerStats implements Comparable<PlayerStats> {
     @Setter
     private String name;
 
+    /**
+     * This method returns a copy of the stats without the name, so that the 
+     * name can be set without changing the shared (cached) stats.
+     *
+     * @return (PlayerStats) the copied stats
+     */
+    public PlayerStats copy() {
+        return new PlayerStats(uuid, wins, loses, gamesPlayed, team1, team2);
+    }
+
     public double getWinToLoseRatio() {
         double loses = this.loses == 0 ? 1 : this.loses;
         return wins / loses;
@@ -51,8 +65,6 @@ public class PlayerStats implements Comparable<PlayerStats> {
 
     @Override
     public int compareTo(PlayerStats o) {
-        if (o.getName() == null) return 0;
-        if (name == null) return 0;
-        return name.compareTo(o.getName());
+        return NAME_ORDER.compare(name, o.getName());
     }
 }
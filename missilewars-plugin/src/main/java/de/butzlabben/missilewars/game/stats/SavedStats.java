@@ -25,6 +25,7 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class SavedStats {
 
+    private final int id;
     private final long timeElapsed, timeStart;
     private final String arena;
     private final double playerCount;
@@ -0,0 +1,124 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.stats;
+
+import de.butzlabben.missilewars.configuration.Config;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import lombok.Getter;
+
+/**
+ * This class caches the results of the aggregate stats queries and the pages of the 
+ * player stats, so that repeated stats views don't query the stats storage again. The 
+ * results only change when a fight is written or the player stats are rebuilt, so the 
+ * cache is cleared after both. 
+ * <p>
+ * The cache is bounded by the number of results and by their age. If the limit is 
+ * reached, the least recently used results are removed first.
+ */
+public class StatsCache {
+
+    @Getter private static final StatsCache instance = new StatsCache();
+
+    private final Map<String, Entry> results = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits = 0;
+    private long misses = 0;
+    private long invalidations = 0;
+
+    private StatsCache() {
+    }
+
+    /**
+     * This method returns the cached result of the query. If there is no valid result, the 
+     * query is started and its future is cached, so that concurrent views share one query. 
+     * A failed query is removed from the cache again.
+     *
+     * @param query (String) the name of the query including its options
+     * @param time (long) the start of the queried period
+     * @param arena (String) the queried arena
+     * @param loader (Supplier) starts the query
+     * @return (CompletableFuture) the result of the query
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> CompletableFuture<T> get(String query, long time, String arena, Supplier<CompletableFuture<T>> loader) {
+        String key = query + ":" + time + ":" + arena;
+        long now = System.currentTimeMillis();
+
+        Entry entry = results.get(key);
+        if ((entry != null) && (now - entry.created < Config.getStatsCacheTtl() * 1000L)) {
+            hits++;
+            return (CompletableFuture<T>) entry.result;
+        }
+
+        misses++;
+        CompletableFuture<T> result = loader.get();
+        Entry newEntry = new Entry(result, now);
+        results.put(key, newEntry);
+        removeEldest();
+
+        result.whenComplete((value, throwable) -> {
+            if (throwable != null) remove(key, newEntry);
+        });
+        return result;
+    }
+
+    /**
+     * This method removes all cached results. It is called, when a fight was written 
+     * to the stats storage.
+     */
+    public synchronized void invalidate() {
+        results.clear();
+        invalidations++;
+    }
+
+    public synchronized String getStatistics() {
+        long requests = hits + misses;
+        double hitRate = (requests == 0) ? 0 : (double) hits / requests * 100;
+        return "Stats cache: " + results.size() + " results, " + hits + " hits, " + misses + " misses ("
+                + Math.round(hitRate) + "% hit rate), " + invalidations + " invalidations";
+    }
+
+    private synchronized void remove(String key, Entry entry) {
+        results.remove(key, entry);
+    }
+
+    private void removeEldest() {
+        int maxSize = Config.getStatsCacheSize();
+        Iterator<Entry> iterator = results.values().iterator();
+        while ((results.size() > maxSize) && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static final class Entry {
+
+        private final CompletableFuture<?> result;
+        private final long created;
+
+        private Entry(CompletableFuture<?> result, long created) {
+            this.result = result;
+            this.created = created;
+        }
+    }
+}
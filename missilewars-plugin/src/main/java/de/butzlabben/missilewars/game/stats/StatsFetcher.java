@@ -18,17 +18,22 @@
 
 package de.butzlabben.missilewars.game.stats;
 
-import de.butzlabben.missilewars.configuration.Config;
-import de.butzlabben.missilewars.util.ConnectionHolder;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.ArrayList;
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.MissileWars;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import lombok.Getter;
 
+/**
+ * This class fetches the fight stats from the stats storage. All queries run 
+ * asynchronously. If a query fails, the error is logged and the future 
+ * completes with the default value. The aggregate results and the pages of the 
+ * player stats are cached in the StatsCache until the next fight is written.
+ */
 @Getter
 public class StatsFetcher {
 
@@ -41,125 +46,56 @@ public class StatsFetcher {
         if (arena == null) {
             arena = "";
         }
-        this.arena = "%" + arena + "%";
+        this.arena = arena;
         time = getTime(from);
     }
 
-    public int getGameCount() {
-        try {
-            PreparedStatement ps = ConnectionHolder.prepareStatement(replace("SELECT COUNT(*) FROM $mw_fights WHERE timestart >= ? AND arena LIKE ?"));
-            ps.setLong(1, time);
-            ps.setString(2, arena);
-            ResultSet rs = ConnectionHolder.executeQuery(ps);
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
+    public CompletableFuture<Integer> getGameCount() {
+        return withDefault(cached("game_count", () -> getStorage().getGameCount(time, arena)), 0);
     }
 
-    public SavedStats getAverageSavedStats(boolean mustBeenWon) {
-        try {
-            String statement = "SELECT AVG(timeelapsed) as timeelapsed, " +
-                    "COUNT(case teamwon when 1 then 1 else null end) AS teamwon1, " +
-                    "COUNT(case teamwon when 2 then 1 else null end) AS teamwon2, " +
-                    "AVG(playercount) as playercount " +
-                    "FROM (" + getAllStatsQuery() + ") fights WHERE timestart >= ? AND teamwon != ?";
-            PreparedStatement ps = ConnectionHolder.prepareStatement(statement);
-            ps.setLong(1, time);
-            ps.setString(2, arena);
-            ps.setLong(3, time);
-            ps.setInt(4, mustBeenWon ? 0 : -1);
-
-            ResultSet rs = ConnectionHolder.executeQuery(ps);
-            if (rs.next()) {
-                double winRatio = (double) rs.getInt("teamwon1") / (double) rs.getInt("teamwon2");
-                return new SavedStats(rs.getLong("timeelapsed"), 0L,
-                        null, rs.getDouble("playercount"), winRatio);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return null;
+    public CompletableFuture<SavedStats> getAverageSavedStats(boolean mustBeenWon) {
+        return withDefault(cached("average_stats_" + mustBeenWon, () -> getStorage().getAverageSavedStats(time, arena, mustBeenWon)), null);
     }
 
-    public int getDrawFights() {
-        try {
-            PreparedStatement ps = ConnectionHolder.prepareStatement(replace("SELECT COUNT(*) FROM $mw_fights " +
-                    "WHERE teamwon = 0 AND timestart > ? AND arena LIKE ?"));
-            ps.setLong(1, time);
-            ps.setString(2, arena);
-            ResultSet rs = ConnectionHolder.executeQuery(ps);
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
+    public CompletableFuture<Integer> getDrawFights() {
+        return withDefault(cached("draw_fights", () -> getStorage().getDrawFights(time, arena)), 0);
     }
 
-    public List<SavedStats> getAllStats() {
-        try {
-            PreparedStatement ps = ConnectionHolder.prepareStatement(getAllStatsQuery());
-            ps.setLong(1, time);
-            ps.setString(2, arena);
-
-            ResultSet rs = ConnectionHolder.executeQuery(ps);
-            List<SavedStats> stats = new ArrayList<>();
-            while (rs.next()) {
-                stats.add(new SavedStats(rs.getLong("timeelapsed"), rs.getLong("timestart"),
-                        rs.getString("arena"), rs.getInt("playercount"), rs.getInt("teamwon")));
-            }
-            return stats;
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    /**
+     * @param after (SavedStats) the last fight of the previous page or null for the first page
+     * @param limit (int) the maximum number of fights
+     * @return (CompletableFuture) the next fights, ordered by the start time
+     */
+    public CompletableFuture<List<SavedStats>> getStatsPage(SavedStats after, int limit) {
+        return withDefault(getStorage().getStatsPage(time, arena, after, limit), List.of());
+    }
 
-        return null;
+    public CompletableFuture<Integer> getUniquePlayers() {
+        return withDefault(cached("unique_players", () -> getStorage().getUniquePlayers(time, arena)), 0);
     }
 
-    public int getUniquePlayers() {
-        try {
-            PreparedStatement ps = ConnectionHolder.prepareStatement(replace("SELECT COUNT(DISTINCT($mw_fightmember.player)) as unique_players " +
-                    "FROM $mw_fightmember JOIN $mw_fights ON $mw_fightmember.fid = $mw_fights.id AND $mw_fights.timestart > ? AND $mw_fights.arena LIKE ?"));
-            ps.setLong(1, time);
-            ps.setString(2, arena);
-            ResultSet rs = ConnectionHolder.executeQuery(ps);
-            if (rs.next()) return rs.getInt("unique_players");
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
+    /**
+     * @param after (UUID) the last player of the previous page or null for the first page
+     * @param limit (int) the maximum number of players
+     * @return (CompletableFuture) the next players, ordered by the UUID
+     */
+    public CompletableFuture<List<UUID>> getPlayersPage(UUID after, int limit) {
+        return withDefault(cached("players_page_" + after + "_" + limit, () -> getStorage().getPlayersPage(time, arena, after, limit).thenApply(List::copyOf)), List.of());
     }
 
-    public List<UUID> getPlayers() {
-        try {
-            PreparedStatement ps = ConnectionHolder.prepareStatement(replace("SELECT DISTINCT($mw_fightmember.player) as unique_player " +
-                    "FROM $mw_fightmember JOIN $mw_fights ON $mw_fightmember.fid = $mw_fights.id AND $mw_fights.timestart > ? AND $mw_fights.arena LIKE ?"));
-            ps.setLong(1, time);
-            ps.setString(2, arena);
-            ResultSet rs = ConnectionHolder.executeQuery(ps);
-            List<UUID> list = new ArrayList<>(getUniquePlayers());
-            while (rs.next()) {
-                list.add(UUID.fromString(rs.getString("unique_player")));
-            }
-            return list;
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return null;
+    public CompletableFuture<PlayerStats> getStatsFrom(UUID uuid) {
+        return getStatsFrom(List.of(uuid)).thenApply(stats -> stats.isEmpty() ? null : stats.get(0));
     }
 
-    private String getAllStatsQuery() {
-        String statement = "SELECT id, arena, teamwon, timeelapsed, timestart, COUNT($mw_fightmember.fid) as playercount " +
-                "FROM $mw_fights JOIN $mw_fightmember " +
-                "ON $mw_fights.id = $mw_fightmember.fid " +
-                "AND $mw_fights.timestart >= ? AND $mw_fights.arena LIKE ? " +
-                "GROUP BY $mw_fights.id";
-        return replace(statement);
+    /**
+     * @param uuids (List) the players
+     * @return (CompletableFuture) the stats of the players, which have played at least one fight, in the given order
+     */
+    public CompletableFuture<List<PlayerStats>> getStatsFrom(List<UUID> uuids) {
+        // The cached stats are shared, so every caller gets its own copies to set the names on.
+        return withDefault(cached("player_stats_" + uuids, () -> getStorage().getStatsFrom(uuids).thenApply(List::copyOf)), List.<PlayerStats>of())
+                .thenApply(stats -> stats.stream().map(PlayerStats::copy).collect(Collectors.toList()));
     }
 
     private long getTime(Date from) {
@@ -169,66 +105,19 @@ public class StatsFetcher {
         return time;
     }
 
-    private String replace(String statement) {
-        // Replace dbs
-        statement = statement.replace("$mw_fights", Config.getFightsTable()).replace("$mw_fightmember", Config.getFightMembersTable());
-        return statement;
+    private static StatsStorage getStorage() {
+        return MissileWars.getInstance().getStatsStorage();
     }
 
+    private <T> CompletableFuture<T> cached(String query, Supplier<CompletableFuture<T>> loader) {
+        return StatsCache.getInstance().get(query, time, arena, loader);
+    }
 
-    public PlayerStats getStatsFrom(UUID uuid) {
-        try {
-            String statement = "SELECT" +
-                    " (SELECT Count(*) AS wins" +
-                    "  FROM $mw_fightmember" +
-                    "  JOIN $mw_fights ON $mw_fightmember.fid = $mw_fights.id" +
-                    "  WHERE $mw_fightmember.player = ?" +
-                    "   AND (($mw_fights.teamwon = 1" +
-                    "         AND $mw_fightmember.team = 1)" +
-                    "        OR ($mw_fights.teamwon = 2" +
-                    "            AND $mw_fightmember.team = 2)) ) AS wins," +
-                    " (SELECT count(*) AS loses" +
-                    "  FROM $mw_fightmember" +
-                    "  JOIN $mw_fights ON $mw_fightmember.fid = $mw_fights.id" +
-                    "  WHERE $mw_fightmember.player = ?" +
-                    "   AND (($mw_fights.teamwon = 1" +
-                    "         AND $mw_fightmember.team = 2)" +
-                    "        OR ($mw_fights.teamwon = 2" +
-                    "            AND $mw_fightmember.team = 1)) ) AS loses," +
-                    " (SELECT count(*) AS games" +
-                    "  FROM $mw_fightmember" +
-                    "  JOIN $mw_fights ON $mw_fightmember.fid = $mw_fights.id" +
-                    "  WHERE $mw_fightmember.player = ? ) AS games_played," +
-                    " (SELECT count(*) AS games_team1" +
-                    "  FROM $mw_fightmember" +
-                    "  JOIN $mw_fights ON $mw_fightmember.fid = $mw_fights.id" +
-                    "  WHERE $mw_fightmember.player = ?" +
-                    "   AND $mw_fightmember.team = 1 ) AS games_team1," +
-                    " (SELECT count(*) AS games_team2" +
-                    "  FROM $mw_fightmember" +
-                    "  JOIN $mw_fights ON $mw_fightmember.fid = $mw_fights.id" +
-                    "  WHERE $mw_fightmember.player = ?" +
-                    "   AND $mw_fightmember.team = 2 ) AS games_team2 " +
-                    "FROM $mw_fightmember " +
-                    "WHERE $mw_fightmember.player = ? " +
-                    "GROUP BY $mw_fightmember.player ";
-            statement = replace(statement);
-            PreparedStatement ps = ConnectionHolder.prepareStatement(statement);
-            ps.setString(1, uuid.toString());
-            ps.setString(2, uuid.toString());
-            ps.setString(3, uuid.toString());
-            ps.setString(4, uuid.toString());
-            ps.setString(5, uuid.toString());
-            ps.setString(6, uuid.toString());
-
-            ResultSet rs = ConnectionHolder.executeQuery(ps);
-            if (rs.next()) {
-                return new PlayerStats(uuid, rs.getInt("wins"), rs.getInt("loses"),
-                        rs.getInt("games_played"), rs.getInt("games_team1"), rs.getInt("games_team2"));
-            }
-        } catch (SQLException e) {
+    private static <T> CompletableFuture<T> withDefault(CompletableFuture<T> future, T defaultValue) {
+        return future.exceptionally(e -> {
+            Logger.ERROR.log("Could not fetch the fight stats: " + e.getMessage());
             e.printStackTrace();
-        }
-        return null;
+            return defaultValue;
+        });
     }
 }
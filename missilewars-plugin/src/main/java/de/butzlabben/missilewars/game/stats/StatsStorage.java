@@ -0,0 +1,128 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.stats;
+
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.MissileWars;
+import java.io.File;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A storage of the fight stats. All queries are executed asynchronously. If a query 
+ * fails, the future completes exceptionally.
+ * <p>
+ * The queries can be filtered by the start time of the fights ('time', in milliseconds) 
+ * and by the arena name ('arena'). The arena filter matches only the arena with exactly 
+ * this name. An empty arena filter matches all arenas.
+ */
+public interface StatsStorage {
+
+    String MYSQL = "MYSQL";
+    String EMBEDDED = "EMBEDDED";
+
+    /**
+     * This method creates the stats storage of the given type.
+     *
+     * @param type (String) the storage type ('MYSQL' or 'EMBEDDED')
+     * @return (StatsStorage) the stats storage
+     */
+    static StatsStorage create(String type) {
+        switch (type.toUpperCase()) {
+            case EMBEDDED:
+                return new EmbeddedStatsStorage(new File(MissileWars.getInstance().getDataFolder(), "fightstats.log"));
+            case MYSQL:
+                return new MySQLStatsStorage();
+            default:
+                Logger.WARN.log("The stats storage '" + type + "' is unknown. Using the MySQL stats storage.");
+                return new MySQLStatsStorage();
+        }
+    }
+
+    /**
+     * @return (String) the storage type
+     */
+    String getType();
+
+    /**
+     * This method prepares the storage, for example by creating the missing tables. It 
+     * is called at startup and before every game, so it has to be cheap, if the 
+     * storage is already prepared.
+     *
+     * @return (CompletableFuture) completes, when the storage is prepared
+     */
+    CompletableFuture<Void> prepare();
+
+    /**
+     * This method writes the fight synchronously. It is called by the stats writer 
+     * on an async thread.
+     *
+     * @param fightStats (FightStats) the finished fight
+     */
+    void writeFight(FightStats fightStats) throws StatsStorageException;
+
+    CompletableFuture<Integer> getGameCount(long time, String arena);
+
+    CompletableFuture<SavedStats> getAverageSavedStats(long time, String arena, boolean mustBeenWon);
+
+    CompletableFuture<Integer> getDrawFights(long time, String arena);
+
+    /**
+     * This method returns the next page of the fights, ordered by the start time and the id. 
+     * The page starts after the given fight, so that the previous pages are not read again.
+     *
+     * @param after (SavedStats) the last fight of the previous page or null for the first page
+     * @param limit (int) the maximum number of fights
+     * @return (CompletableFuture) the fights of the page
+     */
+    CompletableFuture<List<SavedStats>> getStatsPage(long time, String arena, SavedStats after, int limit);
+
+    CompletableFuture<Integer> getUniquePlayers(long time, String arena);
+
+    /**
+     * This method returns the next page of the players, ordered by the UUID.
+     *
+     * @param after (UUID) the last player of the previous page or null for the first page
+     * @param limit (int) the maximum number of players
+     * @return (CompletableFuture) the players of the page
+     */
+    CompletableFuture<List<UUID>> getPlayersPage(long time, String arena, UUID after, int limit);
+
+    /**
+     * @param uuids (List) the players
+     * @return (CompletableFuture) the stats of the players, which have played at least one fight
+     */
+    CompletableFuture<List<PlayerStats>> getStatsFrom(List<UUID> uuids);
+
+    /**
+     * This method calculates the stats of all players again from the saved fights.
+     *
+     * @return (CompletableFuture) the number of players with stats
+     */
+    CompletableFuture<Integer> rebuildPlayerStats();
+
+    /**
+     * @return (CompletableFuture) all fights of the storage, for the transfer to another storage
+     */
+    CompletableFuture<List<FightStats>> getFights();
+
+    void close();
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.stats;
+
+import de.butzlabben.missilewars.Logger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * This class copies the fights from one stats storage into another one, 
+ * for example when a server switches from MySQL to the embedded storage.
+ */
+public class StatsTransfer {
+
+    private StatsTransfer() {
+    }
+
+    /**
+     * This method copies all fights of the source storage into the target storage. A 
+     * fight is skipped, if the target storage already contains a fight of the same 
+     * arena with the same start time, so a transfer can be repeated safely.
+     *
+     * @param source (StatsStorage) the storage to read the fights from
+     * @param target (StatsStorage) the storage to write the fights to
+     * @param executor (Executor) the executor, which writes the fights into the target storage
+     * @return (CompletableFuture) the number of copied fights
+     */
+    public static CompletableFuture<Integer> transfer(StatsStorage source, StatsStorage target, Executor executor) {
+        return CompletableFuture.allOf(source.prepare(), target.prepare())
+                .thenCompose(v -> source.getFights().thenCombine(target.getFights(), (fights, existingFights) -> {
+                    Set<String> existingKeys = new HashSet<>();
+                    for (FightStats fightStats : existingFights) {
+                        existingKeys.add(getKey(fightStats));
+                    }
+
+                    List<FightStats> missingFights = new ArrayList<>();
+                    for (FightStats fightStats : fights) {
+                        if (existingKeys.add(getKey(fightStats))) missingFights.add(fightStats);
+                    }
+
+                    int skippedFights = fights.size() - missingFights.size();
+                    if (skippedFights > 0) Logger.NORMAL.log("Skipped " + skippedFights + " fights, which already exist in the " + target.getType() + " stats storage.");
+                    return missingFights;
+                }))
+                .thenApplyAsync(fights -> copy(fights, target), executor);
+    }
+
+    /**
+     * @return the key of the fight, which identifies a fight in both stats storages
+     */
+    private static String getKey(FightStats fightStats) {
+        return fightStats.getTimeStart() + ":" + fightStats.getArenaName();
+    }
+
+    private static int copy(List<FightStats> fights, StatsStorage target) {
+        long startTime = System.currentTimeMillis();
+        int copiedFights = 0;
+        try {
+            for (FightStats fightStats : fights) {
+                target.writeFight(fightStats);
+                copiedFights++;
+            }
+        } catch (StatsStorageException e) {
+            throw new CompletionException("Could not copy the fights. " + copiedFights + " of " + fights.size() + " fights were copied.", e);
+        }
+        long endTime = System.currentTimeMillis();
+
+        Logger.NORMAL.log("Copied " + copiedFights + " fights into the " + target.getType() + " stats storage in " + (endTime - startTime) + " ms.");
+        return copiedFights;
+    }
+}
@@ -37,8 +37,8 @@ public class EndTimer extends Timer {
 
         switch (seconds) {
             case 15:
-                broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.ENDGAME_TIMER_GAME_STARTS_NEW_IN)
-                        .replace("%seconds%", Integer.toString(seconds)));
+                broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.ENDGAME_TIMER_GAME_STARTS_NEW_IN,
+                        "seconds", seconds));
                 break;
             case 0:
                 getGame().reset();
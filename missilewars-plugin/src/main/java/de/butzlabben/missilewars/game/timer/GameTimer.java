@@ -22,6 +22,7 @@ import de.butzlabben.missilewars.configuration.Config;
 import de.butzlabben.missilewars.configuration.PluginMessages;
 import de.butzlabben.missilewars.game.Game;
 import de.butzlabben.missilewars.game.enums.TeamType;
+import de.butzlabben.missilewars.game.misc.PlaceholderSnapshot;
 import de.redstoneworld.redutilities.player.Messages;
 import org.bukkit.GameMode;
 import org.bukkit.entity.Player;
@@ -52,8 +53,8 @@ public class GameTimer extends Timer {
             case 600:
             case 300:
             case 180:
-                broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.GAME_TIMER_GAME_ENDS_IN_MINUTES)
-                        .replace("%minutes%", Integer.toString(seconds / 60)));
+                broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.GAME_TIMER_GAME_ENDS_IN_MINUTES,
+                        "minutes", seconds / 60));
                 break;
             case 60:
             case 30:
@@ -63,8 +64,8 @@ public class GameTimer extends Timer {
             case 3:
             case 2:
             case 1:
-                broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.GAME_TIMER_GAME_ENDS_IN_SECONDS)
-                        .replace("%seconds%", Integer.toString(seconds)));
+                broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.GAME_TIMER_GAME_ENDS_IN_SECONDS,
+                        "seconds", seconds));
                 break;
             case 0:
                 game.sendGameResult();
@@ -74,6 +75,11 @@ public class GameTimer extends Timer {
                 break;
         }
 
+        game.getEquipmentScheduler().tick();
+
+        // The placeholders show the remaining game duration in minutes.
+        if (seconds % 60 == 0) PlaceholderSnapshot.update(game);
+
         if (seconds % 5 == 0) {
             game.getScoreboardManager().updateScoreboard();
             
@@ -110,7 +116,8 @@ public class GameTimer extends Timer {
             }
         }
 
-        game.checkPortals();
+        // Destroyed portals are detected by the block events. This is only a safety net.
+        if (seconds % 10 == 0) game.checkPortals();
 
         seconds--;
     }
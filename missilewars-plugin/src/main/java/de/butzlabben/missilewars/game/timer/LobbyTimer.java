@@ -73,15 +73,15 @@ public class LobbyTimer extends Timer implements Runnable {
             case 3:
             case 2:
             case 1:
-                broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.LOBBY_TIMER_GAME_STARTS_IN)
-                        .replace("%seconds%", Integer.toString(seconds)));
+                broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.LOBBY_TIMER_GAME_STARTS_IN,
+                        "seconds", seconds));
                 playPling();
                 break;
             case 10:
                 if (getGame().getGameConfig().getMapChooseProcedure() == MapChooseProcedure.MAPVOTING)
                     getGame().getMapVoting().setVotedArena();
-                broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.LOBBY_TIMER_GAME_STARTS_IN)
-                        .replace("%seconds%", Integer.toString(seconds)));
+                broadcast(PluginMessages.getMessage(true, PluginMessages.MessageEnum.LOBBY_TIMER_GAME_STARTS_IN,
+                        "seconds", seconds));
                 playPling();
                 break;
             case 0:
@@ -22,7 +22,7 @@ public class GamesInitialization {
             }
         });
         
-        Bukkit.getScheduler().runTaskTimerAsynchronously(MissileWars.getInstance(), new SignUpdateRunnable(), 20, 20 * 10);
+        Bukkit.getScheduler().runTaskTimer(MissileWars.getInstance(), new SignUpdateRunnable(), 20, 20 * 10);
         
     }
     
@@ -25,6 +25,8 @@ import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 
+import java.util.function.Consumer;
+
 /**
  * @author Butzlabben
  * @since 20.05.2018
@@ -32,16 +34,20 @@ import org.bukkit.inventory.Inventory;
 public class InventoryPage extends OrcInventory {
 
     InventoryPage next, before = null;
+    Consumer<Player> nextLoader = null;
     private int i = 0;
 
     public InventoryPage(String title, int page, int pages) {
         super(title, 6);
 
-        OrcItem oi = new OrcItem(Material.SUNFLOWER, "§aPage §e" + page + " §aof§e " + pages);
+        // Without a known page count, the pages are loaded one after another.
+        String pageName = (pages > 0) ? "§aPage §e" + page + " §aof§e " + pages : "§aPage §e" + page;
+        OrcItem oi = new OrcItem(Material.SUNFLOWER, pageName);
         addItem(5, 4, oi);
 
         oi = new OrcItem(Material.PAPER, "§ePrevious page");
         oi.setOnClick((p, inv, item) -> {
+            if (this.before == null) return;
             p.closeInventory();
             p.openInventory(this.before.getInventory(p));
         });
@@ -49,6 +55,10 @@ public class InventoryPage extends OrcInventory {
 
         oi = new OrcItem(Material.PAPER, "§eNext page");
         oi.setOnClick((p, inv, item) -> {
+            if (this.next == null) {
+                if (this.nextLoader != null) this.nextLoader.accept(p);
+                return;
+            }
             p.closeInventory();
             p.openInventory(this.next.getInventory(p));
         });
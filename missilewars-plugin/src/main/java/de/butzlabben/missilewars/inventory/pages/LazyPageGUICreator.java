@@ -0,0 +1,115 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.inventory.pages;
+
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.MissileWars;
+import de.butzlabben.missilewars.inventory.OrcItem;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+/**
+ * This class shows the elements page by page, like the PageGUICreator. The pages are 
+ * loaded when they are opened for the first time, so that only the pages that were 
+ * already opened have to be kept in memory. These pages are kept, so that they can be 
+ * opened again without another query.
+ */
+public class LazyPageGUICreator<T> {
+
+    private static final Executor MAIN_THREAD = task -> Bukkit.getScheduler().runTask(MissileWars.getInstance(), task);
+
+    private final int elementsPerPage;
+    private final String title;
+    private final PageLoader<T> loader;
+    private final ItemConverter<T> converter;
+    private final List<InventoryPage> invPages = new ArrayList<>();
+    private T lastElement;
+    private boolean loading = false;
+
+    public LazyPageGUICreator(String title, PageLoader<T> loader, ItemConverter<T> converter) {
+        this.title = title;
+        this.loader = loader;
+        this.converter = converter;
+        this.elementsPerPage = 4 * 9;
+    }
+
+    public void show(Player player) {
+        if (!invPages.isEmpty()) {
+            player.openInventory(invPages.get(0).getInventory(player));
+            return;
+        }
+        loadPage(player, null);
+    }
+
+    /**
+     * This method loads the next page asynchronously. One additional element is loaded 
+     * to find out, whether there is a page after the loaded one.
+     *
+     * @param player (Player) the player who opens the page
+     * @param previous (InventoryPage) the last loaded page or null for the first page
+     */
+    private void loadPage(Player player, InventoryPage previous) {
+        if (loading) return;
+        loading = true;
+
+        loader.load(lastElement, elementsPerPage + 1).whenCompleteAsync((elements, throwable) -> {
+            loading = false;
+            if (throwable != null) {
+                Logger.ERROR.log("Could not load the page " + (invPages.size() + 1) + " of '" + title + "': " + throwable.getMessage());
+                return;
+            }
+            addPage(player, previous, elements);
+        }, MAIN_THREAD);
+    }
+
+    private void addPage(Player player, InventoryPage previous, List<T> elements) {
+        if (elements.isEmpty()) {
+            if (previous != null) previous.nextLoader = null;
+            return;
+        }
+
+        boolean hasNext = elements.size() > elementsPerPage;
+        List<T> page = new ArrayList<>(elements.subList(0, Math.min(elements.size(), elementsPerPage)));
+        // The elements are shown in the loaded order, as the next page continues after the last element.
+        lastElement = page.get(page.size() - 1);
+
+        InventoryPage invPage = new InventoryPage(title, invPages.size() + 1, 0);
+        for (T element : page) {
+            OrcItem item = converter.convert(element);
+            invPage.addItem(item);
+        }
+
+        if (previous != null) {
+            previous.next = invPage;
+            previous.nextLoader = null;
+            invPage.before = previous;
+        }
+        if (hasNext) invPage.nextLoader = p -> loadPage(p, invPage);
+        invPages.add(invPage);
+
+        if (player.isOnline()) {
+            player.closeInventory();
+            player.openInventory(invPage.getInventory(player));
+        }
+    }
+}
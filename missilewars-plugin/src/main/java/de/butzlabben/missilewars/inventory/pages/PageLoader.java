@@ -0,0 +1,36 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.inventory.pages;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface PageLoader<T> {
+
+    /**
+     * This method loads the elements after the given element.
+     *
+     * @param after the last element of the previous page or null for the first page
+     * @param limit (int) the maximum number of elements
+     * @return (CompletableFuture) the loaded elements
+     */
+    CompletableFuture<List<T>> load(T after, int limit);
+
+}
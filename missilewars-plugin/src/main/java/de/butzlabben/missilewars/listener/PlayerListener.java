@@ -26,9 +26,12 @@ import de.butzlabben.missilewars.event.PlayerArenaLeaveEvent;
 import de.butzlabben.missilewars.game.Game;
 import de.butzlabben.missilewars.game.GameManager;
 import de.butzlabben.missilewars.game.misc.MotdManager;
+import de.butzlabben.missilewars.player.PlayerRegistry;
+import de.butzlabben.missilewars.util.geometry.Geometry;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -38,12 +41,19 @@ import org.bukkit.event.player.*;
 import org.bukkit.event.server.ServerListPingEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
 /**
  * @author Butzlabben
  * @since 01.01.2018
  */
 public class PlayerListener implements Listener {
 
+    // The last resolved game of every player, to skip the lookup of the 'from' location.
+    private final Map<UUID, RegionState> regionStates = new HashMap<>();
+
     @EventHandler
     public void onPing(ServerListPingEvent event) {
         if (Config.motdEnabled()) {
@@ -53,7 +63,8 @@ public class PlayerListener implements Listener {
 
     @EventHandler
     public void onFoodLevelChange(FoodLevelChangeEvent event) {
-        Game game = getGame(event.getEntity().getLocation());
+        if (!(event.getEntity() instanceof Player)) return;
+        Game game = getGame((Player) event.getEntity());
         if (game == null) return;
 
         event.setCancelled(true);
@@ -61,7 +72,7 @@ public class PlayerListener implements Listener {
 
     @EventHandler
     public void onBlockPlace(BlockPlaceEvent event) {
-        Game game = getGame(event.getPlayer().getLocation());
+        Game game = getGame(event.getPlayer());
         if (game == null) return;
 
         if (event.getPlayer().getGameMode() != GameMode.CREATIVE) event.setBuild(false);
@@ -69,7 +80,7 @@ public class PlayerListener implements Listener {
 
     @EventHandler
     public void onDrop(PlayerDropItemEvent event) {
-        Game game = getGame(event.getPlayer().getLocation());
+        Game game = getGame(event.getPlayer());
         if (game == null) return;
 
         event.setCancelled(true);
@@ -77,7 +88,7 @@ public class PlayerListener implements Listener {
 
     @EventHandler
     public void onPickup(PlayerPickupItemEvent event) {
-        Game game = getGame(event.getPlayer().getLocation());
+        Game game = getGame(event.getPlayer());
         if (game == null) return;
 
         event.setCancelled(true);
@@ -94,7 +105,9 @@ public class PlayerListener implements Listener {
 
     @EventHandler
     public void onQuit(PlayerQuitEvent event) {
-        Game game = getGame(event.getPlayer().getLocation());
+        regionStates.remove(event.getPlayer().getUniqueId());
+
+        Game game = getGame(event.getPlayer());
         if (game == null) return;
 
         Player player = event.getPlayer();
@@ -108,11 +121,12 @@ public class PlayerListener implements Listener {
         Game gameFrom = getGame(from);
         Game gameTo = getGame(to);
 
+        Player player = event.getPlayer();
+        if (to != null) updateRegionState(player, to, gameTo);
+
         // same game:
         if (gameFrom == gameTo) return;
 
-        Player player = event.getPlayer();
-
         // old game handling:
         if (gameFrom != null) registerPlayerArenaLeaveEvent(player, gameFrom);
 
@@ -130,14 +144,18 @@ public class PlayerListener implements Listener {
     public void onMove(PlayerMoveEvent event) {
         Location from = event.getFrom();
         Location to = event.getTo();
-        Game gameFrom = getGame(from);
+
+        // The game can only change, if the player enters another block.
+        if ((to == null) || Geometry.isSameBlock(from, to)) return;
+
+        Player player = event.getPlayer();
+        Game gameFrom = getCachedGame(player, from);
         Game gameTo = getGame(to);
+        updateRegionState(player, to, gameTo);
 
         // same game:
         if (gameFrom == gameTo) return;
 
-        Player player = event.getPlayer();
-
         // old game handling:
         if (gameFrom != null) registerPlayerArenaLeaveEvent(player, gameFrom);
 
@@ -151,6 +169,29 @@ public class PlayerListener implements Listener {
         }.runTaskLater(MissileWars.getInstance(), 2);
     }
 
+    /**
+     * This method returns the game of the location. If the location is the last known block
+     * of the player and the games have not changed since then, the cached game is used.
+     *
+     * @param player (Player) the moving player
+     * @param location (Location) the former location of the player
+     *
+     * @return the Game Object if existing for the location
+     */
+    private Game getCachedGame(Player player, Location location) {
+        RegionState regionState = regionStates.get(player.getUniqueId());
+        if ((regionState != null) && regionState.matches(location, GameManager.getInstance().getLocationIndexVersion())) {
+            return regionState.game;
+        }
+
+        return getGame(location);
+    }
+
+    private void updateRegionState(Player player, Location location, Game game) {
+        RegionState regionState = regionStates.computeIfAbsent(player.getUniqueId(), uuid -> new RegionState());
+        regionState.update(location, game, GameManager.getInstance().getLocationIndexVersion());
+    }
+
     public PlayerArenaJoinEvent registerPlayerArenaJoinEvent(Player player, Game game) {
         PlayerArenaJoinEvent onJoinGame = new PlayerArenaJoinEvent(player, game);
         Bukkit.getPluginManager().callEvent(onJoinGame);
@@ -192,6 +233,21 @@ public class PlayerListener implements Listener {
         return GameManager.getInstance().getGame(location);
     }
 
+    /**
+     * This method gets the game of the player. The game membership is checked first, 
+     * so that the location only needs to be checked for players outside a game.
+     *
+     * @param player (Player) the target player
+     *
+     * @return the Game Object if existing for the player
+     */
+    private Game getGame(Player player) {
+        Game game = PlayerRegistry.getInstance().getGame(player.getUniqueId());
+        if (game != null) return game;
+
+        return getGame(player.getLocation());
+    }
+
     private void logEventDebugMessage(Player player, Game game) {
 
         Logger.DEBUG.log("Location: " + player.getLocation());
@@ -206,4 +262,26 @@ public class PlayerListener implements Listener {
             Logger.DEBUG.log("Arena: not yet selected (Map Voting)");
         }
     }
+
+    private static class RegionState {
+
+        private World world;
+        private int x, y, z;
+        private Game game;
+        private int version;
+
+        private boolean matches(Location location, int currentVersion) {
+            return (version == currentVersion) && (location.getWorld() == world)
+                    && (location.getBlockX() == x) && (location.getBlockY() == y) && (location.getBlockZ() == z);
+        }
+
+        private void update(Location location, Game game, int currentVersion) {
+            this.world = location.getWorld();
+            this.x = location.getBlockX();
+            this.y = location.getBlockY();
+            this.z = location.getBlockZ();
+            this.game = game;
+            this.version = currentVersion;
+        }
+    }
 }
@@ -23,6 +23,7 @@ import de.butzlabben.missilewars.configuration.PluginMessages;
 import de.butzlabben.missilewars.game.Game;
 import de.butzlabben.missilewars.game.GameManager;
 import de.butzlabben.missilewars.game.signs.MWSign;
+import de.butzlabben.missilewars.game.signs.SignRenderer;
 import de.butzlabben.missilewars.game.signs.SignRepository;
 import de.butzlabben.missilewars.util.version.MaterialHelper;
 import org.bukkit.ChatColor;
@@ -94,7 +95,10 @@ public class SignListener implements Listener {
             
             // Removing old sign entry if exists:
             MWSign sign = getSignRepository().getSign(block.getLocation());
-            if (sign != null) getSignRepository().getSigns().remove(sign);
+            if (sign != null) {
+                getSignRepository().getSigns().remove(sign);
+                SignRenderer.getInstance().forget(sign);
+            }
             
             // Updating sign content:
             sign = new MWSign(event.getBlock().getLocation(), gameName);
@@ -107,7 +111,7 @@ public class SignListener implements Listener {
             player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.SIGNEDIT_SIGN_CREATED));
             
         } else {
-            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.SIGNEDIT_GAME_NOT_FOUND).replace("%input%", gameName));
+            player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.SIGNEDIT_GAME_NOT_FOUND, "input", gameName));
             event.setCancelled(true);
             
         }
@@ -126,6 +130,7 @@ public class SignListener implements Listener {
 
         if (player.isSneaking()) {
             getSignRepository().getSigns().remove(sign);
+            SignRenderer.getInstance().forget(sign);
             getSignRepository().saveData();
 
             player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.SIGNEDIT_SIGN_REMOVED));
@@ -35,6 +35,7 @@ import de.butzlabben.missilewars.game.schematics.objects.Missile;
 import de.butzlabben.missilewars.listener.ShieldListener;
 import de.butzlabben.missilewars.menus.inventory.TeamSelectionMenu;
 import de.butzlabben.missilewars.player.MWPlayer;
+import de.butzlabben.missilewars.util.geometry.Geometry;
 import de.butzlabben.missilewars.util.version.MaterialHelper;
 import org.bukkit.*;
 import org.bukkit.entity.EntityType;
@@ -45,6 +46,8 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPhysicsEvent;
 import org.bukkit.event.entity.*;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryOpenEvent;
@@ -55,12 +58,19 @@ import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
 /**
  * @author Butzlabben
  * @since 12.01.2018
  */
 public class GameListener extends GameBoundListener {
 
+    // The players, whose last checked block was outside the allowed area of the arena.
+    private final Set<UUID> outOfBoundsPlayers = new HashSet<>();
+
     public GameListener(Game game) {
         super(game);
     }
@@ -75,6 +85,28 @@ public class GameListener extends GameBoundListener {
         event.blockList().removeIf(b -> b.getType() == Material.NETHER_PORTAL);
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplodePortal(EntityExplodeEvent event) {
+        if (!isInGameWorld(event.getLocation())) return;
+
+        getGame().checkExplodedPortals(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplodePortal(BlockExplodeEvent event) {
+        if (!isInGameWorld(event.getBlock().getLocation())) return;
+
+        getGame().checkExplodedPortals(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPortalPhysics(BlockPhysicsEvent event) {
+        if (event.getBlock().getType() != Material.NETHER_PORTAL) return;
+        if (!isInGameWorld(event.getBlock().getLocation())) return;
+
+        getGame().checkPortalBlock(event.getBlock());
+    }
+
     @EventHandler
     public void onInteract(PlayerInteractEvent event) {
         if (!isInGameWorld(event.getPlayer().getLocation())) return;
@@ -219,9 +251,9 @@ public class GameListener extends GameBoundListener {
             EntityDamageEvent.DamageCause damageCause = player.getLastDamageCause().getCause();
 
             if (damageCause == EntityDamageEvent.DamageCause.BLOCK_EXPLOSION || damageCause == EntityDamageEvent.DamageCause.ENTITY_EXPLOSION) {
-                deathBroadcast = PluginMessages.getMessage(true, PluginMessages.MessageEnum.DIED_EXPLOSION).replace("%player%", player.getDisplayName());
+                deathBroadcast = PluginMessages.getMessage(true, PluginMessages.MessageEnum.DIED_EXPLOSION, "player", player.getDisplayName());
             } else {
-                deathBroadcast = PluginMessages.getMessage(true, PluginMessages.MessageEnum.DIED_NORMAL).replace("%player%", player.getDisplayName());
+                deathBroadcast = PluginMessages.getMessage(true, PluginMessages.MessageEnum.DIED_NORMAL, "player", player.getDisplayName());
             }
 
             getGame().broadcast(deathBroadcast);
@@ -298,26 +330,44 @@ public class GameListener extends GameBoundListener {
 
     @EventHandler
     public void onMove(PlayerMoveEvent event) {
-        if (!isInGameWorld(event.getTo())) return;
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (to == null) return;
 
         Player player = event.getPlayer();
-        if (player.getGameMode() != GameMode.SURVIVAL) return;
 
-        int toY = event.getTo().getBlockY();
+        // As long as the player is inside the allowed area, the height and the border
+        // only need to be checked, if the player enters another block.
+        if (Geometry.isSameBlock(from, to) && !outOfBoundsPlayers.contains(player.getUniqueId())) return;
+
+        if (!isInGameWorld(to) || (player.getGameMode() != GameMode.SURVIVAL)) {
+            outOfBoundsPlayers.remove(player.getUniqueId());
+            return;
+        }
+
+        boolean outOfBounds = false;
+
+        int toY = to.getBlockY();
         if (toY > getGame().getArenaConfig().getMaxMoveHeight()) {
             player.teleport(event.getFrom());
             player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.ARENA_NOT_HIGHER));
+            outOfBounds = true;
         } else if (toY < getGame().getArenaConfig().getDeathHeight()) {
             player.setLastDamageCause(new EntityDamageEvent(player, EntityDamageEvent.DamageCause.FALL, 20));
             player.damage(20.0D);
+            outOfBounds = true;
         }
 
-        Location from = event.getFrom();
-        Location to = event.getTo();
-
-        if (!getGame().isInGameArea(event.getTo())) {
-            if (to != null) Game.knockbackEffect(player, from, to);
+        if (!getGame().isInGameArea(to)) {
+            Game.knockbackEffect(player, from, to);
             player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.ARENA_REACHED_BORDER));
+            outOfBounds = true;
+        }
+
+        if (outOfBounds) {
+            outOfBoundsPlayers.add(player.getUniqueId());
+        } else {
+            outOfBoundsPlayers.remove(player.getUniqueId());
         }
     }
 
@@ -40,7 +40,7 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 @EqualsAndHashCode(of = {"uuid", "id"})
 @Getter
-public class MWPlayer implements Runnable {
+public class MWPlayer {
 
     private static final AtomicLong NEXT_ID = new AtomicLong(0);
     final long id = NEXT_ID.getAndIncrement();
@@ -75,11 +75,6 @@ public class MWPlayer implements Runnable {
         this.playerEquipmentRandomizer = new PlayerEquipmentRandomizer(this, game);
     }
     
-    @Override
-    public void run() {
-        playerEquipmentRandomizer.tick();
-    }
-
     @Override
     public String toString() {
         return "MWPlayer(uuid=" + uuid + ", id=" + id + ", teamName=" + getTeam().getName() + ")";
@@ -19,6 +19,8 @@
 package de.butzlabben.missilewars.player;
 
 import com.google.common.base.Preconditions;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
@@ -32,6 +34,8 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
 import org.jetbrains.annotations.NotNull;
 
 @ToString
@@ -48,7 +52,8 @@ public class PlayerData implements ConfigurationSerializable {
 
     public PlayerData(Player player) {
         uuid = player.getUniqueId();
-        contents = player.getInventory().getContents();
+        // The items are copied, because the returned items mirror the live inventory.
+        contents = copyContents(player.getInventory().getContents());
         gameMode = player.getGameMode();
         health = player.getHealth();
         exp = player.getExp();
@@ -90,15 +95,66 @@ public class PlayerData implements ConfigurationSerializable {
         player.setFoodLevel(foodLevel);
     }
 
-    public void saveToFile(String file) {
-        YamlConfiguration config = new YamlConfiguration();
-        config.set("data", this);
+    /**
+     * This method encodes the player data in the binary format of the inventory stash. 
+     * It can be called asynchronously, as the items are copies.
+     * 
+     * @return (byte[]) the encoded player data
+     */
+    public byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BukkitObjectOutputStream out = new BukkitObjectOutputStream(bytes)) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+            out.writeUTF(gameMode.name());
+            out.writeDouble(health);
+            out.writeFloat(exp);
+            out.writeInt(expLevel);
+            out.writeInt(foodLevel);
+            out.writeLong(time);
+            out.writeInt(contents.length);
+            for (ItemStack item : contents) {
+                out.writeObject(item);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * This method decodes the player data from the binary format of the inventory stash.
+     * 
+     * @param data (byte[]) the encoded player data
+     * @return (PlayerData) the decoded player data
+     */
+    public static PlayerData fromBytes(byte[] data) throws IOException {
+        try (BukkitObjectInputStream in = new BukkitObjectInputStream(new ByteArrayInputStream(data))) {
+            UUID uuid = new UUID(in.readLong(), in.readLong());
+            GameMode gameMode = GameMode.valueOf(in.readUTF());
+            double health = in.readDouble();
+            float exp = in.readFloat();
+            int expLevel = in.readInt();
+            int foodLevel = in.readInt();
+            long time = in.readLong();
+            ItemStack[] contents = new ItemStack[in.readInt()];
+            for (int i = 0; i < contents.length; i++) {
+                contents[i] = (ItemStack) in.readObject();
+            }
+            return new PlayerData(uuid, contents, gameMode, health, exp, expLevel, foodLevel, time);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Could not decode the items of the player data", e);
+        }
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
 
-        try {
-            config.save(file);
-        } catch (IOException e) {
-            e.printStackTrace();
+    private static ItemStack[] copyContents(ItemStack[] contents) {
+        ItemStack[] copy = new ItemStack[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            copy[i] = (contents[i] == null) ? null : contents[i].clone();
         }
+        return copy;
     }
 
     /**
@@ -0,0 +1,86 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.player;
+
+import de.butzlabben.missilewars.game.Game;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class knows the game membership of all players. It is maintained by the
+ * join and leave managers of the games and can also be used from async threads,
+ * for example by PlaceholderAPI requests.
+ */
+public class PlayerRegistry {
+
+    @Getter
+    private static final PlayerRegistry instance = new PlayerRegistry();
+
+    private final Map<UUID, MWPlayer> players = new ConcurrentHashMap<>();
+
+    /**
+     * This method registers the player as a member of the game, which the player has joined.
+     *
+     * @param mwPlayer (MWPlayer) the new game member
+     */
+    public void register(MWPlayer mwPlayer) {
+        players.put(mwPlayer.getUuid(), mwPlayer);
+    }
+
+    /**
+     * This method removes the player, as long as the player was not registered again
+     * for another game in the meantime.
+     *
+     * @param mwPlayer (MWPlayer) the former game member
+     */
+    public void unregister(MWPlayer mwPlayer) {
+        players.remove(mwPlayer.getUuid(), mwPlayer);
+    }
+
+    /**
+     * This method removes all players of the game.
+     *
+     * @param game (Game) the game to be removed
+     */
+    public void unregisterAll(Game game) {
+        players.values().removeIf(mwPlayer -> mwPlayer.getGame() == game);
+    }
+
+    /**
+     * @param uuid (UUID) the UUID of the player
+     *
+     * @return the MissileWars player or 'null', if the player is not in a game
+     */
+    public MWPlayer getPlayer(UUID uuid) {
+        return players.get(uuid);
+    }
+
+    /**
+     * @param uuid (UUID) the UUID of the player
+     *
+     * @return the game of the player or 'null', if the player is not in a game
+     */
+    public Game getGame(UUID uuid) {
+        MWPlayer mwPlayer = players.get(uuid);
+        return (mwPlayer == null) ? null : mwPlayer.getGame();
+    }
+}
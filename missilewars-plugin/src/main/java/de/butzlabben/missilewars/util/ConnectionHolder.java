@@ -23,98 +23,334 @@ import de.butzlabben.missilewars.MissileWars;
 import de.butzlabben.missilewars.configuration.Config;
 import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
 
 /**
+ * This class holds the pooled database connections. A statement borrows a connection 
+ * and runs either on the calling thread or asynchronously on the bounded query executor. 
+ * The idle connections are checked periodically instead of before every statement.
+ *
  * @author Butzlabben
  * @since 13.08.2018
  */
 public class ConnectionHolder {
 
+    // The prepared statements are cached by the driver for every connection.
+    private static final String CONNECTION_PROPERTIES = "?cachePrepStmts=true&useServerPrepStmts=true"
+            + "&prepStmtCacheSize=64&prepStmtCacheSqlLimit=2048";
+    private static final int QUEUE_SIZE = 256;
+    private static final long BORROW_TIMEOUT = 10;
+    private static final int VALIDATION_TIMEOUT = 5;
+    private static final long HEALTH_CHECK_PERIOD = 20 * 60;
+
     private static final Object lock = new Object();
-    private static Connection connection;
+    private static final BlockingQueue<Connection> idleConnections = new LinkedBlockingQueue<>();
+    private static final AtomicInteger openConnections = new AtomicInteger();
+    private static volatile boolean open = false;
+    private static String url;
+    private static String user;
+    private static String password;
+    private static int poolSize;
+    private static ThreadPoolExecutor executor;
+    private static BukkitTask healthCheckTask;
 
     private ConnectionHolder() {
     }
 
-    public static void connect(String host, String database, String port, String user, String password) {
+    public static void connect(String host, String database, String port, String user, String password, int poolSize) throws SQLException {
         synchronized (lock) {
             try {
                 Class.forName("com.mysql.jdbc.Driver");
             } catch (ClassNotFoundException e) {
                 Logger.ERROR.log("[MySQL] §cDrivers are not working properly");
-                Bukkit.getPluginManager().disablePlugin(MissileWars.getInstance());
-                return;
+                Bukkit.getScheduler().runTask(MissileWars.getInstance(), () -> Bukkit.getPluginManager().disablePlugin(MissileWars.getInstance()));
+                throw new SQLException("The MySQL driver is not available", e);
             }
-            try {
-                if (connection != null && !connection.isClosed())
-                    connection.close();
-                connection = DriverManager.getConnection("jdbc:mysql://" + host + ":" + port + "/" + database + "?user="
-                        + user + "&password=" + password);
-            } catch (SQLException e) {
-                Logger.ERROR.log("[MySQL] Failed to connect with given server:");
-                e.printStackTrace();
-                Bukkit.getPluginManager().disablePlugin(MissileWars.getInstance());
+
+            connect("jdbc:mysql://" + host + ":" + port + "/" + database + CONNECTION_PROPERTIES, user, password, poolSize);
+
+            // No task can be scheduled, if the pool is opened while the plugin is disabled.
+            if (MissileWars.getInstance().isEnabled()) {
+                healthCheckTask = Bukkit.getScheduler().runTaskTimerAsynchronously(MissileWars.getInstance(),
+                        ConnectionHolder::checkIdleConnections, HEALTH_CHECK_PERIOD, HEALTH_CHECK_PERIOD);
             }
         }
     }
 
+    /**
+     * This method opens the pool for the given JDBC url. If a pool is already 
+     * open, it is closed first. The idle connections are not checked periodically.
+     *
+     * @param url (String) the JDBC url of the database
+     * @param user (String) the database user
+     * @param password (String) the password of the database user
+     * @param poolSize (int) the maximum number of connections
+     */
+    public static void connect(String url, String user, String password, int poolSize) {
+        synchronized (lock) {
+            if (open) closePool();
+
+            ConnectionHolder.url = url;
+            ConnectionHolder.user = user;
+            ConnectionHolder.password = password;
+            ConnectionHolder.poolSize = Math.max(poolSize, 1);
+
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = new ThreadPoolExecutor(ConnectionHolder.poolSize, ConnectionHolder.poolSize, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "MissileWars-Database-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            open = true;
+        }
+    }
+
+    public static void connect() throws SQLException {
+        connect(Config.getHost(), Config.getDatabase(), Config.getPort(), Config.getUser(), Config.getPassword(), Config.getPoolSize());
+    }
+
+    /**
+     * This method waits for the queued statements and closes all connections.
+     */
     public static void close() {
         synchronized (lock) {
-            try {
-                if (connection == null || connection.isClosed()) {
-                    Logger.ERROR.log("[MySQL] Connection does not exist or was already closed");
-                    return;
+            if (!open) return;
+            closePool();
+        }
+    }
+
+    /**
+     * This method executes the database operations on the calling thread 
+     * with a connection of the pool.
+     *
+     * @param query (Query) the database operations
+     * @return the result of the operations
+     */
+    public static <T> T execute(Query<T> query) throws SQLException {
+        Connection connection = borrowConnection();
+        boolean broken = false;
+        try {
+            return query.run(connection);
+        } catch (SQLException | RuntimeException | Error e) {
+            broken = !isValid(connection);
+            throw e;
+        } finally {
+            releaseConnection(connection, broken);
+        }
+    }
+
+    /**
+     * This method executes the database operations asynchronously on the query 
+     * executor. If the executor queue is full, the future fails immediately.
+     *
+     * @param query (Query) the database operations
+     * @return (CompletableFuture) the result of the operations
+     */
+    public static <T> CompletableFuture<T> executeAsync(Query<T> query) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            getExecutor().execute(() -> {
+                try {
+                    future.complete(execute(query));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
                 }
+            });
+        } catch (SQLException | RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * This method executes the given database operations in one transaction. If an
+     * operation fails, the transaction is rolled back and the exception is thrown.
+     *
+     * @param transaction (Transaction) the database operations
+     */
+    public static void executeTransaction(Transaction transaction) throws SQLException {
+        execute(connection -> runTransaction(connection, transactionConnection -> {
+            transaction.run(transactionConnection);
+            return null;
+        }));
+    }
+
+    /**
+     * This method executes the given database operations asynchronously in one 
+     * transaction on the query executor. If an operation fails, the transaction 
+     * is rolled back and the future fails.
+     *
+     * @param query (Query) the database operations
+     * @return (CompletableFuture) the result of the operations
+     */
+    public static <T> CompletableFuture<T> executeTransactionAsync(Query<T> query) {
+        return executeAsync(connection -> runTransaction(connection, query));
+    }
+
+    /**
+     * This method runs the operations in one transaction. Every exception rolls the 
+     * transaction back, because the connection would commit it when auto-commit is 
+     * enabled again. If the rollback fails, the connection is closed, so it is not 
+     * returned to the pool.
+     */
+    private static <T> T runTransaction(Connection connection, Query<T> query) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            T result = query.run(connection);
+            connection.commit();
+            return result;
+        } catch (Throwable e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackException) {
+                e.addSuppressed(rollbackException);
                 connection.close();
-            } catch (SQLException e) {
-                Logger.ERROR.log("[MySQL] Connection could not be closed");
-                e.printStackTrace();
             }
+            throw e;
         }
     }
 
-    public static PreparedStatement prepareStatement(String sql) throws SQLException {
+    public static String getStatistics() {
+        if (!open) return "Database pool: not connected";
+
+        return "Database pool: " + openConnections.get() + "/" + poolSize + " connections (" + idleConnections.size() + " idle), "
+                + executor.getQueue().size() + " queued statements, " + executor.getCompletedTaskCount() + " completed";
+    }
+
+    private static ThreadPoolExecutor getExecutor() throws SQLException {
         synchronized (lock) {
-            if (!isConnectionValid())
-                connect();
-            return connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            ensureOpen();
+            return executor;
         }
     }
 
-    public static ResultSet executeQuery(PreparedStatement ps) throws SQLException {
+    private static void ensureOpen() throws SQLException {
         synchronized (lock) {
-            if (!isConnectionValid())
-                connect();
-            return ps.executeQuery();
+            if (!open) connect();
         }
     }
 
-    public static int executeUpdate(PreparedStatement ps) throws SQLException {
-        synchronized (lock) {
-            if (!isConnectionValid())
-                connect();
-            return ps.executeUpdate();
+    private static Connection borrowConnection() throws SQLException {
+        if (!open) ensureOpen();
+
+        Connection connection = idleConnections.poll();
+        if (connection != null) return connection;
+
+        if (openConnections.incrementAndGet() <= poolSize) {
+            try {
+                return DriverManager.getConnection(url, user, password);
+            } catch (SQLException e) {
+                openConnections.decrementAndGet();
+                Logger.ERROR.log("[MySQL] Failed to connect with given server: " + e.getMessage());
+                throw e;
+            }
+        }
+        openConnections.decrementAndGet();
+
+        try {
+            connection = idleConnections.poll(BORROW_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
         }
+        if (connection == null) throw new SQLException("No database connection available after " + BORROW_TIMEOUT + " seconds");
+        return connection;
     }
 
-    public static Connection getConnection() throws SQLException {
-        synchronized (lock) {
-            if (!isConnectionValid())
-                connect();
-            return connection;
+    private static void releaseConnection(Connection connection, boolean broken) {
+        if (broken || !open) {
+            discardConnection(connection);
+            return;
+        }
+
+        try {
+            if (!connection.getAutoCommit()) connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            discardConnection(connection);
+            return;
+        }
+        idleConnections.offer(connection);
+    }
+
+    private static void discardConnection(Connection connection) {
+        openConnections.decrementAndGet();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * This method closes the idle connections that are no longer valid, for 
+     * example because the database server closed them after a timeout.
+     */
+    private static void checkIdleConnections() {
+        List<Connection> connections = new ArrayList<>();
+        idleConnections.drainTo(connections);
+
+        int invalidConnections = 0;
+        for (Connection connection : connections) {
+            if (isValid(connection)) {
+                idleConnections.offer(connection);
+            } else {
+                discardConnection(connection);
+                invalidConnections++;
+            }
+        }
+
+        if (invalidConnections > 0) Logger.DEBUG.log("[MySQL] Closed " + invalidConnections + " invalid connection(s).");
+    }
+
+    private static void closePool() {
+        open = false;
+        if (healthCheckTask != null) healthCheckTask.cancel();
+        healthCheckTask = null;
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                Logger.WARN.log("[MySQL] Timed out while waiting for the queued statements.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Connection> connections = new ArrayList<>();
+        idleConnections.drainTo(connections);
+        for (Connection connection : connections) {
+            discardConnection(connection);
         }
     }
 
-    public static void connect() {
-        connect(Config.getHost(), Config.getDatabase(), Config.getPort(), Config.getUser(), Config.getPassword());
+    public interface Query<T> {
+
+        T run(Connection connection) throws SQLException;
     }
 
-    public static boolean isConnectionValid() throws SQLException {
-        return connection != null && !connection.isClosed() && connection.isValid(5);
+    public interface Transaction {
+
+        void run(Connection connection) throws SQLException;
     }
 }
@@ -67,7 +67,7 @@ public class MoneyUtil {
             Logger.WARN.log("Message: " + r.errorMessage);
         } else {
             if (Bukkit.getPlayer(uuid) != null)
-                Bukkit.getPlayer(uuid).sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.GAME_RESULT_MONEY).replace("%money%", Integer.toString(money)));
+                Bukkit.getPlayer(uuid).sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.GAME_RESULT_MONEY, "money", money));
         }
     }
 }
@@ -0,0 +1,302 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.util;
+
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.player.PlayerData;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is the append-only journal of the stashed player data. Every stored 
+ * inventory and every restored inventory is appended as a record and synced to the 
+ * disk on an own I/O thread. At startup, the journal is replayed, so that the 
+ * inventories of players that were in a game during a crash are not lost.
+ * <p>
+ * The journal is emptied as soon as no stashed player data is left. If players keep 
+ * joining and leaving, it is compacted on the I/O thread once it gets too large.
+ */
+class PlayerDataJournal {
+
+    private static final byte STORE = 1;
+    private static final byte RELEASE = 2;
+
+    private static final long COMPACT_SIZE = 4 * 1024 * 1024;
+    private static final int COMPACT_RECORDS = 1000;
+
+    private final File file;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MissileWars-Inventory-Stash");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // These fields are only used by the I/O thread after the replay.
+    private final Set<UUID> journaledPlayers = new HashSet<>();
+    private FileChannel channel;
+    private int appendedRecords = 0;
+
+    PlayerDataJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * This method reads the journal and rewrites it with only the player data 
+     * that was not restored yet. It is called synchronously at startup.
+     *
+     * @return (Map) the player data that was not restored yet
+     */
+    Map<UUID, PlayerData> replay() {
+        Map<UUID, byte[]> records;
+        try {
+            records = readRecords();
+        } catch (IOException e) {
+            // The journal is kept as a backup, so that the inventories can be restored manually.
+            File backup = new File(file.getPath() + "." + System.currentTimeMillis() + ".broken");
+            Logger.ERROR.log("[Inventory-Stash] Could not read the journal " + file.getPath() + ". It is moved to " + backup.getName());
+            e.printStackTrace();
+            if (!file.renameTo(backup)) Logger.ERROR.log("[Inventory-Stash] Could not move the journal " + file.getPath());
+            return new LinkedHashMap<>();
+        }
+        
+        Map<UUID, PlayerData> playerData = new LinkedHashMap<>();
+
+        for (Map.Entry<UUID, byte[]> record : records.entrySet()) {
+            try {
+                playerData.put(record.getKey(), PlayerData.fromBytes(record.getValue()));
+            } catch (IOException e) {
+                Logger.ERROR.log("[Inventory-Stash] Could not decode the stashed inventory of " + record.getKey());
+                e.printStackTrace();
+            }
+        }
+
+        compact(records);
+        return playerData;
+    }
+
+    /**
+     * This method appends the player data to the journal on the I/O thread.
+     *
+     * @param playerData (PlayerData) the snapshot of the player data
+     * @return (Future) 'true', when the player data is synced to the disk
+     */
+    Future<Boolean> store(PlayerData playerData) {
+        return executor.submit(() -> {
+            try {
+                append(STORE, playerData.getUuid(), playerData.toBytes());
+                journaledPlayers.add(playerData.getUuid());
+                return true;
+            } catch (IOException e) {
+                Logger.ERROR.log("[Inventory-Stash] Could not save the inventory of " + playerData.getUuid() + " to the journal.");
+                e.printStackTrace();
+                return false;
+            }
+        });
+    }
+
+    /**
+     * This method marks the player data as restored on the I/O thread. If no 
+     * stashed player data is left, the journal is cleared. Otherwise, it is 
+     * compacted, if it has grown too large.
+     *
+     * @param uuid (UUID) the player
+     */
+    void release(UUID uuid) {
+        executor.execute(() -> {
+            if (!journaledPlayers.remove(uuid)) return;
+
+            try {
+                if (journaledPlayers.isEmpty()) {
+                    getChannel().truncate(0);
+                    getChannel().force(true);
+                    appendedRecords = 0;
+                } else {
+                    append(RELEASE, uuid, null);
+                    compactIfNeeded();
+                }
+            } catch (IOException e) {
+                Logger.ERROR.log("[Inventory-Stash] Could not release the inventory of " + uuid + " in the journal.");
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * This method waits for the pending records and closes the journal.
+     */
+    void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                Logger.WARN.log("[Inventory-Stash] Timed out while writing the journal.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            Logger.WARN.log("[Inventory-Stash] Could not close the journal: " + e.getMessage());
+        }
+    }
+
+    private void append(byte type, UUID uuid, byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeRecord(out, type, uuid, data);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        FileChannel fileChannel = getChannel();
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+        fileChannel.force(false);
+        appendedRecords++;
+    }
+
+    /**
+     * This method compacts the journal on the I/O thread, if it contains too many
+     * records or has become too large since the last compaction.
+     */
+    private void compactIfNeeded() throws IOException {
+        if ((appendedRecords < COMPACT_RECORDS) && (getChannel().size() < COMPACT_SIZE)) return;
+
+        Map<UUID, byte[]> records = readRecords();
+
+        // The channel is reopened for the new journal with the next record.
+        channel.close();
+        channel = null;
+
+        long startTime = System.currentTimeMillis();
+        compact(records);
+        long endTime = System.currentTimeMillis();
+
+        appendedRecords = records.size();
+        Logger.DEBUG.log("[Inventory-Stash] Compacted the journal to " + records.size() + " record(s) in " + (endTime - startTime) + " ms.");
+    }
+
+    private static void writeRecord(DataOutputStream out, byte type, UUID uuid, byte[] data) throws IOException {
+        out.writeByte(type);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+        if (type == STORE) {
+            out.writeInt(data.length);
+            out.write(data);
+        }
+    }
+
+    private FileChannel getChannel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    /**
+     * @return the encoded player data, that was stored and not released yet
+     */
+    private Map<UUID, byte[]> readRecords() throws IOException {
+        Map<UUID, byte[]> records = new LinkedHashMap<>();
+        if (!file.exists()) return records;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                byte type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                UUID uuid = new UUID(in.readLong(), in.readLong());
+                if (type == STORE) {
+                    byte[] data = new byte[in.readInt()];
+                    in.readFully(data);
+                    // The first stored inventory is the original one.
+                    records.putIfAbsent(uuid, data);
+                } else if (type == RELEASE) {
+                    records.remove(uuid);
+                } else {
+                    throw new IOException("Unknown record type " + type);
+                }
+            }
+        } catch (EOFException e) {
+            // The last record was not completely written, for example because of a crash.
+            Logger.WARN.log("[Inventory-Stash] The last entry of the journal is incomplete and is skipped.");
+        }
+        return records;
+    }
+
+    /**
+     * This method rewrites the journal with only the remaining records. The new 
+     * journal replaces the old one atomically.
+     */
+    private void compact(Map<UUID, byte[]> records) {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            try (FileChannel tempChannel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (DataOutputStream out = new DataOutputStream(bytes)) {
+                    for (Map.Entry<UUID, byte[]> record : records.entrySet()) {
+                        writeRecord(out, STORE, record.getKey(), record.getValue());
+                    }
+                }
+
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    tempChannel.write(buffer);
+                }
+                tempChannel.force(true);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journaledPlayers.addAll(records.keySet());
+
+        } catch (IOException e) {
+            // The old journal is kept, so that no inventory is lost.
+            Logger.ERROR.log("[Inventory-Stash] Could not compact the journal " + file.getPath());
+            e.printStackTrace();
+            journaledPlayers.addAll(records.keySet());
+        }
+    }
+}
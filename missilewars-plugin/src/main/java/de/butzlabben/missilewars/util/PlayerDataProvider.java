@@ -25,48 +25,67 @@ import org.bukkit.GameMode;
 import org.bukkit.entity.Player;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class PlayerDataProvider {
 
     private static final PlayerDataProvider instance = new PlayerDataProvider();
+    // The stashed player data is kept in memory and is only written to the journal asynchronously.
     private final Map<UUID, PlayerData> data = new HashMap<>();
     private final File playerDataDirectory;
+    private final PlayerDataJournal journal;
 
     private PlayerDataProvider() {
         playerDataDirectory = new File(MissileWars.getInstance().getDataFolder(), "data");
         playerDataDirectory.mkdirs();
+        journal = new PlayerDataJournal(new File(playerDataDirectory, "inventories.journal"));
     }
 
     public static PlayerDataProvider getInstance() {
         return instance;
     }
 
+    /**
+     * This method loads the player data, that was not restored before the last 
+     * shutdown (for example because of a crash), from the journal. The player data 
+     * is restored when the player leaves the next game. Old player data files 
+     * are moved to the journal.
+     */
+    public void loadStash() {
+        data.putAll(journal.replay());
+        migrateFiles();
+
+        if (!data.isEmpty()) {
+            Logger.NORMAL.log("[Inventory-Stash] Found " + data.size() + " stashed inventories which are not restored yet.");
+        }
+    }
+
+    /**
+     * This method waits for the journal writes and closes the journal.
+     */
+    public void close() {
+        journal.close();
+    }
+
     public void storeInventory(Player player) {
         UUID uuid = player.getUniqueId();
         if (data.containsKey(uuid)) return;
 
-        File file = getPathFromUUID(uuid);
-        if (file.exists() && file.isFile()) return;
-
+        // The snapshot is taken on the main thread. It is encoded and saved on the I/O thread.
         PlayerData playerData = new PlayerData(player);
         data.put(uuid, playerData);
-        playerData.saveToFile(file.getPath());
+        journal.store(playerData);
     }
 
     public void loadInventory(Player player) {
         UUID uuid = player.getUniqueId();
-        PlayerData playerData = null;
-        File file = getPathFromUUID(player.getUniqueId());
-
-        // getting data
-        if (data.containsKey(uuid)) {
-            playerData = data.get(uuid);
-        } else if (file.exists()) {
-            playerData = PlayerData.loadFromFile(file);
-        }
+        PlayerData playerData = data.get(uuid);
 
         // applying data
         if (playerData != null) {
@@ -79,11 +98,47 @@ public class PlayerDataProvider {
 
         // deleting old data
         data.remove(uuid);
-        if (file.exists()) file.delete();
+        journal.release(uuid);
     }
 
-    public File getPathFromUUID(UUID uuid) {
-        return new File(playerDataDirectory, uuid.toString() + ".yml");
+    /**
+     * This method moves the player data files of older plugin versions to the journal.
+     */
+    private void migrateFiles() {
+        File[] files = playerDataDirectory.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files == null) return;
+
+        List<File> migratedFiles = new ArrayList<>();
+        List<Future<Boolean>> writes = new ArrayList<>();
+        for (File file : files) {
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(file.getName().substring(0, file.getName().length() - ".yml".length()));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+
+            if (!data.containsKey(uuid)) {
+                PlayerData playerData = PlayerData.loadFromFile(file);
+                if (playerData == null) continue;
+
+                data.put(uuid, playerData);
+                writes.add(journal.store(playerData));
+                migratedFiles.add(file);
+            }
+        }
+
+        // The old files are only deleted when the player data is synced to the journal.
+        for (int i = 0; i < writes.size(); i++) {
+            try {
+                if (writes.get(i).get()) migratedFiles.get(i).delete();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                Logger.WARN.log("[Inventory-Stash] Could not move " + migratedFiles.get(i).getName() + " to the journal.");
+            }
+        }
     }
 
     public static void applyDefaultValues(Player player) {
@@ -0,0 +1,107 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.butzlabben.missilewars.util.geometry;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Arrays;
+
+/**
+ * This class is a compact list of block positions. Each position is packed
+ * into a single long value (26 bits X, 26 bits Z, 12 bits Y), so that large
+ * amounts of positions can be stored without any Location objects.
+ */
+public class BlockPositions {
+
+    private long[] positions;
+    private int size = 0;
+
+    public BlockPositions() {
+        this(64);
+    }
+
+    public BlockPositions(int initialCapacity) {
+        positions = new long[Math.max(initialCapacity, 1)];
+    }
+
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int unpackX(long position) {
+        return (int) (position >> 38);
+    }
+
+    public static int unpackY(long position) {
+        return (int) (position << 52 >> 52);
+    }
+
+    public static int unpackZ(long position) {
+        return (int) (position << 26 >> 38);
+    }
+
+    public void add(int x, int y, int z) {
+        addPacked(pack(x, y, z));
+    }
+
+    public void addPacked(long position) {
+        if (size == positions.length) positions = Arrays.copyOf(positions, size * 2);
+        positions[size++] = position;
+    }
+
+    public void addAll(BlockPositions other) {
+        for (int i = 0; i < other.size; i++) {
+            addPacked(other.positions[i]);
+        }
+    }
+
+    public long get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        return positions[index];
+    }
+
+    public int getX(int index) {
+        return unpackX(get(index));
+    }
+
+    public int getY(int index) {
+        return unpackY(get(index));
+    }
+
+    public int getZ(int index) {
+        return unpackZ(get(index));
+    }
+
+    public Location toLocation(World world, int index) {
+        return new Location(world, getX(index), getY(index), getZ(index));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -87,4 +87,21 @@ public class Geometry {
         return targetLocation.getWorld().getName().equals(world.getName());
     }
 
+    /**
+     * This method checks if both locations are in the same block. Movements that
+     * only change the view direction or the position within a block are ignored
+     * this way.
+     *
+     * @param pos1 (Location) location 1
+     * @param pos2 (Location) location 2
+     *
+     * @return true, if both locations are in the same block of the same world
+     */
+    public static boolean isSameBlock(Location pos1, Location pos2) {
+        return (pos1.getWorld() == pos2.getWorld())
+                && (pos1.getBlockX() == pos2.getBlockX())
+                && (pos1.getBlockY() == pos2.getBlockY())
+                && (pos1.getBlockZ() == pos2.getBlockZ());
+    }
+
 }
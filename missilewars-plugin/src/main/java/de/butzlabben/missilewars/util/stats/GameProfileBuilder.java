@@ -19,55 +19,257 @@
 package de.butzlabben.missilewars.util.stats;
 
 import com.google.gson.*;
+import com.google.gson.reflect.TypeToken;
 import com.mojang.authlib.GameProfile;
 import com.mojang.authlib.properties.Property;
 import com.mojang.authlib.properties.PropertyMap;
 import com.mojang.util.UUIDTypeAdapter;
+import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.configuration.Config;
 import lombok.Getter;
+import lombok.Setter;
 import org.yaml.snakeyaml.external.biz.base64Coder.Base64Coder;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.*;
 import java.lang.reflect.Type;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * This class fetches the game profiles from the Mojang session server. The names and 
+ * skins of the fetched profiles are cached in a size-bounded LRU cache, which is saved 
+ * to disk. The fetches run concurrently on a small thread pool, are rate limited and 
+ * share one future per player.
+ *
  * @author Butzlabben
  * @since 26.02.2018
  */
 public class GameProfileBuilder {
 
+    private static final String SESSION_SERVER_URL = "https://sessionserver.mojang.com";
+    private static final String PROFILE_PATH = "/session/minecraft/profile/%s?unsigned=false";
+    private static final int FETCH_THREADS = 3;
+    private static final int TIMEOUT = 5000;
+
     private static final Gson gson = new GsonBuilder().disableHtmlEscaping()
             .registerTypeAdapter(UUID.class, new UUIDTypeAdapter())
             .registerTypeAdapter(GameProfile.class, new GameProfileSerializer())
             .registerTypeAdapter(PropertyMap.class, new PropertyMap.Serializer()).create();
-    @Getter
-    private static final Map<UUID, CachedProfile> cache = new HashMap<>();
+    private static final Map<UUID, CachedProfile> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Map<UUID, CompletableFuture<GameProfile>> fetches = new ConcurrentHashMap<>();
     private static final Object sync = new Object();
-    private static long cacheTime = -1L;
+    private static final Object rateLimit = new Object();
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService executor = Executors.newFixedThreadPool(FETCH_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "MissileWars-Profile-Fetcher-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    // The base url of the session server, which can be replaced by a stand-in server.
+    @Setter private static volatile String sessionServerUrl = SESSION_SERVER_URL;
+    private static long nextRequest = 0L;
+    private static File cacheFile;
+    private static boolean changed = false;
 
     public static GameProfile fetch(UUID uuid) throws IOException {
-        return fetch(uuid, false);
+        try {
+            return fetchAsync(uuid).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        }
     }
 
-    public static GameProfile fetch(UUID uuid, boolean forceNew) throws IOException {
-        if (!forceNew && cache.containsKey(uuid) && cache.get(uuid).isValid()) {
-            return cache.get(uuid).profile;
+    /**
+     * This method returns the game profile from the cache or fetches it asynchronously. 
+     * If the profile is already fetched, the running fetch is returned.
+     *
+     * @param uuid (UUID) the target player UUID
+     * @return (CompletableFuture) the game profile
+     */
+    public static CompletableFuture<GameProfile> fetchAsync(UUID uuid) {
+        CachedProfile cachedProfile = getCachedProfile(uuid);
+        if (cachedProfile != null) return CompletableFuture.completedFuture(cachedProfile.getProfile());
+
+        CompletableFuture<GameProfile> future = new CompletableFuture<>();
+        CompletableFuture<GameProfile> runningFetch = fetches.putIfAbsent(uuid, future);
+        if (runningFetch != null) return runningFetch;
+
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(request(uuid));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    fetches.remove(uuid, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            fetches.remove(uuid, future);
+            future.completeExceptionally(new IOException("The profile fetcher is shut down", e));
         }
+        return future;
+    }
 
-        String json = getText(String.format("https://sessionserver.mojang.com/session/minecraft/profile/%s?unsigned=false",
-                UUIDTypeAdapter.fromUUID(uuid)));
+    /**
+     * @param uuid (UUID) the target player UUID
+     * @return (CachedProfile) the cached profile or null, if there is no valid cached profile
+     */
+    public static CachedProfile getCachedProfile(UUID uuid) {
+        synchronized (sync) {
+            CachedProfile cachedProfile = cache.get(uuid);
+            if ((cachedProfile == null) || !cachedProfile.isValid()) return null;
+            return cachedProfile;
+        }
+    }
 
+    private static GameProfile request(UUID uuid) throws IOException {
+        waitForRateLimit();
+        CachedProfile cachedProfile = download(uuid);
+
+        synchronized (sync) {
+            cache.put(uuid, cachedProfile);
+            removeEldest();
+            changed = true;
+        }
+        return cachedProfile.getProfile();
+    }
+
+    /**
+     * This method requests the profile from the session server without the rate limit.
+     *
+     * @param uuid (UUID) the target player UUID
+     * @return (CachedProfile) the fetched profile
+     */
+    static CachedProfile download(UUID uuid) throws IOException {
+        String json = getText(sessionServerUrl + String.format(PROFILE_PATH, UUIDTypeAdapter.fromUUID(uuid)));
+        if (json.isEmpty()) throw new IOException("Could not connect to mojang servers for unknown player " + uuid);
+
+        GameProfile result;
+        String skinUrl;
         try {
-            GameProfile result = gson.fromJson(json, GameProfile.class);
-            cache.put(uuid, new CachedProfile(result));
-            return result;
+            result = gson.fromJson(json, GameProfile.class);
+            skinUrl = readSkinUrl(json);
         } catch (Exception exception) {
             throw new IOException("Could not read response: " + json);
         }
+        return new CachedProfile(uuid, result.getName(), skinUrl, System.currentTimeMillis(), result);
+    }
+
+    /**
+     * This method waits until the next request is allowed by the configured rate limit.
+     */
+    private static void waitForRateLimit() throws IOException {
+        long interval = 60000L / Math.max(1, Config.getProfileRequestsPerMinute());
+        long waitTime;
+        synchronized (rateLimit) {
+            long now = System.currentTimeMillis();
+            long requestTime = Math.max(now, nextRequest);
+            nextRequest = requestTime + interval;
+            waitTime = requestTime - now;
+        }
+
+        if (waitTime <= 0) return;
+        try {
+            Thread.sleep(waitTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the rate limit", e);
+        }
+    }
+
+    private static String readSkinUrl(String json) {
+        JsonObject object = JsonParser.parseString(json).getAsJsonObject();
+        if (!object.has("properties")) return null;
+
+        for (JsonElement element : object.getAsJsonArray("properties")) {
+            JsonObject property = element.getAsJsonObject();
+            if (!property.get("name").getAsString().equals("textures")) continue;
+
+            String textures = new String(Base64.getDecoder().decode(property.get("value").getAsString()), StandardCharsets.UTF_8);
+            JsonObject skin = JsonParser.parseString(textures).getAsJsonObject().getAsJsonObject("textures").getAsJsonObject("SKIN");
+            return (skin == null) ? null : skin.get("url").getAsString();
+        }
+        return null;
+    }
+
+    private static void removeEldest() {
+        int maxSize = Config.getProfileCacheSize();
+        Iterator<CachedProfile> iterator = cache.values().iterator();
+        while ((cache.size() > maxSize) && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * This method loads the cached profiles of the last runs.
+     *
+     * @param file (File) the profile cache file
+     */
+    public static void load(File file) {
+        synchronized (sync) {
+            cacheFile = file;
+            if (!file.exists()) return;
+
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                List<CachedProfile> profiles = gson.fromJson(reader, new TypeToken<List<CachedProfile>>() {}.getType());
+                if (profiles == null) return;
+
+                for (CachedProfile cachedProfile : profiles) {
+                    if (cachedProfile.isValid()) cache.put(cachedProfile.getUuid(), cachedProfile);
+                }
+                removeEldest();
+                Logger.DEBUG.log("Loaded " + cache.size() + " cached player profiles.");
+            } catch (IOException | JsonParseException e) {
+                Logger.WARN.log("Could not load the player profile cache " + file.getPath() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * This method saves the cached profiles, if they have changed since the last save.
+     */
+    public static void save() {
+        List<CachedProfile> profiles;
+        synchronized (sync) {
+            if ((cacheFile == null) || !changed) return;
+            profiles = new ArrayList<>(cache.values());
+            changed = false;
+        }
+
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        try {
+            cacheFile.getParentFile().mkdirs();
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+                gson.toJson(profiles, writer);
+            }
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.WARN.log("Could not save the player profile cache " + cacheFile.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * This method stops the running fetches and saves the cached profiles. The 
+     * futures of the stopped fetches complete exceptionally.
+     */
+    public static void close() {
+        executor.shutdownNow();
+
+        IOException exception = new IOException("The profile fetcher is shut down");
+        for (UUID uuid : new ArrayList<>(fetches.keySet())) {
+            CompletableFuture<GameProfile> future = fetches.remove(uuid);
+            if (future != null) future.completeExceptionally(exception);
+        }
+        save();
     }
 
     public static GameProfile getProfile(UUID uuid, String name, String skin) {
@@ -95,16 +297,14 @@ public class GameProfileBuilder {
         return profile;
     }
 
-    public static void setCacheTime(long time) {
-        cacheTime = time;
-    }
-
     public static String getText(String url) throws IOException {
         URL website = new URL(url);
         URLConnection connection = website.openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
         BufferedReader in = new BufferedReader(
                 new InputStreamReader(
-                        connection.getInputStream()));
+                        connection.getInputStream(), StandardCharsets.UTF_8));
 
         StringBuilder response = new StringBuilder();
         String inputLine;
@@ -150,17 +350,36 @@ public class GameProfileBuilder {
         }
     }
 
+    /**
+     * The name and the skin of a fetched profile. Only these values are saved, 
+     * the game profile is created again after a restart.
+     */
+    @Getter
     public static class CachedProfile {
 
-        @Getter
-        private final GameProfile profile;
+        private final UUID uuid;
+        private final String name;
+        private final String skinUrl;
+        private final long fetched;
+        private transient GameProfile profile;
 
-        public CachedProfile(GameProfile profile) {
+        public CachedProfile(UUID uuid, String name, String skinUrl, long fetched, GameProfile profile) {
+            this.uuid = uuid;
+            this.name = name;
+            this.skinUrl = skinUrl;
+            this.fetched = fetched;
             this.profile = profile;
         }
 
+        public GameProfile getProfile() {
+            if (profile == null) {
+                profile = (skinUrl == null) ? new GameProfile(uuid, name) : GameProfileBuilder.getProfile(uuid, name, skinUrl);
+            }
+            return profile;
+        }
+
         public boolean isValid() {
-            return GameProfileBuilder.cacheTime < 0L;
+            return (System.currentTimeMillis() - fetched) < TimeUnit.HOURS.toMillis(Config.getProfileCacheTtlHours());
         }
     }
 }
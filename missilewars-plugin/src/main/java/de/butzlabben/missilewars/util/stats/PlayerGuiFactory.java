@@ -24,119 +24,176 @@ import de.butzlabben.missilewars.MissileWars;
 import de.butzlabben.missilewars.configuration.Config;
 import de.butzlabben.missilewars.configuration.PluginMessages;
 import de.butzlabben.missilewars.game.stats.PlayerStats;
-import de.butzlabben.missilewars.game.stats.PlayerStatsComparator;
+import de.butzlabben.missilewars.game.stats.StatsFetcher;
 import de.butzlabben.missilewars.inventory.OrcItem;
-import de.butzlabben.missilewars.inventory.pages.PageGUICreator;
-import java.io.IOException;
+import de.butzlabben.missilewars.inventory.pages.LazyPageGUICreator;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ForkJoinPool;
-import java.util.stream.Collectors;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.SkullMeta;
+import org.bukkit.profile.PlayerProfile;
 
+/**
+ * This class shows the player stats page by page. The stats and the names of 
+ * the players are only loaded for the opened pages. A page is shown with the 
+ * known names at once, the missing names are added when they are fetched.
+ */
 @Getter
+@RequiredArgsConstructor
 public class PlayerGuiFactory {
 
-    private final static int MAX_FETCHES = 9;
-    private final static int FETCH_EVERY_ROUND = 3;
+    private static final Executor MAIN_THREAD = task -> Bukkit.getScheduler().runTask(MissileWars.getInstance(), task);
+
+    private final StatsFetcher fetcher;
+    private final Map<UUID, CompletableFuture<GameProfile>> nameFetches = new ConcurrentHashMap<>();
 
-    private final List<PlayerStats> stats;
-    private final Map<UUID, String> names = new ConcurrentHashMap<>();
-    private final int fetchRound = 0;
+    public void open(Player player) {
+        LazyPageGUICreator<PlayerStats> creator = new LazyPageGUICreator<>("§ePlayer statistics",
+                (after, limit) -> loadPage(player, after, limit), item -> convert(player, item));
+        creator.show(player);
+    }
 
-    public PlayerGuiFactory(List<PlayerStats> stats) {
-        this.stats = stats;
+    private CompletableFuture<List<PlayerStats>> loadPage(Player player, PlayerStats after, int limit) {
+        return fetcher.getPlayersPage((after == null) ? null : after.getUuid(), limit)
+                // The fetcher returns copies of the cached stats, so the names are only set for this page.
+                .thenCompose(fetcher::getStatsFrom)
+                .thenApplyAsync(stats -> {
+                    loadNames(player, stats);
+                    return stats;
+                }, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * This method sets the cached names of the players. The names which are not 
+     * cached are fetched from the Mojang servers in the background, if this is enabled.
+     *
+     * @param player (Player) the player who opens the page
+     * @param stats (List) the stats of the page
+     */
+    private void loadNames(Player player, List<PlayerStats> stats) {
+        List<PlayerStats> missingNames = new ArrayList<>();
         for (PlayerStats stat : stats) {
+            GameProfileBuilder.CachedProfile cachedProfile = GameProfileBuilder.getCachedProfile(stat.getUuid());
+            if (cachedProfile != null) {
+                stat.setName(cachedProfile.getName());
+                continue;
+            }
+
             OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(stat.getUuid());
             if (offlinePlayer.getName() != null) {
-                names.put(stat.getUuid(), offlinePlayer.getName());
                 stat.setName(offlinePlayer.getName());
             }
-            if (GameProfileBuilder.getCache().containsKey(stat.getUuid())) {
-                String name = GameProfileBuilder.getCache().get(stat.getUuid()).getProfile().getName();
-                names.put(stat.getUuid(), name);
-                stat.setName(name);
-            }
+            if (stat.getName() == null) missingNames.add(stat);
         }
-    }
 
-    public void openWhenReady(Player player) {
-        int realSize = stats.size();
-        int currentSize = names.size();
-        if (realSize > currentSize) {
-            if (Config.isContactAuth()) {
-                player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.STATS_FETCHING_PLAYERS)
-                        .replace("%current_size%", Integer.toString(currentSize))
-                        .replace("%real_size%", Integer.toString(realSize)));
-                ForkJoinPool.commonPool().execute(() -> {
-                    List<UUID> missing = getMissingUUIDs();
-                    int maxFetches = Math.min(missing.size(), MAX_FETCHES);
-                    for (int i = 0; i < maxFetches; i++) {
-                        UUID uuid = missing.get(i);
-                        try {
-                            GameProfile profile = GameProfileBuilder.fetch(uuid);
-                            names.put(uuid, profile.getName());
-                        } catch (IOException e) {
-                            names.put(uuid, "Error getting name");
-                            if (!e.getMessage().contains("Could not connect to mojang servers for unknown player"))
-                                Logger.WARN.log("Could not fetch name for " + uuid.toString() + ". Reason: " + e.getMessage());
-                        }
-                    }
-
-                    openWhenReady(player);
-                });
-                return;
-            }
-        }
-        for (PlayerStats stat : stats) {
-            stat.setName(names.get(stat.getUuid()));
-            if (stat.getName() == null || stat.getName().equals("")) {
-                Logger.WARN.log("Could not find name for: " + stat.getUuid());
-            }
+        if (missingNames.isEmpty()) return;
+
+        if (!Config.isContactAuth()) {
+            missingNames.forEach(stat -> Logger.WARN.log("Could not find name for: " + stat.getUuid()));
+            return;
         }
 
-        Bukkit.getScheduler().runTask(MissileWars.getInstance(), () -> open(player));
-    }
+        player.sendMessage(PluginMessages.getMessage(true, PluginMessages.MessageEnum.STATS_FETCHING_PLAYERS,
+                "current_size", stats.size() - missingNames.size(),
+                "real_size", stats.size()));
 
-    public List<UUID> getMissingUUIDs() {
-        return stats.stream().map(PlayerStats::getUuid).filter(uuid -> !names.containsKey(uuid)).collect(Collectors.toList());
+        // The missing profiles are fetched concurrently by the profile fetcher.
+        List<CompletableFuture<GameProfile>> fetches = new ArrayList<>();
+        for (PlayerStats stat : missingNames) {
+            CompletableFuture<GameProfile> fetch = GameProfileBuilder.fetchAsync(stat.getUuid());
+            nameFetches.put(stat.getUuid(), fetch);
+            fetches.add(fetch);
+        }
+        CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0])).whenComplete((v, throwable) -> GameProfileBuilder.save());
     }
 
-    private void open(Player player) {
-        List<PlayerStats> stats = new ArrayList<>(this.stats);
-        stats.sort(new PlayerStatsComparator());
-
-        PageGUICreator<PlayerStats> creator = new PageGUICreator<>("§ePlayer statistics", stats, (item) -> {
-            String name = item.getName();
-            ItemStack itemStack = new ItemStack(Material.PLAYER_HEAD);
-            SkullMeta sm = (SkullMeta) itemStack.getItemMeta();
-            if (Config.isShowRealSkins()) {
-                sm.setOwner(name);
+    /**
+     * This method sets the fetched name of the player and replaces the item in 
+     * the open inventory of the player, if the page is still open.
+     *
+     * @param player (Player) the player who opened the page
+     * @param stat (PlayerStats) the stats of the fetched player
+     * @param orcItem (OrcItem) the shown item of the fetched player
+     * @param fetch (CompletableFuture) the running profile fetch
+     */
+    private void updateName(Player player, PlayerStats stat, OrcItem orcItem, CompletableFuture<GameProfile> fetch) {
+        fetch.whenCompleteAsync((profile, throwable) -> {
+            if (throwable == null) {
+                stat.setName(profile.getName());
             } else {
-                sm.setOwningPlayer(Bukkit.getOfflinePlayer(item.getUuid()));
+                stat.setName("Error getting name");
+                Throwable cause = (throwable instanceof CompletionException) ? throwable.getCause() : throwable;
+                String reason = cause.getMessage();
+                if ((reason == null) || !reason.contains("Could not connect to mojang servers for unknown player"))
+                    Logger.WARN.log("Could not fetch name for " + stat.getUuid().toString() + ". Reason: " + reason);
             }
-            List<String> lore = Arrays.asList("§7Games played: §e" + item.getGamesPlayed(),
-                    "§7W/L: §e" + StatsUtil.formatDouble(item.getWinToLoseRatio()),
-                    "§7Favourite team: §e" + StatsUtil.formatDouble(item.getTeamRatio()));
-            sm.setLore(lore);
-            sm.setDisplayName("§7" + name);
-            itemStack.setItemMeta(sm);
-            return new OrcItem(itemStack);
-        });
 
-        Map<Integer, OrcItem> extraButtons = new HashMap<>();
+            ItemStack oldItemStack = orcItem.getItemStack();
+            ItemStack newItemStack = createItemStack(stat, false);
+            orcItem.setItemStack(newItemStack);
+            if (!player.isOnline()) return;
 
-        creator.show(player);
+            Inventory inventory = player.getOpenInventory().getTopInventory();
+            for (int slot = 0; slot < inventory.getSize(); slot++) {
+                if (oldItemStack.isSimilar(inventory.getItem(slot))) inventory.setItem(slot, newItemStack);
+            }
+        }, MAIN_THREAD);
+    }
+
+    private OrcItem convert(Player player, PlayerStats item) {
+        CompletableFuture<GameProfile> fetch = nameFetches.remove(item.getUuid());
+        OrcItem orcItem = new OrcItem(createItemStack(item, fetch != null));
+
+        if (fetch != null) updateName(player, item, orcItem, fetch);
+        return orcItem;
+    }
+
+    /**
+     * @param item (PlayerStats) the shown player
+     * @param loading (boolean) true, if the name of the player is still fetched
+     * @return (ItemStack) the player head with the stats of the player
+     */
+    private ItemStack createItemStack(PlayerStats item, boolean loading) {
+        String name = item.getName();
+        ItemStack itemStack = new ItemStack(Material.PLAYER_HEAD);
+        SkullMeta sm = (SkullMeta) itemStack.getItemMeta();
+        GameProfileBuilder.CachedProfile cachedProfile = GameProfileBuilder.getCachedProfile(item.getUuid());
+        if (Config.isShowRealSkins() && (cachedProfile != null) && (cachedProfile.getSkinUrl() != null)) {
+            // The skin is known from the cache, so the server doesn't have to look up the profile.
+            PlayerProfile profile = Bukkit.createPlayerProfile(item.getUuid(), cachedProfile.getName());
+            try {
+                profile.getTextures().setSkin(new URL(cachedProfile.getSkinUrl()));
+            } catch (MalformedURLException ignored) {
+            }
+            sm.setOwnerProfile(profile);
+        } else if (Config.isShowRealSkins() && (name != null)) {
+            sm.setOwner(name);
+        } else {
+            sm.setOwningPlayer(Bukkit.getOfflinePlayer(item.getUuid()));
+        }
+        List<String> lore = Arrays.asList("§7Games played: §e" + item.getGamesPlayed(),
+                "§7W/L: §e" + StatsUtil.formatDouble(item.getWinToLoseRatio()),
+                "§7Favourite team: §e" + StatsUtil.formatDouble(item.getTeamRatio()));
+        sm.setLore(lore);
+        sm.setDisplayName("§7" + (loading ? "Loading name..." : name));
+        itemStack.setItemMeta(sm);
+        return itemStack;
     }
 }
@@ -20,23 +20,22 @@ package de.butzlabben.missilewars.util.stats;
 
 import com.mojang.authlib.GameProfile;
 import de.butzlabben.missilewars.Logger;
+import de.butzlabben.missilewars.MissileWars;
 import de.butzlabben.missilewars.configuration.Config;
 import de.butzlabben.missilewars.game.stats.StatsFetcher;
-import de.butzlabben.missilewars.inventory.OrcItem;
-import de.butzlabben.missilewars.inventory.pages.InventoryPage;
-import de.butzlabben.missilewars.inventory.pages.PageGUICreator;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import org.bukkit.Material;
-import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.SkullMeta;
+import org.bukkit.Bukkit;
 
+/**
+ * This class fetches the profiles of all players with stats in the background, so that 
+ * the stats GUI can show the names and skins from the profile cache.
+ */
 public class PreFetcher {
 
     @Getter
@@ -48,82 +47,63 @@ public class PreFetcher {
     public static synchronized PrePlayerFetchRunnable preFetchPlayers(StatsFetcher fetcher) {
         if (runnable != null) return runnable;
         runnable = new PrePlayerFetchRunnable(fetcher);
-        Thread thread = new Thread(runnable);
-        thread.start();
+        Bukkit.getScheduler().runTaskAsynchronously(MissileWars.getInstance(), runnable);
         return runnable;
     }
 
     @RequiredArgsConstructor
     public static class PrePlayerFetchRunnable implements Runnable {
 
-        private static final int MAX_SKIN_FETCHES = 10;
+        private static final int PAGE_SIZE = 100;
         private final StatsFetcher fetcher;
-        private boolean shouldStop = false;
+        private volatile boolean shouldStop = false;
 
+        /**
+         * The players are fetched page by page. The profiles of a page are fetched concurrently 
+         * by the profile fetcher, which also limits the request rate.
+         */
         @Override
         public void run() {
             if (!Config.isFightStatsEnabled())
                 return;
             if (!Config.isContactAuth())
                 return;
-            List<UUID> uuids = fetcher.getPlayers();
-            Map<UUID, String> names = new HashMap<>();
-            Collections.reverse(uuids);
-            Logger.DEBUG.log("Prefetching " + uuids.size() + " player names");
-            for (UUID uuid : uuids) {
-                if (shouldStop)
-                    break;
-                try {
-                    GameProfile profile = GameProfileBuilder.fetch(uuid);
-                    names.put(uuid, profile.getName());
-                } catch (Exception e) {
-                    Logger.WARN.log("Could not prefetch player " + uuid.toString() + ". Aborting. Reason: " + e.getMessage());
-                    return;
-                }
-            }
 
-            if (!Config.isShowRealSkins()) return;
-            try {
-                Thread.sleep(6 * 10 * 1000);
-            } catch (InterruptedException ignored) {
-            }
+            int fetchedProfiles = 0;
+            int failedProfiles = 0;
+            List<UUID> uuids = fetcher.getPlayersPage(null, PAGE_SIZE).join();
+            while (!uuids.isEmpty() && !shouldStop) {
+                Logger.DEBUG.log("Prefetching " + uuids.size() + " player profiles");
+                List<CompletableFuture<GameProfile>> fetches = new ArrayList<>(uuids.size());
+                for (UUID uuid : uuids) {
+                    fetches.add(GameProfileBuilder.fetchAsync(uuid));
+                }
 
-            if (shouldStop) return;
-            Logger.DEBUG.log("Prefetching " + uuids.size() + " player skins");
-            PageGUICreator<String> creator = getPreFetchCreator(names.values());
-            creator.show(null);
-            if (creator.getInvPages() == null) return;
-            int i = 0;
-            for (InventoryPage page : creator.getInvPages()) {
-                if (shouldStop) return;
-                try {
-                    Thread.sleep(20 * 1000);
-                } catch (InterruptedException ignored) {
+                int failedFetches = 0;
+                for (CompletableFuture<GameProfile> fetch : fetches) {
+                    try {
+                        fetch.join();
+                        fetchedProfiles++;
+                    } catch (CompletionException e) {
+                        failedFetches++;
+                    }
                 }
-                if (shouldStop) return;
-                Logger.DEBUG.log("Prefetching page " + i);
-                try {
-                    page.getInventory();
-                } catch (Exception ignored) {
+                failedProfiles += failedFetches;
+
+                if (failedFetches == fetches.size()) {
+                    Logger.WARN.log("Could not prefetch the player profiles. Aborting.");
+                    break;
                 }
-                i++;
+                if (uuids.size() < PAGE_SIZE) break;
+                uuids = fetcher.getPlayersPage(uuids.get(uuids.size() - 1), PAGE_SIZE).join();
             }
-            Logger.DEBUG.log("Players fully loaded");
+
+            GameProfileBuilder.save();
+            Logger.DEBUG.log("Players loaded: " + fetchedProfiles + " profiles, " + failedProfiles + " failed");
         }
 
         public void stop() {
             shouldStop = true;
         }
-
-        private PageGUICreator<String> getPreFetchCreator(Collection<String> names) {
-            return new PageGUICreator<>("§ePlayer statistics", names, (item) -> {
-                ItemStack itemStack = new ItemStack(Material.PLAYER_HEAD);
-                SkullMeta sm = (SkullMeta) itemStack.getItemMeta();
-                sm.setOwner(item);
-                sm.setDisplayName(item);
-                itemStack.setItemMeta(sm);
-                return new OrcItem(itemStack);
-            });
-        }
     }
 }
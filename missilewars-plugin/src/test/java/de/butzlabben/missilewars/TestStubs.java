@@ -0,0 +1,110 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars;
+
+import org.bukkit.World;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+/**
+ * The Bukkit objects can't be created without a server, so the tests and 
+ * benchmarks use these stand-ins instead.
+ */
+public class TestStubs {
+
+    private TestStubs() {
+    }
+
+    /**
+     * This method creates a stand-in of the interface. The stand-ins are only equal 
+     * to themselves, all other methods are answered by the handler.
+     *
+     * @param type (Class) the implemented interface
+     * @param handler (InvocationHandler) the handler of the other methods
+     * @return the stand-in
+     */
+    public static <T> T createStub(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, new StubHandler(handler)));
+    }
+
+    /**
+     * This method creates a stand-in of a world, which only has a random UID and name.
+     *
+     * @return the world
+     */
+    public static World createWorld() {
+        return createWorld(UUID.randomUUID().toString());
+    }
+
+    /**
+     * This method creates a stand-in of a world, which only has a random UID and the name.
+     *
+     * @param name (String) the name of the world
+     * @return the world
+     */
+    public static World createWorld(String name) {
+        UUID uid = UUID.randomUUID();
+        return createStub(World.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getUID":
+                    return uid;
+                case "getName":
+                    return name;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    /**
+     * @param stub (Object) the stand-in
+     * @param handlerType (Class) the type of the handler
+     * @return the handler, which the stand-in was created with
+     */
+    public static <H extends InvocationHandler> H getHandler(Object stub, Class<H> handlerType) {
+        return handlerType.cast(((StubHandler) Proxy.getInvocationHandler(stub)).handler);
+    }
+
+    private static class StubHandler implements InvocationHandler {
+
+        private final InvocationHandler handler;
+
+        private StubHandler(InvocationHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return method.getDeclaringClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    return handler.invoke(proxy, method, args);
+            }
+        }
+    }
+}
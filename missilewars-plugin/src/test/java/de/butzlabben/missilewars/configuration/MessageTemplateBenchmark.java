@@ -0,0 +1,94 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.configuration;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark compares the compiled message templates with the former 'replace()' 
+ * chains. It can be started with the main method from the test classpath; the 
+ * allocation rate is shown with the GC profiler ('-prof gc').
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageTemplateBenchmark {
+
+    private static final String MESSAGE = "§6[§cMissileWars§6] §7%player% §7joined the team %team% §7(%players%/%max_players%)";
+
+    private MessageTemplate template;
+    private String player;
+    private String team;
+    private int players;
+    private int maxPlayers;
+
+    @Setup
+    public void setUp() {
+        template = MessageTemplate.compile(MESSAGE);
+        player = "Steve";
+        team = "§cRed";
+        players = 7;
+        maxPlayers = 16;
+    }
+
+    @Benchmark
+    public String replaceChain() {
+        return MESSAGE.replace("%player%", player)
+                .replace("%team%", team)
+                .replace("%players%", Integer.toString(players))
+                .replace("%max_players%", Integer.toString(maxPlayers));
+    }
+
+    @Benchmark
+    public String templateNamedArgs() {
+        return template.render(
+                "player", player,
+                "team", team,
+                "players", players,
+                "max_players", maxPlayers);
+    }
+
+    @Benchmark
+    public String replaceChainTwoArgs() {
+        return MESSAGE.replace("%player%", player)
+                .replace("%team%", team);
+    }
+
+    @Benchmark
+    public String templateTwoArgs() {
+        return template.render("player", player, "team", team);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MessageTemplateBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.configuration;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MessageTemplateTest {
+
+    @Test
+    public void testWithoutPlaceholders() {
+        MessageTemplate template = MessageTemplate.compile("§eNo placeholders here.");
+
+        assertFalse(template.hasPlaceholders());
+        assertSame(template.getText(), template.render("player", "Steve"));
+        assertSame(template.getText(), template.render("player", "Steve", "team", "Red"));
+        assertSame(template.getText(), template.render("a", 1, "b", 2, "c", 3));
+    }
+
+    @Test
+    public void testSinglePlaceholder() {
+        MessageTemplate template = MessageTemplate.compile("§7%player% joined the game.");
+
+        assertTrue(template.hasPlaceholders());
+        assertEquals("§7Steve joined the game.", template.render("player", "Steve"));
+        assertEquals("§7Steve joined the game.", template.render(new Object[] {"player", "Steve"}));
+    }
+
+    @Test
+    public void testSeveralPlaceholders() {
+        MessageTemplate template = MessageTemplate.compile("%player% (%players%/%max_players%) joined %team%");
+
+        assertEquals("Steve (3/8) joined Red", template.render("player", "Steve", "players", 3, "max_players", 8, "team", "Red"));
+        assertEquals("Steve (%players%/%max_players%) joined Red", template.render("team", "Red", "player", "Steve"));
+    }
+
+    @Test
+    public void testRepeatedPlaceholder() {
+        MessageTemplate template = MessageTemplate.compile("%from% -> %to% -> %from%");
+
+        assertEquals("Red -> Blue -> Red", template.render("from", "Red", "to", "Blue"));
+    }
+
+    @Test
+    public void testUnknownPlaceholderStaysUnchanged() {
+        MessageTemplate template = MessageTemplate.compile("%prefix%Welcome %player%!");
+
+        assertEquals("%prefix%Welcome Steve!", template.render("player", "Steve"));
+    }
+
+    @Test
+    public void testArgumentNamesAreComparedByValue() {
+        MessageTemplate template = MessageTemplate.compile("Hello %player%");
+
+        // The argument name is not the interned constant.
+        String name = new StringBuilder("play").append("er").toString();
+        assertEquals("Hello Steve", template.render(name, "Steve"));
+    }
+
+    @Test
+    public void testPercentSignsWithoutPlaceholder() {
+        MessageTemplate template = MessageTemplate.compile("100% sure, %player%! 50 %% off % %");
+
+        assertEquals("100% sure, Steve! 50 %% off % %", template.render("player", "Steve"));
+    }
+
+    @Test
+    public void testPercentSignBeforePlaceholder() {
+        MessageTemplate template = MessageTemplate.compile("Chance: 50%%seconds%s");
+
+        assertEquals("Chance: 50%10s", template.render("seconds", 10));
+    }
+
+    @Test
+    public void testHyphenInPlaceholderName() {
+        MessageTemplate template = MessageTemplate.compile("Welcome back to %last-team%");
+
+        assertEquals("Welcome back to Blue", template.render("last-team", "Blue"));
+    }
+
+    @Test
+    public void testOddArgumentCount() {
+        MessageTemplate template = MessageTemplate.compile("%a% %b%");
+
+        assertEquals("1 %b%", template.render("a", 1, "b"));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game;
+
+import de.butzlabben.missilewars.TestStubs;
+import de.butzlabben.missilewars.configuration.arena.modules.AreaConfig;
+import de.butzlabben.missilewars.util.geometry.GameArea;
+import de.butzlabben.missilewars.util.geometry.Geometry;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark compares the game location index with the former scan over all 
+ * games, which checked the lobby area and the world name of every game. The looked 
+ * up locations are a mix of lobby areas, game worlds and other places.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameLocationIndexBenchmark {
+
+    private static final int LOCATIONS = 1024;
+
+    @Param({"10", "25", "50"})
+    public int games;
+
+    private List<BenchmarkGame> gameList;
+    private GameLocationIndex<BenchmarkGame> index;
+    private Location[] locations;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        World lobbyWorld = TestStubs.createWorld("lobby");
+        World otherWorld = TestStubs.createWorld("world");
+
+        // The lobbies are next to each other in the same world. The arenas of half of the games are loaded.
+        gameList = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            GameArea lobbyArea = new GameArea(lobbyWorld, new AreaConfig(i * 100, 0, 0, i * 100 + 60, 100, 60));
+            GameArea gameArea = (i % 2 == 0) ? new GameArea(TestStubs.createWorld("mw-arena-" + i), new AreaConfig(-30, 0, -60, 30, 200, 60)) : null;
+            gameList.add(new BenchmarkGame(lobbyArea, gameArea));
+        }
+
+        index = new GameLocationIndex<>(game -> game.lobbyArea, game -> game.gameArea);
+        index.rebuild(gameList);
+
+        locations = new Location[LOCATIONS];
+        for (int i = 0; i < LOCATIONS; i++) {
+            BenchmarkGame game = gameList.get(random.nextInt(games));
+            switch (random.nextInt(3)) {
+                case 0:
+                    locations[i] = new Location(lobbyWorld, game.lobbyArea.getMinX() + random.nextInt(60), 50, random.nextInt(60));
+                    break;
+                case 1:
+                    World world = (game.gameArea != null) ? game.gameArea.getWorld() : otherWorld;
+                    locations[i] = new Location(world, random.nextInt(60) - 30, 80, random.nextInt(120) - 60);
+                    break;
+                default:
+                    locations[i] = new Location(otherWorld, random.nextInt(1000), 70, random.nextInt(1000));
+            }
+        }
+    }
+
+    @Benchmark
+    public BenchmarkGame scan() {
+        Location location = nextLocation();
+        for (BenchmarkGame game : gameList) {
+            if (game.isIn(location)) return game;
+        }
+        return null;
+    }
+
+    @Benchmark
+    public BenchmarkGame index() {
+        return index.getGame(nextLocation());
+    }
+
+    private Location nextLocation() {
+        next = (next + 1) & (LOCATIONS - 1);
+        return locations[next];
+    }
+
+    public static class BenchmarkGame {
+
+        private final GameArea lobbyArea;
+        private final GameArea gameArea;
+
+        private BenchmarkGame(GameArea lobbyArea, GameArea gameArea) {
+            this.lobbyArea = lobbyArea;
+            this.gameArea = gameArea;
+        }
+
+        /**
+         * The same checks as in {@link Game#isIn(Location)}.
+         */
+        private boolean isIn(Location location) {
+            if (Geometry.isInsideIn(location, lobbyArea)) return true;
+            return (gameArea != null) && Geometry.isInWorld(location, gameArea.getWorld());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GameLocationIndexBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
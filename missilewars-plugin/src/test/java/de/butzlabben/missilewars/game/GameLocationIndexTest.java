@@ -0,0 +1,137 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game;
+
+import de.butzlabben.missilewars.configuration.arena.modules.AreaConfig;
+import de.butzlabben.missilewars.util.geometry.GameArea;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static de.butzlabben.missilewars.TestStubs.createWorld;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class GameLocationIndexTest {
+
+    private final World lobbyWorld = createWorld();
+    private final World otherWorld = createWorld();
+
+    private GameLocationIndex<TestGame> index;
+
+    @Before
+    public void setUp() {
+        index = new GameLocationIndex<>(game -> game.lobbyArea, game -> game.gameArea);
+    }
+
+    @Test
+    public void testLobbyArea() {
+        TestGame game1 = new TestGame(area(lobbyWorld, 0, 0, 0, 20, 100, 20));
+        TestGame game2 = new TestGame(area(lobbyWorld, 100, 0, 100, 140, 100, 140));
+        index.rebuild(List.of(game1, game2));
+
+        assertSame(game1, index.getGame(new Location(lobbyWorld, 10, 50, 10)));
+        assertSame(game2, index.getGame(new Location(lobbyWorld, 120, 50, 120)));
+        assertNull(index.getGame(new Location(lobbyWorld, 50, 50, 50)));
+        assertNull(index.getGame(new Location(otherWorld, 10, 50, 10)));
+    }
+
+    @Test
+    public void testBorderIsInside() {
+        TestGame game = new TestGame(area(lobbyWorld, -5, 10, -5, 5, 20, 5));
+        index.rebuild(List.of(game));
+
+        assertSame(game, index.getGame(new Location(lobbyWorld, -5, 10, -5)));
+        assertSame(game, index.getGame(new Location(lobbyWorld, 5, 20, 5)));
+        assertNull(index.getGame(new Location(lobbyWorld, 6, 15, 0)));
+        assertNull(index.getGame(new Location(lobbyWorld, 0, 21, 0)));
+        assertNull(index.getGame(new Location(lobbyWorld, 0, 9, 0)));
+    }
+
+    @Test
+    public void testLobbiesInSameChunk() {
+        TestGame game1 = new TestGame(area(lobbyWorld, 0, 0, 0, 5, 10, 5));
+        TestGame game2 = new TestGame(area(lobbyWorld, 8, 0, 8, 12, 10, 12));
+        index.rebuild(List.of(game1, game2));
+
+        assertSame(game1, index.getGame(new Location(lobbyWorld, 3, 5, 3)));
+        assertSame(game2, index.getGame(new Location(lobbyWorld, 10, 5, 10)));
+        assertNull(index.getGame(new Location(lobbyWorld, 7, 5, 7)));
+    }
+
+    @Test
+    public void testLobbiesFarApart() {
+        // The grid would be too large, so the lobbies are checked one after another.
+        TestGame game1 = new TestGame(area(lobbyWorld, 0, 0, 0, 10, 10, 10));
+        TestGame game2 = new TestGame(area(lobbyWorld, 100000, 0, 100000, 100010, 10, 100010));
+        index.rebuild(List.of(game1, game2));
+
+        assertSame(game1, index.getGame(new Location(lobbyWorld, 5, 5, 5)));
+        assertSame(game2, index.getGame(new Location(lobbyWorld, 100005, 5, 100005)));
+        assertNull(index.getGame(new Location(lobbyWorld, 50000, 5, 50000)));
+    }
+
+    @Test
+    public void testGameWorld() {
+        World arenaWorld = createWorld();
+        TestGame game = new TestGame(area(lobbyWorld, 0, 0, 0, 10, 10, 10));
+        index.rebuild(List.of(game));
+
+        assertNull(index.getGame(new Location(arenaWorld, 500, 5, 500)));
+
+        // The whole game world belongs to the game, as soon as the arena is loaded.
+        game.gameArea = area(arenaWorld, 0, 0, 0, 10, 10, 10);
+        index.addGameWorld(game);
+        assertSame(game, index.getGame(new Location(arenaWorld, 500, 5, 500)));
+    }
+
+    @Test
+    public void testRebuildRemovesOldGames() {
+        TestGame game = new TestGame(area(lobbyWorld, 0, 0, 0, 10, 10, 10));
+        index.rebuild(List.of(game));
+        index.rebuild(List.of());
+
+        assertNull(index.getGame(new Location(lobbyWorld, 5, 5, 5)));
+    }
+
+    @Test
+    public void testLocationWithoutWorld() {
+        index.rebuild(List.of(new TestGame(area(lobbyWorld, 0, 0, 0, 10, 10, 10))));
+
+        assertNull(index.getGame(new Location(null, 5, 5, 5)));
+    }
+
+    private static GameArea area(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return new GameArea(world, new AreaConfig(minX, minY, minZ, maxX, maxY, maxZ));
+    }
+
+    private static class TestGame {
+
+        private final GameArea lobbyArea;
+        private GameArea gameArea;
+
+        private TestGame(GameArea lobbyArea) {
+            this.lobbyArea = lobbyArea;
+        }
+    }
+}
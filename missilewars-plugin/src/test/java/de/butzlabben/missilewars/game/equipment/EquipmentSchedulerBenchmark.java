@@ -0,0 +1,136 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.equipment;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark compares the equipment scheduler with a separate timer task for every 
+ * player. The timer tasks are modeled like the Bukkit scheduler: the tasks are kept in 
+ * a priority queue by their next tick, which is checked in each of the 20 ticks of a 
+ * second. Every benchmark method covers one second of a game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EquipmentSchedulerBenchmark {
+
+    private static final int TICKS_PER_SECOND = 20;
+
+    @Param({"10", "50", "200"})
+    public int players;
+
+    private EquipmentScheduler scheduler;
+    private PriorityQueue<TimerTask> timerTasks;
+    private UUID[] uuids;
+    private TimerTask[] tasks;
+    private long currentTick;
+    private long randomizerTicks;
+    private int respawnIndex;
+
+    @Setup
+    public void setUp() {
+        scheduler = new EquipmentScheduler();
+        timerTasks = new PriorityQueue<>(Comparator.comparingLong((TimerTask task) -> task.nextRun).thenComparingLong(task -> task.id));
+        uuids = new UUID[players];
+        tasks = new TimerTask[players];
+
+        // The players join at different ticks, like in a game.
+        for (int i = 0; i < players; i++) {
+            uuids[i] = UUID.randomUUID();
+            scheduler.add(uuids[i], () -> true, () -> randomizerTicks++);
+            tasks[i] = new TimerTask(i, i % TICKS_PER_SECOND);
+            timerTasks.add(tasks[i]);
+        }
+    }
+
+    @Benchmark
+    public long equipmentScheduler() {
+        // The game timer ticks the scheduler once per second.
+        scheduler.tick();
+        return randomizerTicks;
+    }
+
+    @Benchmark
+    public long perTaskTimers() {
+        for (int tick = 0; tick < TICKS_PER_SECOND; tick++) {
+            currentTick++;
+            while (timerTasks.peek().nextRun <= currentTick) {
+                TimerTask task = timerTasks.poll();
+                randomizerTicks++;
+                task.nextRun += TICKS_PER_SECOND;
+                timerTasks.add(task);
+            }
+        }
+        return randomizerTicks;
+    }
+
+    /**
+     * A respawn restarts the randomizer of the player.
+     */
+    @Benchmark
+    public int equipmentSchedulerRespawn() {
+        respawnIndex = (respawnIndex + 1) % players;
+        scheduler.add(uuids[respawnIndex], () -> true, () -> randomizerTicks++);
+        return scheduler.size();
+    }
+
+    /**
+     * A respawn cancels the timer task of the player and starts a new one.
+     */
+    @Benchmark
+    public int perTaskTimersRespawn() {
+        respawnIndex = (respawnIndex + 1) % players;
+        timerTasks.remove(tasks[respawnIndex]);
+        tasks[respawnIndex] = new TimerTask(tasks[respawnIndex].id, currentTick + TICKS_PER_SECOND);
+        timerTasks.add(tasks[respawnIndex]);
+        return timerTasks.size();
+    }
+
+    private static class TimerTask {
+
+        private final long id;
+        private long nextRun;
+
+        private TimerTask(long id, long nextRun) {
+            this.id = id;
+            this.nextRun = nextRun;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EquipmentSchedulerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
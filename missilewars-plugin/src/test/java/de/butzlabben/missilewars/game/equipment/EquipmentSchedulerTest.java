@@ -0,0 +1,125 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.equipment;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class EquipmentSchedulerTest {
+
+    private EquipmentScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new EquipmentScheduler();
+    }
+
+    @Test
+    public void testFirstTicksAreDelayed() {
+        AtomicInteger ticks = new AtomicInteger();
+        scheduler.add(UUID.randomUUID(), () -> true, ticks::incrementAndGet);
+
+        scheduler.tick();
+        scheduler.tick();
+        assertEquals(0, ticks.get());
+
+        scheduler.tick();
+        scheduler.tick();
+        assertEquals(2, ticks.get());
+    }
+
+    @Test
+    public void testOfflinePlayerIsSkipped() {
+        AtomicInteger ticks = new AtomicInteger();
+        AtomicBoolean online = new AtomicBoolean(false);
+        scheduler.add(UUID.randomUUID(), online::get, ticks::incrementAndGet);
+
+        for (int i = 0; i < 5; i++) {
+            scheduler.tick();
+        }
+        assertEquals(0, ticks.get());
+
+        online.set(true);
+        scheduler.tick();
+        assertEquals(1, ticks.get());
+    }
+
+    @Test
+    public void testAddReplacesRunningRandomizer() {
+        UUID uuid = UUID.randomUUID();
+        AtomicInteger oldTicks = new AtomicInteger();
+        AtomicInteger newTicks = new AtomicInteger();
+
+        scheduler.add(uuid, () -> true, oldTicks::incrementAndGet);
+        for (int i = 0; i < 3; i++) {
+            scheduler.tick();
+        }
+        scheduler.add(uuid, () -> true, newTicks::incrementAndGet);
+
+        assertEquals(1, scheduler.size());
+
+        // The new randomizer starts with the delay again.
+        for (int i = 0; i < 3; i++) {
+            scheduler.tick();
+        }
+        assertEquals(1, oldTicks.get());
+        assertEquals(1, newTicks.get());
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        UUID uuid = UUID.randomUUID();
+        AtomicInteger ticks = new AtomicInteger();
+
+        scheduler.add(uuid, () -> true, ticks::incrementAndGet);
+        scheduler.add(UUID.randomUUID(), () -> true, ticks::incrementAndGet);
+        scheduler.remove(uuid);
+        assertEquals(1, scheduler.size());
+
+        scheduler.clear();
+        for (int i = 0; i < 3; i++) {
+            scheduler.tick();
+        }
+        assertEquals(0, scheduler.size());
+        assertEquals(0, ticks.get());
+    }
+
+    @Test
+    public void testRandomizersAreTickedInJoinOrder() {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int index = i;
+            scheduler.add(UUID.randomUUID(), () -> true, () -> order.add(index));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            scheduler.tick();
+        }
+        assertEquals(List.of(0, 1, 2, 3, 4), order);
+    }
+}
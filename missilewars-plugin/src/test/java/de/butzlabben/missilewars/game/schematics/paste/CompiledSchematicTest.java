@@ -0,0 +1,155 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.schematics.paste;
+
+import de.butzlabben.missilewars.TestStubs;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.structure.StructureRotation;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CompiledSchematicTest {
+
+    @Test
+    public void testRotate0ReturnsSameSchematic() {
+        CompiledSchematic schematic = createSchematic();
+
+        assertSame(schematic, schematic.rotate(0));
+        assertSame(schematic, schematic.rotate(360));
+    }
+
+    @Test
+    public void testRotate90() {
+        CompiledSchematic rotated = createSchematic().rotate(90);
+
+        assertPosition(rotated, 0, 3, 1, -2);
+        assertPosition(rotated, 1, -5, 0, 4);
+        assertRotations(rotated, StructureRotation.COUNTERCLOCKWISE_90);
+    }
+
+    @Test
+    public void testRotate180() {
+        CompiledSchematic rotated = createSchematic().rotate(180);
+
+        assertPosition(rotated, 0, -2, 1, -3);
+        assertPosition(rotated, 1, 4, 0, 5);
+        assertRotations(rotated, StructureRotation.CLOCKWISE_180);
+    }
+
+    @Test
+    public void testRotate270() {
+        CompiledSchematic rotated = createSchematic().rotate(270);
+
+        assertPosition(rotated, 0, -3, 1, 2);
+        assertPosition(rotated, 1, 5, 0, -4);
+        assertRotations(rotated, StructureRotation.CLOCKWISE_90);
+    }
+
+    @Test
+    public void testNegativeRotation() {
+        CompiledSchematic rotated = createSchematic().rotate(-90);
+
+        assertPosition(rotated, 0, -3, 1, 2);
+        assertRotations(rotated, StructureRotation.CLOCKWISE_90);
+    }
+
+    @Test
+    public void testFourRotationsRestorePositions() {
+        CompiledSchematic schematic = createSchematic();
+        CompiledSchematic rotated = schematic.rotate(90).rotate(90).rotate(90).rotate(90);
+
+        for (int i = 0; i < schematic.size(); i++) {
+            assertPosition(rotated, i, schematic.getX(i), schematic.getY(i), schematic.getZ(i));
+        }
+    }
+
+    @Test
+    public void testRotateDoesNotChangeOriginal() {
+        CompiledSchematic schematic = createSchematic();
+        schematic.rotate(90);
+
+        assertPosition(schematic, 0, 2, 1, 3);
+        assertTrue(getRotations(schematic.getBlockData(0)).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedRotation() {
+        createSchematic().rotate(45);
+    }
+
+    private static CompiledSchematic createSchematic() {
+        CompiledSchematic.Builder builder = new CompiledSchematic.Builder();
+        builder.add(2, 1, 3, createBlockData(new ArrayList<>()));
+        builder.add(-4, 0, -5, createBlockData(new ArrayList<>()));
+        return builder.build();
+    }
+
+    private static void assertPosition(CompiledSchematic schematic, int index, int x, int y, int z) {
+        assertEquals(x, schematic.getX(index));
+        assertEquals(y, schematic.getY(index));
+        assertEquals(z, schematic.getZ(index));
+    }
+
+    private static void assertRotations(CompiledSchematic schematic, StructureRotation... rotations) {
+        for (int i = 0; i < schematic.size(); i++) {
+            assertEquals(List.of(rotations), getRotations(schematic.getBlockData(i)));
+        }
+    }
+
+    private static List<StructureRotation> getRotations(BlockData blockData) {
+        return TestStubs.getHandler(blockData, RecordingHandler.class).rotations;
+    }
+
+    /**
+     * The block data can't be created without a server, so a stand-in is used,
+     * which records the applied rotations.
+     */
+    private static BlockData createBlockData(List<StructureRotation> rotations) {
+        return TestStubs.createStub(BlockData.class, new RecordingHandler(rotations));
+    }
+
+    private static class RecordingHandler implements InvocationHandler {
+
+        private final List<StructureRotation> rotations;
+
+        private RecordingHandler(List<StructureRotation> rotations) {
+            this.rotations = rotations;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "clone":
+                    return createBlockData(new ArrayList<>(rotations));
+                case "rotate":
+                    rotations.add((StructureRotation) args[0]);
+                    return null;
+                default:
+                    return null;
+            }
+        }
+    }
+}
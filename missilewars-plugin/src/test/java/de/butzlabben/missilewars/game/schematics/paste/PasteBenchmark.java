@@ -0,0 +1,115 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.schematics.paste;
+
+import de.butzlabben.missilewars.TestStubs;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the paste latency of the native paster for missiles of 
+ * different sizes. The whole paste runs on the main thread, so the paste time is 
+ * also the main-thread time. The world is a stand-in, which only counts the set 
+ * blocks, so the time of the block changes within the server is not included.
+ * <p>
+ * The FAWE paster can't be started here, as WorldEdit needs a running platform. 
+ * Both pasters sum up their paste time on the main thread, which is printed 
+ * with '/mw debug', so they are compared on a server with the same missiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasteBenchmark {
+
+    @Param({"50", "200", "800"})
+    public int blocks;
+
+    private CompiledSchematic schematic;
+    private World world;
+    private long setBlocks;
+
+    @Setup
+    public void setUp() {
+        // The missile is a column of 3 x 3 blocks, like the usual missiles.
+        CompiledSchematic.Builder builder = new CompiledSchematic.Builder();
+        for (int i = 0; i < blocks; i++) {
+            builder.add(i % 3 - 1, i / 9, i / 3 % 3 - 1, createBlockData());
+        }
+        schematic = builder.build();
+
+        Block block = TestStubs.createStub(Block.class, (proxy, method, args) -> {
+            if (method.getName().equals("setBlockData")) setBlocks++;
+            return null;
+        });
+        Chunk chunk = TestStubs.createStub(Chunk.class, (proxy, method, args) -> method.getName().equals("getBlock") ? block : null);
+        world = TestStubs.createStub(World.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getMinHeight":
+                    return -64;
+                case "getMaxHeight":
+                    return 320;
+                case "getChunkAt":
+                    return chunk;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    /**
+     * The missile is pasted at a chunk border, so that the blocks are set in four chunks.
+     */
+    @Benchmark
+    public long paste() {
+        schematic.paste(world, 16, 64, 16);
+        return setBlocks;
+    }
+
+    /**
+     * A rotation is compiled once for every schematic, when it is pasted in this rotation for the first time.
+     */
+    @Benchmark
+    public CompiledSchematic rotate() {
+        return schematic.rotate(90);
+    }
+
+    private static BlockData createBlockData() {
+        return TestStubs.createStub(BlockData.class, (proxy, method, args) -> method.getName().equals("clone") ? createBlockData() : null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PasteBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.stats;
+
+import de.butzlabben.missilewars.util.ConnectionHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The results of the embedded storage are compared with the results of the 
+ * MySQL storage, which runs against an in-memory H2 database in the MySQL mode.
+ */
+public class EmbeddedStatsStorageTest {
+
+    private static final AtomicInteger databaseCount = new AtomicInteger();
+    private static final UUID PLAYER1 = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID PLAYER2 = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    // The UUID is ordered before the other players by UUID.compareTo, but after them by the MySQL storage.
+    private static final UUID PLAYER3 = UUID.fromString("f0000000-0000-0000-0000-000000000003");
+    private static final List<UUID> PLAYERS = List.of(PLAYER1, PLAYER2, PLAYER3);
+    private static final long[] TIMES = {0, 1000, 1500, 2000, 4000};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private EmbeddedStatsStorage storage;
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(folder.getRoot(), "fights.dat");
+        storage = new EmbeddedStatsStorage(file);
+    }
+
+    @After
+    public void tearDown() {
+        storage.close();
+    }
+
+    @Test
+    public void testFightLogIsReplayed() throws Exception {
+        storage.writeFight(fight(1000, 60000, 1, PLAYER1, 1, PLAYER2, 2));
+        storage.writeFight(fight(2000, 120000, 2, PLAYER1, 1, PLAYER3, 2));
+
+        List<FightStats> fights = get(reopen().getFights());
+        assertEquals(2, fights.size());
+        assertFight(fights.get(1), 2000, 120000, 2);
+        assertEquals(Integer.valueOf(2), fights.get(1).getMembers().get(PLAYER3));
+        assertPlayerStats(get(storage.getStatsFrom(List.of(PLAYER1))).get(0), 1, 1, 2);
+    }
+
+    @Test
+    public void testTornWriteIsRemovedOnReplay() throws Exception {
+        storage.writeFight(fight(1000, 60000, 1, PLAYER1, 1, PLAYER2, 2));
+        storage.writeFight(fight(2000, 120000, 2, PLAYER1, 1, PLAYER3, 2));
+        storage.close();
+        byte[] completeLog = Files.readAllBytes(file.toPath());
+        byte[] tornFight = serialize(fight(3000, 90000, 1, PLAYER2, 1, PLAYER3, 2));
+
+        // The write breaks off within the arena name, within the header and within the members.
+        for (int length : new int[] {1, 3, 20, tornFight.length - 1}) {
+            Files.write(file.toPath(), completeLog);
+            try (FileOutputStream out = new FileOutputStream(file, true)) {
+                out.write(tornFight, 0, length);
+            }
+
+            assertEquals(2, get(reopen().getFights()).size());
+            assertEquals(completeLog.length, file.length());
+
+            // The next fight is appended behind the last complete fight.
+            storage.writeFight(fight(4000, 30000, 0, PLAYER2, 1, PLAYER3, 2));
+            List<FightStats> fights = get(reopen().getFights());
+            assertEquals(3, fights.size());
+            assertFight(fights.get(2), 4000, 30000, 0);
+            storage.close();
+        }
+    }
+
+    @Test
+    public void testAggregatesMatchTheMySQLStorage() throws Exception {
+        ConnectionHolder.connect("jdbc:h2:mem:embedded_stats_" + databaseCount.incrementAndGet()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "", 2);
+        try {
+            MySQLStatsStorage mySQLStorage = new MySQLStatsStorage("mw_fights", "mw_fightmember", "mw_player_stats");
+            ConnectionHolder.execute(connection -> {
+                mySQLStorage.checkTables(connection);
+                return null;
+            });
+
+            for (FightStats fightStats : Arrays.asList(
+                    fight(1000, 60000, 1, PLAYER1, 1, PLAYER2, 2),
+                    fight(2000, 120000, 2, PLAYER1, 1, PLAYER3, 2),
+                    fight(2000, 30000, 0, PLAYER2, 1, PLAYER3, 2),
+                    fight(3000, 90000, 1, PLAYER1, 1, PLAYER2, 1, PLAYER3, 2))) {
+                mySQLStorage.writeFight(fightStats);
+                storage.writeFight(fightStats);
+            }
+
+            for (long time : TIMES) {
+                assertEquals(get(mySQLStorage.getGameCount(time, "")), get(storage.getGameCount(time, "")));
+                assertEquals(get(mySQLStorage.getDrawFights(time, "")), get(storage.getDrawFights(time, "")));
+                assertEquals(get(mySQLStorage.getUniquePlayers(time, "")), get(storage.getUniquePlayers(time, "")));
+                assertSavedStats(get(mySQLStorage.getAverageSavedStats(time, "", false)), get(storage.getAverageSavedStats(time, "", false)));
+                assertSavedStats(get(mySQLStorage.getAverageSavedStats(time, "", true)), get(storage.getAverageSavedStats(time, "", true)));
+                assertEquals(get(mySQLStorage.getPlayersPage(time, "", null, 2)), get(storage.getPlayersPage(time, "", null, 2)));
+                assertEquals(get(mySQLStorage.getPlayersPage(time, "", PLAYER1, 2)), get(storage.getPlayersPage(time, "", PLAYER1, 2)));
+                assertStatsPages(mySQLStorage, time);
+            }
+
+            List<PlayerStats> expected = get(mySQLStorage.getStatsFrom(PLAYERS));
+            List<PlayerStats> actual = get(storage.getStatsFrom(PLAYERS));
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getUuid(), actual.get(i).getUuid());
+                assertPlayerStats(actual.get(i), expected.get(i).getWins(), expected.get(i).getLoses(), expected.get(i).getGamesPlayed());
+                assertEquals(expected.get(i).getTeam1(), actual.get(i).getTeam1());
+                assertEquals(expected.get(i).getTeam2(), actual.get(i).getTeam2());
+            }
+        } finally {
+            ConnectionHolder.close();
+        }
+    }
+
+    private void assertStatsPages(MySQLStatsStorage mySQLStorage, long time) throws Exception {
+        SavedStats expectedAfter = null;
+        SavedStats actualAfter = null;
+        List<SavedStats> expected;
+        do {
+            expected = get(mySQLStorage.getStatsPage(time, "", expectedAfter, 2));
+            List<SavedStats> actual = get(storage.getStatsPage(time, "", actualAfter, 2));
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getId(), actual.get(i).getId());
+                assertEquals(expected.get(i).getTimeStart(), actual.get(i).getTimeStart());
+                assertEquals(expected.get(i).getArena(), actual.get(i).getArena());
+                assertSavedStats(expected.get(i), actual.get(i));
+            }
+
+            if (expected.isEmpty()) break;
+            expectedAfter = expected.get(expected.size() - 1);
+            actualAfter = actual.get(actual.size() - 1);
+        } while (expected.size() == 2);
+    }
+
+    private EmbeddedStatsStorage reopen() {
+        storage.close();
+        storage = new EmbeddedStatsStorage(file);
+        return storage;
+    }
+
+    private static byte[] serialize(FightStats fightStats) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            fightStats.writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void assertFight(FightStats fightStats, long timeStart, long timeElapsed, int teamWon) {
+        assertEquals(timeStart, fightStats.getTimeStart());
+        assertEquals(timeElapsed, fightStats.getTimeElapsed());
+        assertEquals(teamWon, fightStats.getTeamWon());
+    }
+
+    private static void assertSavedStats(SavedStats expected, SavedStats actual) {
+        assertEquals(expected.getTimeElapsed(), actual.getTimeElapsed());
+        assertEquals(expected.getPlayerCount(), actual.getPlayerCount(), 0.000001);
+        assertEquals(expected.getTeamWon(), actual.getTeamWon(), 0.000001);
+    }
+
+    private static void assertPlayerStats(PlayerStats stats, int wins, int loses, int games) {
+        assertEquals(wins, stats.getWins());
+        assertEquals(loses, stats.getLoses());
+        assertEquals(games, stats.getGamesPlayed());
+    }
+
+    private static FightStats fight(long timeStart, long timeElapsed, int teamWon, Object... members) {
+        Map<UUID, Integer> memberTeams = new LinkedHashMap<>();
+        for (int i = 0; i < members.length; i += 2) {
+            memberTeams.put((UUID) members[i], (Integer) members[i + 1]);
+        }
+        return new FightStats("arena", timeStart, timeElapsed, teamWon, memberTeams);
+    }
+
+    private static <T> T get(CompletableFuture<T> future) throws Exception {
+        return future.get(10, TimeUnit.SECONDS);
+    }
+}
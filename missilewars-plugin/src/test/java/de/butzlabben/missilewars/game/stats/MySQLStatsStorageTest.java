@@ -0,0 +1,167 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.stats;
+
+import de.butzlabben.missilewars.util.ConnectionHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The queries run against an in-memory H2 database in the MySQL mode.
+ */
+public class MySQLStatsStorageTest {
+
+    private static final AtomicInteger databaseCount = new AtomicInteger();
+    private static final UUID PLAYER1 = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID PLAYER2 = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final UUID PLAYER3 = UUID.fromString("00000000-0000-0000-0000-000000000003");
+
+    private MySQLStatsStorage storage;
+
+    @Before
+    public void setUp() throws Exception {
+        ConnectionHolder.connect("jdbc:h2:mem:stats_" + databaseCount.incrementAndGet()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "", 2);
+
+        storage = new MySQLStatsStorage("mw_fights", "mw_fightmember", "mw_player_stats");
+        ConnectionHolder.execute(connection -> {
+            storage.checkTables(connection);
+            return null;
+        });
+
+        storage.writeFight(fight(1000, 60000, 1, PLAYER1, 1, PLAYER2, 2));
+        storage.writeFight(fight(2000, 120000, 2, PLAYER1, 1, PLAYER3, 2));
+        storage.writeFight(fight(2000, 30000, 0, PLAYER2, 1, PLAYER3, 2));
+    }
+
+    @After
+    public void tearDown() {
+        ConnectionHolder.close();
+    }
+
+    @Test
+    public void testCounts() throws Exception {
+        assertEquals(3, (int) get(storage.getGameCount(0, "")));
+        assertEquals(1, (int) get(storage.getGameCount(1500, "")));
+        assertEquals(1, (int) get(storage.getDrawFights(0, "")));
+        assertEquals(3, (int) get(storage.getUniquePlayers(0, "")));
+    }
+
+    @Test
+    public void testAverageSavedStats() throws Exception {
+        SavedStats withDraws = get(storage.getAverageSavedStats(0, "", false));
+        assertEquals(70000, withDraws.getTimeElapsed());
+        assertEquals(2, withDraws.getPlayerCount(), 0);
+        assertEquals(1, withDraws.getTeamWon(), 0);
+
+        SavedStats withoutDraws = get(storage.getAverageSavedStats(0, "", true));
+        assertEquals(90000, withoutDraws.getTimeElapsed());
+    }
+
+    @Test
+    public void testStatsPagesContinueAfterFightsWithTheSameStartTime() throws Exception {
+        List<SavedStats> firstPage = get(storage.getStatsPage(0, "", null, 2));
+        assertEquals(2, firstPage.size());
+        assertEquals(1000, firstPage.get(0).getTimeStart());
+        assertEquals(2000, firstPage.get(1).getTimeStart());
+
+        List<SavedStats> secondPage = get(storage.getStatsPage(0, "", firstPage.get(1), 2));
+        assertEquals(1, secondPage.size());
+        assertEquals(2000, secondPage.get(0).getTimeStart());
+        assertTrue(secondPage.get(0).getId() > firstPage.get(1).getId());
+        assertEquals(2, secondPage.get(0).getPlayerCount(), 0);
+    }
+
+    @Test
+    public void testPlayersPages() throws Exception {
+        List<UUID> players = get(storage.getPlayersPage(0, "", null, 2));
+        assertEquals(List.of(PLAYER1, PLAYER2), players);
+
+        players = get(storage.getPlayersPage(0, "", PLAYER2, 2));
+        assertEquals(List.of(PLAYER3), players);
+    }
+
+    @Test
+    public void testPlayerStatsAreUpdatedWithTheFights() throws Exception {
+        assertPlayerStats(get(storage.getStatsFrom(List.of(PLAYER1, PLAYER2, PLAYER3))));
+    }
+
+    @Test
+    public void testRebuiltPlayerStatsMatchTheFights() throws Exception {
+        assertEquals(3, (int) get(storage.rebuildPlayerStats()));
+
+        assertPlayerStats(get(storage.getStatsFrom(List.of(PLAYER1, PLAYER2, PLAYER3))));
+    }
+
+    @Test
+    public void testStatsOfUnknownPlayersAreSkipped() throws Exception {
+        assertTrue(get(storage.getStatsFrom(List.of(UUID.randomUUID()))).isEmpty());
+    }
+
+    @Test
+    public void testGetFights() throws Exception {
+        List<FightStats> fights = get(storage.getFights());
+
+        assertEquals(3, fights.size());
+        assertEquals(1000, fights.get(0).getTimeStart());
+        assertEquals(Integer.valueOf(2), fights.get(0).getMembers().get(PLAYER2));
+        assertNull(fights.get(0).getMembers().get(PLAYER3));
+    }
+
+    private static void assertPlayerStats(List<PlayerStats> stats) {
+        assertEquals(3, stats.size());
+        assertPlayerStats(stats.get(0), PLAYER1, 1, 1, 2, 2, 0);
+        assertPlayerStats(stats.get(1), PLAYER2, 0, 1, 2, 1, 1);
+        assertPlayerStats(stats.get(2), PLAYER3, 1, 0, 2, 0, 2);
+    }
+
+    private static void assertPlayerStats(PlayerStats stats, UUID uuid, int wins, int loses, int games, int team1, int team2) {
+        assertEquals(uuid, stats.getUuid());
+        assertEquals(wins, stats.getWins());
+        assertEquals(loses, stats.getLoses());
+        assertEquals(games, stats.getGamesPlayed());
+        assertEquals(team1, stats.getTeam1());
+        assertEquals(team2, stats.getTeam2());
+    }
+
+    private static FightStats fight(long timeStart, long timeElapsed, int teamWon, UUID player1, int team1, UUID player2, int team2) {
+        Map<UUID, Integer> members = new LinkedHashMap<>();
+        members.put(player1, team1);
+        members.put(player2, team2);
+        return new FightStats("arena", timeStart, timeElapsed, teamWon, members);
+    }
+
+    private static <T> T get(CompletableFuture<T> future) throws Exception {
+        return future.get(10, TimeUnit.SECONDS);
+    }
+}
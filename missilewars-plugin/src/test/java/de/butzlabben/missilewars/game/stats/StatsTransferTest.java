@@ -0,0 +1,98 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.game.stats;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class StatsTransferTest {
+
+    private static final UUID PLAYER1 = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID PLAYER2 = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private EmbeddedStatsStorage source;
+    private EmbeddedStatsStorage target;
+
+    @Before
+    public void setUp() throws Exception {
+        source = new EmbeddedStatsStorage(new File(folder.getRoot(), "source.dat"));
+        target = new EmbeddedStatsStorage(new File(folder.getRoot(), "target.dat"));
+
+        source.writeFight(fight("arena1", 1000));
+        source.writeFight(fight("arena1", 2000));
+        source.writeFight(fight("arena2", 2000));
+    }
+
+    @After
+    public void tearDown() {
+        source.close();
+        target.close();
+    }
+
+    @Test
+    public void testAllFightsAreCopied() throws Exception {
+        assertEquals(3, (int) get(StatsTransfer.transfer(source, target, Runnable::run)));
+
+        List<FightStats> fights = get(target.getFights());
+        assertEquals(3, fights.size());
+        assertEquals("arena2", fights.get(2).getArenaName());
+        assertEquals(3, get(target.getStatsFrom(List.of(PLAYER1))).get(0).getWins());
+    }
+
+    @Test
+    public void testExistingFightsAreSkipped() throws Exception {
+        target.writeFight(fight("arena1", 2000));
+
+        assertEquals(2, (int) get(StatsTransfer.transfer(source, target, Runnable::run)));
+        assertEquals(3, get(target.getFights()).size());
+        assertEquals(3, get(target.getStatsFrom(List.of(PLAYER1))).get(0).getGamesPlayed());
+    }
+
+    @Test
+    public void testRepeatedTransferCopiesNothing() throws Exception {
+        get(StatsTransfer.transfer(source, target, Runnable::run));
+
+        assertEquals(0, (int) get(StatsTransfer.transfer(source, target, Runnable::run)));
+        assertEquals(3, get(target.getFights()).size());
+    }
+
+    private static FightStats fight(String arena, long timeStart) {
+        return new FightStats(arena, timeStart, 60000, 1, Map.of(PLAYER1, 1, PLAYER2, 2));
+    }
+
+    private static <T> T get(CompletableFuture<T> future) throws Exception {
+        return future.get(10, TimeUnit.SECONDS);
+    }
+}
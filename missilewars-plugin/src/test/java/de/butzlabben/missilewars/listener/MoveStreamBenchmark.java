@@ -0,0 +1,203 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.listener;
+
+import de.butzlabben.missilewars.TestStubs;
+import de.butzlabben.missilewars.configuration.arena.modules.AreaConfig;
+import de.butzlabben.missilewars.util.geometry.GameArea;
+import de.butzlabben.missilewars.util.geometry.Geometry;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark replays move streams through the movement checks of the PlayerListener 
+ * and the GameListener, once with the former checks of every move event and once with 
+ * the block filter and the cached region state. The listeners need a server, so their 
+ * checks are repeated here with the same geometry methods.
+ * <p>
+ * The move streams are recorded once with a fixed seed. Like the moves of a client, most 
+ * of the events only turn the head or move the player within the same block. One stream 
+ * walks through the lobby areas, the other one along the border of an arena.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveStreamBenchmark {
+
+    private static final int EVENTS = 4096;
+    private static final int GAMES = 10;
+    private static final int MAX_MOVE_HEIGHT = 170;
+    private static final int DEATH_HEIGHT = 20;
+
+    @Param({"lobby", "arena"})
+    public String stream;
+
+    private final List<GameArea> lobbyAreas = new ArrayList<>();
+    private final List<GameArea> gameAreas = new ArrayList<>();
+    private Location[] fromLocations;
+    private Location[] toLocations;
+    private int next;
+
+    private World regionWorld;
+    private int regionX, regionY, regionZ;
+    private int regionGame = -1;
+    private boolean outOfBounds;
+    private long transitions;
+
+    @Setup
+    public void setUp() {
+        World lobbyWorld = TestStubs.createWorld("lobby");
+        for (int i = 0; i < GAMES; i++) {
+            lobbyAreas.add(new GameArea(lobbyWorld, new AreaConfig(i * 40, 0, 0, i * 40 + 30, 100, 30)));
+            gameAreas.add(new GameArea(TestStubs.createWorld("mw-arena-" + i), new AreaConfig(-30, 0, -60, 30, 200, 60)));
+        }
+
+        boolean lobby = stream.equals("lobby");
+        record(lobby ? lobbyWorld : gameAreas.get(0).getWorld(), lobby ? 0 : 24, lobby ? 50 : 80, lobby ? 15 : 0, lobby);
+    }
+
+    /**
+     * This method records the move stream of a player, who walks along the x-axis. Every 
+     * fourth event, the player moves a quarter block; the other events only turn the head.
+     */
+    private void record(World world, double startX, double y, double z, boolean lobby) {
+        Random random = new Random(1);
+        fromLocations = new Location[EVENTS];
+        toLocations = new Location[EVENTS];
+
+        double x = startX;
+        double direction = 0.25;
+        Location location = new Location(world, x, y, z);
+        for (int i = 0; i < EVENTS; i++) {
+            Location nextLocation;
+            if (i % 4 == 0) {
+                // In the lobby, the player walks through all lobbies. In the arena, the player walks across the border.
+                if (lobby ? ((x > GAMES * 40) || (x < 0)) : ((x > 34) || (x < 20))) direction = -direction;
+                x += direction;
+                nextLocation = new Location(world, x, y, z, location.getYaw(), location.getPitch());
+            } else {
+                nextLocation = new Location(world, x, y, z, random.nextFloat() * 360, random.nextFloat() * 180 - 90);
+            }
+
+            fromLocations[i] = location;
+            toLocations[i] = nextLocation;
+            location = nextLocation;
+        }
+    }
+
+    /**
+     * The former checks: both games are looked up and the arena bounds are checked for every move event.
+     */
+    @Benchmark
+    public long everyEvent() {
+        Location from = fromLocations[next];
+        Location to = toLocations[next];
+        next = (next + 1) % EVENTS;
+
+        // PlayerListener:
+        if (getGame(from) != getGame(to)) transitions++;
+
+        // GameListener:
+        outOfBounds = checkBounds(to);
+        return transitions;
+    }
+
+    /**
+     * The current checks: only moves into another block are checked, the game of 
+     * the former block is known from the region state.
+     */
+    @Benchmark
+    public long blockTransitions() {
+        Location from = fromLocations[next];
+        Location to = toLocations[next];
+        next = (next + 1) % EVENTS;
+
+        // PlayerListener:
+        if (!Geometry.isSameBlock(from, to)) {
+            int gameFrom = matchesRegion(from) ? regionGame : getGame(from);
+            int gameTo = getGame(to);
+            updateRegion(to, gameTo);
+            if (gameFrom != gameTo) transitions++;
+        }
+
+        // GameListener:
+        if (Geometry.isSameBlock(from, to) && !outOfBounds) return transitions;
+        outOfBounds = checkBounds(to);
+        return transitions;
+    }
+
+    /**
+     * The same checks as in Game.isIn, for all games.
+     */
+    private int getGame(Location location) {
+        for (int i = 0; i < GAMES; i++) {
+            if (Geometry.isInsideIn(location, lobbyAreas.get(i))) return i;
+            if (Geometry.isInWorld(location, gameAreas.get(i).getWorld())) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * The same checks as in GameListener.onMove, for the first game.
+     *
+     * @return true, if the location is out of bounds
+     */
+    private boolean checkBounds(Location location) {
+        GameArea gameArea = gameAreas.get(0);
+        if (!Geometry.isInWorld(location, gameArea.getWorld())) return false;
+
+        boolean outOfBounds = (location.getBlockY() > MAX_MOVE_HEIGHT) || (location.getBlockY() < DEATH_HEIGHT);
+        if (!Geometry.isInsideIn(location, gameArea)) outOfBounds = true;
+        return outOfBounds;
+    }
+
+    private boolean matchesRegion(Location location) {
+        return (location.getWorld() == regionWorld) && (location.getBlockX() == regionX)
+                && (location.getBlockY() == regionY) && (location.getBlockZ() == regionZ);
+    }
+
+    private void updateRegion(Location location, int game) {
+        regionWorld = location.getWorld();
+        regionX = location.getBlockX();
+        regionY = location.getBlockY();
+        regionZ = location.getBlockZ();
+        regionGame = game;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MoveStreamBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConnectionHolderTest {
+
+    private static final AtomicInteger databaseCount = new AtomicInteger();
+    private static final int POOL_SIZE = 2;
+
+    @Before
+    public void setUp() throws SQLException {
+        ConnectionHolder.connect("jdbc:h2:mem:connection_holder_" + databaseCount.incrementAndGet()
+                + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "", POOL_SIZE);
+        ConnectionHolder.execute(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("CREATE TABLE entries (id int NOT NULL PRIMARY KEY)");
+            }
+            return null;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        ConnectionHolder.close();
+    }
+
+    @Test
+    public void testExecute() throws SQLException {
+        ConnectionHolder.execute(connection -> insert(connection, 1));
+
+        assertEquals(1, count());
+    }
+
+    @Test
+    public void testFailedTransactionIsRolledBack() throws SQLException {
+        try {
+            ConnectionHolder.executeTransaction(connection -> {
+                insert(connection, 1);
+                insert(connection, 1);
+            });
+            fail("The duplicate key was inserted");
+        } catch (SQLException ignored) {
+        }
+
+        assertEquals(0, count());
+        // The connection is back in auto-commit mode.
+        ConnectionHolder.execute(connection -> insert(connection, 2));
+        assertEquals(1, count());
+    }
+
+    @Test
+    public void testTransactionIsRolledBackOnRuntimeException() throws SQLException {
+        try {
+            ConnectionHolder.executeTransaction(connection -> {
+                insert(connection, 1);
+                throw new IllegalStateException("Expected failure");
+            });
+            fail("The transaction did not fail");
+        } catch (IllegalStateException ignored) {
+        }
+
+        // The transaction must not be committed, when the connection is returned to the pool.
+        assertEquals(0, count());
+    }
+
+    @Test
+    public void testAsyncTransactionIsRolledBack() throws Exception {
+        CompletableFuture<Integer> future = ConnectionHolder.executeTransactionAsync(connection -> {
+            insert(connection, 1);
+            throw new IllegalStateException("Expected failure");
+        });
+
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("The transaction did not fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(0, count());
+    }
+
+    @Test
+    public void testAsyncQueriesAreLimitedToThePoolSize() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Set<Connection> connections = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int id = i;
+            futures.add(ConnectionHolder.executeAsync(connection -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                connections.add(connection);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return insert(connection, id);
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertEquals(10, count());
+        assertTrue(maxRunning.get() <= POOL_SIZE);
+        assertTrue(connections.size() <= POOL_SIZE);
+    }
+
+    @Test
+    public void testAsyncQueryFailureCompletesTheFuture() throws Exception {
+        CompletableFuture<Integer> future = ConnectionHolder.executeAsync(connection -> {
+            throw new SQLException("Expected failure");
+        });
+
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("The query did not fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+    }
+
+    @Test
+    public void testStatisticsAfterClose() {
+        ConnectionHolder.close();
+
+        assertEquals("Database pool: not connected", ConnectionHolder.getStatistics());
+    }
+
+    private static Integer insert(Connection connection, int id) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            return statement.executeUpdate("INSERT INTO entries (id) VALUES (" + id + ")");
+        }
+    }
+
+    private static int count() throws SQLException {
+        return ConnectionHolder.execute(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM entries")) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        });
+    }
+}
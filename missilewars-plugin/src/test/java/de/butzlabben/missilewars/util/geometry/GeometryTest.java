@@ -0,0 +1,67 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.util.geometry;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.Test;
+
+import static de.butzlabben.missilewars.TestStubs.createWorld;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GeometryTest {
+
+    private final World world = createWorld();
+
+    @Test
+    public void testSameBlock() {
+        assertTrue(Geometry.isSameBlock(new Location(world, 1.1, 64.0, 1.9), new Location(world, 1.8, 64.99, 1.2)));
+    }
+
+    @Test
+    public void testOnlyRotationChanged() {
+        Location from = new Location(world, 5.5, 70, 5.5, 0, 0);
+        Location to = new Location(world, 5.5, 70, 5.5, 90, 45);
+
+        assertTrue(Geometry.isSameBlock(from, to));
+    }
+
+    @Test
+    public void testOtherBlock() {
+        Location from = new Location(world, 1.9, 64, 1.5);
+
+        assertFalse(Geometry.isSameBlock(from, new Location(world, 2.0, 64, 1.5)));
+        assertFalse(Geometry.isSameBlock(from, new Location(world, 1.9, 65, 1.5)));
+        assertFalse(Geometry.isSameBlock(from, new Location(world, 1.9, 64, 2.5)));
+    }
+
+    @Test
+    public void testNegativeCoordinates() {
+        // The block coordinates are rounded down, so -0.5 is in the block -1.
+        assertTrue(Geometry.isSameBlock(new Location(world, -0.5, 64, -0.1), new Location(world, -0.9, 64, -0.9)));
+        assertFalse(Geometry.isSameBlock(new Location(world, -0.5, 64, 0), new Location(world, 0.5, 64, 0)));
+    }
+
+    @Test
+    public void testOtherWorld() {
+        assertFalse(Geometry.isSameBlock(new Location(world, 1, 64, 1), new Location(createWorld(), 1, 64, 1)));
+    }
+}
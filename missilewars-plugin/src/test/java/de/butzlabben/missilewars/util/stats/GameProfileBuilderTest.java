@@ -0,0 +1,129 @@
+/*
+ * This file is part of MissileWars (https://github.com/Butzlabben/missilewars).
+ * Copyright (c) 2018-2021 Daniel Nägele.
+ *
+ * MissileWars is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MissileWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MissileWars.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.butzlabben.missilewars.util.stats;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * The profiles are requested from a local stand-in for the session server.
+ */
+public class GameProfileBuilderTest {
+
+    private static final String PROFILE_PATH = "/session/minecraft/profile/";
+    private static final String SKIN_URL = "http://textures.minecraft.net/texture/1234";
+
+    private final Map<String, String> responses = new ConcurrentHashMap<>();
+    private HttpServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(PROFILE_PATH, exchange -> {
+            String id = exchange.getRequestURI().getPath().substring(PROFILE_PATH.length());
+            String response = responses.get(id);
+            if (response == null) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+
+            byte[] body = response.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, (body.length == 0) ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        GameProfileBuilder.setSessionServerUrl("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        GameProfileBuilder.setSessionServerUrl("https://sessionserver.mojang.com");
+    }
+
+    @Test
+    public void testProfileWithSkin() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        String textures = "{\"textures\":{\"SKIN\":{\"url\":\"" + SKIN_URL + "\"}}}";
+        responses.put(undashed(uuid), "{\"id\":\"" + undashed(uuid) + "\",\"name\":\"Steve\",\"properties\":[{\"name\":\"textures\","
+                + "\"value\":\"" + Base64.getEncoder().encodeToString(textures.getBytes(StandardCharsets.UTF_8)) + "\"}]}");
+
+        GameProfileBuilder.CachedProfile profile = GameProfileBuilder.download(uuid);
+
+        assertEquals(uuid, profile.getUuid());
+        assertEquals("Steve", profile.getName());
+        assertEquals(SKIN_URL, profile.getSkinUrl());
+        assertEquals(uuid, profile.getProfile().getId());
+        assertEquals(1, profile.getProfile().getProperties().get("textures").size());
+    }
+
+    @Test
+    public void testProfileWithoutSkin() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        responses.put(undashed(uuid), "{\"id\":\"" + undashed(uuid) + "\",\"name\":\"Alex\"}");
+
+        GameProfileBuilder.CachedProfile profile = GameProfileBuilder.download(uuid);
+
+        assertEquals("Alex", profile.getName());
+        assertNull(profile.getSkinUrl());
+    }
+
+    @Test
+    public void testEmptyResponseFails() {
+        UUID uuid = UUID.randomUUID();
+        responses.put(undashed(uuid), "");
+
+        try {
+            GameProfileBuilder.download(uuid);
+            fail("The empty response was accepted");
+        } catch (IOException e) {
+            assertEquals("Could not connect to mojang servers for unknown player " + uuid, e.getMessage());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnknownProfileFails() throws IOException {
+        GameProfileBuilder.download(UUID.randomUUID());
+    }
+
+    private static String undashed(UUID uuid) {
+        return uuid.toString().replace("-", "");
+    }
+}